@@ -0,0 +1,338 @@
+package com.example.cms.analytics;
+
+import com.example.cms.model.AnalyticsWatermark;
+import com.example.cms.model.CommentBucket;
+import com.example.cms.model.DailyCommentCount;
+import com.example.cms.model.TagCount;
+import com.example.cms.model.TypeCount;
+import com.example.cms.partition.ContentPartitions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps per-type counts, tag counts and comments per day in summary collections, written by
+// aggregation pipelines ending in $merge. A refresh only recomputes the keys that may have
+// changed: those marked by content writes, plus the types, tags and comment days of documents
+// updated since the last watermark. Keys that no longer have any documents are removed. Content
+// pipelines read every partition they need through $unionWith. Type counts are not aggregated at
+// all: a type is one partition, so they are two counts answered from the published index.
+@Service
+public class AnalyticsService {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final String WATERMARK_ID = "content";
+    private static final String DAY_FORMAT = "%Y-%m-%d";
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentPartitions partitions;
+    private final long overlapMillis;
+    private final long triggerDelayMillis;
+    private final long minRefreshIntervalMillis;
+
+    private final Set<String> dirtyTypes = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyTags = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyDays = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fullRefreshRequested = new AtomicBoolean();
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile long lastRefreshStarted;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analytics-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public AnalyticsService(MongoTemplate mongoTemplate, ContentPartitions partitions,
+                            @Value("${cms.analytics.watermark-overlap-millis:5000}") long overlapMillis,
+                            @Value("${cms.analytics.trigger-delay-millis:2000}") long triggerDelayMillis,
+                            @Value("${cms.analytics.min-refresh-interval-millis:10000}") long minRefreshIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitions = partitions;
+        this.overlapMillis = overlapMillis;
+        this.triggerDelayMillis = triggerDelayMillis;
+        this.minRefreshIntervalMillis = minRefreshIntervalMillis;
+    }
+
+    public List<TypeCount> getTypeCounts() {
+        return mongoTemplate.find(new Query().with(Sort.by("type")), TypeCount.class);
+    }
+
+    public List<TagCount> getTopTags(int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "count")).limit(Math.max(1, Math.min(limit, 100)));
+        return mongoTemplate.find(query, TagCount.class);
+    }
+
+    public List<DailyCommentCount> getCommentsPerDay(LocalDate from, LocalDate to) {
+        Criteria range = Criteria.where("day");
+        if (from != null) {
+            range.gte(from.toString());
+        }
+        if (to != null) {
+            range.lte(to.toString());
+        }
+        Query query = from != null || to != null ? new Query(range) : new Query();
+        return mongoTemplate.find(query.with(Sort.by("day")), DailyCommentCount.class);
+    }
+
+    public AnalyticsWatermark getStatus() {
+        return mongoTemplate.findById(WATERMARK_ID, AnalyticsWatermark.class);
+    }
+
+    // Called by content writes with the type and the tags before and after the change
+    public void markChanged(String type, Collection<?> tags) {
+        if (type != null) {
+            dirtyTypes.add(type);
+        }
+        if (tags != null) {
+            tags.forEach(tag -> dirtyTags.add(String.valueOf(tag)));
+        }
+        requestRefresh();
+    }
+
+    // Must be called before the item's comment buckets are deleted
+    public void markCommentsRemoved(String contentId) {
+        for (Document day : aggregateDays(new Criteria("contentId").is(contentId), null)) {
+            dirtyDays.add(day.getString("_id"));
+        }
+        requestRefresh();
+    }
+
+    // For writes that bypass updatedAt, such as imports that keep the original timestamps
+    public void requestFullRefresh() {
+        fullRefreshRequested.set(true);
+        requestRefresh();
+    }
+
+    @Scheduled(initialDelayString = "${cms.analytics.refresh-interval-millis:60000}",
+            fixedDelayString = "${cms.analytics.refresh-interval-millis:60000}")
+    public synchronized void refresh() {
+        long started = System.currentTimeMillis();
+        lastRefreshStarted = started;
+        Date refreshedAt = new Date(started);
+
+        AnalyticsWatermark previous = getStatus();
+        boolean full = previous == null || fullRefreshRequested.getAndSet(false);
+        Set<String> types = drain(dirtyTypes);
+        Set<String> tags = drain(dirtyTags);
+        Set<String> days = drain(dirtyDays);
+
+        try {
+            if (full) {
+                refreshTypes(null, refreshedAt);
+                refreshTags(null, refreshedAt);
+                refreshCommentDays(null, refreshedAt);
+            } else {
+                // Overlap with the previous run, for writes that committed after it with an earlier updatedAt
+                Date since = new Date(previous.getWatermark().getTime() - overlapMillis);
+                Query changed = new Query(Criteria.where("updatedAt").gt(since));
+                for (String collection : partitions.all()) {
+                    if (mongoTemplate.exists(changed, collection)) {
+                        types.add(ContentPartitions.typeOf(collection));
+                        tags.addAll(mongoTemplate.findDistinct(changed, "data.tags", collection, String.class));
+                    }
+                }
+                Criteria newComments = Criteria.where("comments.timestamp").gt(since);
+                for (Document day : aggregateDays(newComments, newComments)) {
+                    days.add(day.getString("_id"));
+                }
+
+                if (!types.isEmpty()) {
+                    refreshTypes(types, refreshedAt);
+                }
+                if (!tags.isEmpty()) {
+                    refreshTags(tags, refreshedAt);
+                }
+                if (!days.isEmpty()) {
+                    refreshCommentDays(days, refreshedAt);
+                }
+            }
+        } catch (DataAccessException ex) {
+            log.error("Analytics refresh failed, retrying with the next one: {}", ex.getMessage());
+            dirtyTypes.addAll(types);
+            dirtyTags.addAll(tags);
+            dirtyDays.addAll(days);
+            if (full) {
+                fullRefreshRequested.set(true);
+            }
+            return;
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        mongoTemplate.save(new AnalyticsWatermark(WATERMARK_ID, refreshedAt, new Date(), elapsed, full));
+        log.debug("Refreshed analytics ({}) in {} ms: {} types, {} tags, {} days", full ? "full" : "incremental",
+                elapsed, types.size(), tags.size(), days.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // Regrouping a partition reads every document in it, however few changed. published is always
+    // written and leads the published_updatedAt_id index, so both counts are index count scans.
+    private void refreshTypes(Set<String> types, Date refreshedAt) {
+        List<String> collections = new ArrayList<>();
+        if (types == null) {
+            collections.addAll(partitions.all());
+        } else {
+            types.forEach(type -> partitions.existingPartition(type).ifPresent(collections::add));
+        }
+        for (String collection : collections) {
+            long published = mongoTemplate.count(new Query(Criteria.where("published").is(true)), collection);
+            long drafts = mongoTemplate.count(new Query(Criteria.where("published").is(false)), collection);
+            if (published + drafts > 0) {
+                mongoTemplate.save(new TypeCount(ContentPartitions.typeOf(collection), published + drafts,
+                        published, refreshedAt));
+            }
+        }
+        removeStale(TypeCount.class, types, refreshedAt);
+    }
+
+    private void refreshTags(Set<String> tags, Date refreshedAt) {
+        Criteria filter = tags != null ? Criteria.where("data.tags").in(tags) : null;
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.unwind("data.tags"));
+        if (tags != null) {
+            stages.add(Aggregation.match(Criteria.where("data.tags").in(tags)));
+        }
+        stages.add(Aggregation.group("data.tags").count().as("count"));
+        mergeContent(partitions.all(), filter, stages, TagCount.class, tags, refreshedAt);
+    }
+
+    // Runs stages over the union of the partitions, each filtered on its own before the union
+    private void mergeContent(List<String> collections, Criteria filter, List<AggregationOperation> stages,
+                              Class<?> summary, Set<String> keys, Date refreshedAt) {
+        if (collections.isEmpty()) {
+            removeStale(summary, keys, refreshedAt);
+            return;
+        }
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (filter != null) {
+            pipeline.add(Aggregation.match(filter));
+        }
+        for (String other : collections.subList(1, collections.size())) {
+            UnionWithOperation union = UnionWithOperation.unionWith(other);
+            pipeline.add(filter != null ? union.pipeline(Aggregation.match(filter)) : union);
+        }
+        pipeline.addAll(stages);
+        merge(pipeline, collections.get(0), summary, keys, refreshedAt);
+    }
+
+    private void refreshCommentDays(Set<String> days, Date refreshedAt) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (days != null) {
+            // Only buckets with a comment on or after the earliest day can contribute
+            Date from = Date.from(LocalDate.parse(days.stream().min(String::compareTo).get())
+                    .atStartOfDay(ZoneOffset.UTC).toInstant());
+            pipeline.add(Aggregation.match(Criteria.where("comments.timestamp").gte(from)));
+        }
+        pipeline.addAll(dayStages(days != null ? Criteria.where("day").in(days) : null));
+        merge(pipeline, mongoTemplate.getCollectionName(CommentBucket.class), DailyCommentCount.class, days, refreshedAt);
+    }
+
+    // Replaces the summary documents produced by the pipeline, then drops the keys it no longer produces
+    private void merge(List<AggregationOperation> pipeline, String source, Class<?> summary, Set<String> keys,
+                       Date refreshedAt) {
+        String target = mongoTemplate.getCollectionName(summary);
+        pipeline.add(Aggregation.addFields().addFieldWithValue("refreshedAt", refreshedAt).build());
+        pipeline.add(Aggregation.merge().intoCollection(target)
+                .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build());
+        mongoTemplate.aggregate(Aggregation.newAggregation(pipeline), source, Document.class);
+        removeStale(summary, keys, refreshedAt);
+    }
+
+    private void removeStale(Class<?> summary, Set<String> keys, Date refreshedAt) {
+        Criteria stale = Criteria.where("refreshedAt").ne(refreshedAt);
+        if (keys != null) {
+            stale = stale.and("_id").in(keys);
+        }
+        mongoTemplate.remove(new Query(stale), mongoTemplate.getCollectionName(summary));
+    }
+
+    private List<Document> aggregateDays(Criteria bucketFilter, Criteria commentFilter) {
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(Aggregation.match(bucketFilter));
+        pipeline.addAll(dayStages(null, commentFilter));
+        pipeline.add(Aggregation.project("_id"));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(pipeline),
+                mongoTemplate.getCollectionName(CommentBucket.class), Document.class).getMappedResults();
+    }
+
+    private List<AggregationOperation> dayStages(Criteria dayFilter) {
+        return dayStages(dayFilter, null);
+    }
+
+    private List<AggregationOperation> dayStages(Criteria dayFilter, Criteria commentFilter) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.unwind("comments"));
+        if (commentFilter != null) {
+            stages.add(Aggregation.match(commentFilter));
+        }
+        stages.add(Aggregation.project()
+                .and(DateOperators.dateOf("comments.timestamp").toString(DAY_FORMAT)).as("day"));
+        if (dayFilter != null) {
+            stages.add(Aggregation.match(dayFilter));
+        }
+        stages.add(Aggregation.group("day").count().as("count"));
+        return stages;
+    }
+
+    private void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            // The delay lets a burst of writes share one refresh, and steady writes refresh at most
+            // once per min-refresh-interval
+            long delay = Math.max(triggerDelayMillis,
+                    lastRefreshStarted + minRefreshIntervalMillis - System.currentTimeMillis());
+            refresher.schedule(() -> {
+                refreshQueued.set(false);
+                try {
+                    refresh();
+                } catch (RuntimeException ex) {
+                    log.error("Analytics refresh failed", ex);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Set<String> drain(Set<String> dirty) {
+        Set<String> drained = new HashSet<>();
+        for (Iterator<String> iterator = dirty.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
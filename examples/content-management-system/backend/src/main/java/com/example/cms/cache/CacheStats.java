@@ -0,0 +1,18 @@
+package com.example.cms.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+    private int size;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long loads;
+    private long loadFailures;
+    private double averageLoadMillis;
+}
@@ -0,0 +1,148 @@
+package com.example.cms.cache;
+
+import com.example.cms.model.ContentItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Bounded LRU cache for hot reads. Concurrent misses on the same key share a single load.
+@Component
+public class ContentCache {
+    private static final String CONTENT_PREFIX = "content:";
+    private static final String PUBLISHED_PREFIX = "published:";
+
+    private final Map<String, Object> entries;
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public ContentCache(@Value("${cms.cache.max-entries:10000}") int maxEntries) {
+        this.entries = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static String contentKey(String id) {
+        return CONTENT_PREFIX + id;
+    }
+
+    public static String publishedKey(String type, String... parameters) {
+        return PUBLISHED_PREFIX + type + "|" + String.join("|", parameters);
+    }
+
+    // Returns the cached value without loading it or counting a hit or miss
+    @SuppressWarnings("unchecked")
+    public <T> T peek(String key) {
+        synchronized (entries) {
+            return (T) entries.get(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+        }
+        misses.increment();
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(key, load);
+        if (running != null) {
+            return (T) await(running);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T value = loader.get();
+            loads.increment();
+            loadNanos.add(System.nanoTime() - start);
+
+            synchronized (entries) {
+                // An invalidation during the load removes it from loading; its result must not be cached then
+                if (loading.remove(key, load) && value != null) {
+                    entries.put(key, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            loadFailures.increment();
+            synchronized (entries) {
+                loading.remove(key, load);
+            }
+            load.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public void invalidate(ContentItem content) {
+        invalidate(content.getId(), content.getType());
+    }
+
+    public void invalidate(String id, String type) {
+        synchronized (entries) {
+            entries.remove(contentKey(id));
+            loading.remove(contentKey(id));
+            if (type != null) {
+                invalidatePublished(type);
+            }
+        }
+    }
+
+    public void invalidatePublished(String type) {
+        String published = PUBLISHED_PREFIX + type + "|";
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.startsWith(published));
+            loading.keySet().removeIf(key -> key.startsWith(published));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            loading.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        double hitRatio = hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0;
+        double averageLoadMillis = loadCount > 0 ? loadNanos.sum() / 1_000_000.0 / loadCount : 0;
+        return new CacheStats(size, hitCount, missCount, hitRatio, loadCount, loadFailures.sum(), averageLoadMillis);
+    }
+
+    private Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cms.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.Getter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public class ArticleData extends TypedContentData {
+    private String title;
+    private String content;
+    private List<String> tags;
+    private ArticleMetadata metadata;
+
+    private ArticleData(Map<String, Object> extras) {
+        super(extras);
+    }
+
+    static ArticleData decode(BsonReader reader) {
+        Map<String, Object> extras = new LinkedHashMap<>();
+        ArticleData data = new ArticleData(extras);
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            BsonType type = reader.getCurrentBsonType();
+            if (name.equals("title") && type == BsonType.STRING) {
+                data.title = reader.readString();
+            } else if (name.equals("content") && type == BsonType.STRING) {
+                data.content = reader.readString();
+            } else if (name.equals("metadata") && type == BsonType.DOCUMENT) {
+                data.metadata = ArticleMetadata.decode(reader);
+            } else if (name.equals("tags") && type == BsonType.ARRAY) {
+                List<Object> tags = BsonValues.readArray(reader);
+                data.tags = BsonValues.asStrings(tags);
+                if (data.tags == null) {
+                    extras.put(name, tags);
+                }
+            } else {
+                extras.put(name, BsonValues.read(reader));
+            }
+        }
+        reader.readEndDocument();
+        return data;
+    }
+
+    @Override
+    protected Object field(String key) {
+        switch (key) {
+            case "title":
+                return title;
+            case "content":
+                return content;
+            case "tags":
+                return tags;
+            case "metadata":
+                return metadata;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected void collectFields(Map<String, Object> target) {
+        putIfPresent(target, "title", title);
+        putIfPresent(target, "content", content);
+        putIfPresent(target, "tags", tags);
+        putIfPresent(target, "metadata", metadata);
+    }
+
+    @Override
+    protected void writeFields(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        writeString(generator, "title", title);
+        writeString(generator, "content", content);
+        writeStrings(generator, "tags", tags);
+        writeValue(generator, provider, "metadata", metadata);
+    }
+}
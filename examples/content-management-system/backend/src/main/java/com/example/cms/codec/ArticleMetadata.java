@@ -0,0 +1,91 @@
+package com.example.cms.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.Getter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+public class ArticleMetadata extends TypedContentData {
+    private Long viewCount;
+    private Long likeCount;
+    private Integer estimatedReadTime;
+    private String featuredImage;
+
+    private ArticleMetadata(Map<String, Object> extras) {
+        super(extras);
+    }
+
+    static ArticleMetadata decode(BsonReader reader) {
+        Map<String, Object> extras = new LinkedHashMap<>();
+        ArticleMetadata metadata = new ArticleMetadata(extras);
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            BsonType type = reader.getCurrentBsonType();
+            boolean integral = type == BsonType.INT32 || type == BsonType.INT64;
+            if (name.equals("viewCount") && integral) {
+                metadata.viewCount = readLong(reader, type);
+            } else if (name.equals("likeCount") && integral) {
+                metadata.likeCount = readLong(reader, type);
+            } else if (name.equals("estimatedReadTime") && type == BsonType.INT32) {
+                metadata.estimatedReadTime = reader.readInt32();
+            } else if (name.equals("featuredImage") && type == BsonType.STRING) {
+                metadata.featuredImage = reader.readString();
+            } else {
+                extras.put(name, BsonValues.read(reader));
+            }
+        }
+        reader.readEndDocument();
+        return metadata;
+    }
+
+    // Counters start as int32 and may be widened to int64 by $inc
+    private static long readLong(BsonReader reader, BsonType type) {
+        return type == BsonType.INT32 ? reader.readInt32() : reader.readInt64();
+    }
+
+    @Override
+    protected Object field(String key) {
+        switch (key) {
+            case "viewCount":
+                return viewCount;
+            case "likeCount":
+                return likeCount;
+            case "estimatedReadTime":
+                return estimatedReadTime;
+            case "featuredImage":
+                return featuredImage;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected void collectFields(Map<String, Object> target) {
+        putIfPresent(target, "viewCount", viewCount);
+        putIfPresent(target, "likeCount", likeCount);
+        putIfPresent(target, "estimatedReadTime", estimatedReadTime);
+        putIfPresent(target, "featuredImage", featuredImage);
+    }
+
+    @Override
+    protected void writeFields(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (viewCount != null) {
+            generator.writeNumberField("viewCount", viewCount);
+        }
+        if (likeCount != null) {
+            generator.writeNumberField("likeCount", likeCount);
+        }
+        if (estimatedReadTime != null) {
+            generator.writeNumberField("estimatedReadTime", estimatedReadTime);
+        }
+        writeString(generator, "featuredImage", featuredImage);
+    }
+}
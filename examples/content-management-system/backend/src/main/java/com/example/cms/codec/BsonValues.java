@@ -0,0 +1,215 @@
+package com.example.cms.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reading and writing helpers shared by the codecs. The generic readers produce the same Java
+// types as the Spring mapping layer, and the writers store them as it does, so untyped parts of a
+// document look the same either way.
+final class BsonValues {
+    private static final BsonValueCodec BSON_VALUE_CODEC = new BsonValueCodec();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+
+    private BsonValues() {
+    }
+
+    static Object read(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT:
+                return readDocument(reader);
+            case ARRAY:
+                return readArray(reader);
+            case STRING:
+                return reader.readString();
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return reader.readDouble();
+            case DECIMAL128:
+                return reader.readDecimal128().bigDecimalValue();
+            case BOOLEAN:
+                return reader.readBoolean();
+            case DATE_TIME:
+                return new Date(reader.readDateTime());
+            case OBJECT_ID:
+                return reader.readObjectId();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                return BSON_VALUE_CODEC.decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+    static Map<String, Object> readDocument(BsonReader reader) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            document.put(name, read(reader));
+        }
+        reader.readEndDocument();
+        return document;
+    }
+
+    static List<Object> readArray(BsonReader reader) {
+        List<Object> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(read(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    // Lenient readers for fields with a fixed Java type; values of another BSON type are skipped
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static String readId(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId().toHexString();
+        }
+        return readString(reader);
+    }
+
+    static Date readDate(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return new Date(reader.readDateTime());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+            return reader.readBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+
+    static int readInt(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    // Returns the list only if every element is a string; otherwise the caller keeps it untyped
+    @SuppressWarnings("unchecked")
+    static List<String> asStrings(List<Object> values) {
+        for (Object value : values) {
+            if (!(value instanceof String)) {
+                return null;
+            }
+        }
+        return (List<String>) (List<?>) values;
+    }
+
+    // Writers; typed data (TypedContentData) is a Map and goes through write like any other
+
+    static void write(BsonWriter writer, Object value) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof Map) {
+            writer.writeStartDocument();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writer.writeName(String.valueOf(entry.getKey()));
+                write(writer, entry.getValue());
+            }
+            writer.writeEndDocument();
+        } else if (value instanceof Collection) {
+            writer.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                write(writer, element);
+            }
+            writer.writeEndArray();
+        } else if (value instanceof String) {
+            writer.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writer.writeInt32(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            writer.writeInt64((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            writer.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            writer.writeDecimal128(new Decimal128((BigDecimal) value));
+        } else if (value instanceof Boolean) {
+            writer.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            writer.writeDateTime(((Date) value).getTime());
+        } else if (value instanceof ObjectId) {
+            writer.writeObjectId((ObjectId) value);
+        } else if (value instanceof BsonValue) {
+            BSON_VALUE_CODEC.encode(writer, (BsonValue) value, ENCODER_CONTEXT);
+        } else {
+            throw new CodecConfigurationException("Cannot encode a " + value.getClass().getName());
+        }
+    }
+
+    // Like the mapping layer, ids that are valid ObjectIds are stored as ObjectIds
+    static void writeId(BsonWriter writer, String id) {
+        if (id != null) {
+            writer.writeName("_id");
+            if (ObjectId.isValid(id)) {
+                writer.writeObjectId(new ObjectId(id));
+            } else {
+                writer.writeString(id);
+            }
+        }
+    }
+
+    // Absent values are left out, as the mapping layer does with nulls
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeDate(BsonWriter writer, String name, Date value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.getTime());
+        }
+    }
+
+    static void write(BsonWriter writer, String name, Object value) {
+        if (value != null) {
+            writer.writeName(name);
+            write(writer, value);
+        }
+    }
+}
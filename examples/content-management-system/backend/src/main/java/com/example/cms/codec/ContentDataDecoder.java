@@ -0,0 +1,11 @@
+package com.example.cms.codec;
+
+import org.bson.BsonReader;
+
+import java.util.Map;
+
+// Decodes the data sub-document of one content type; the reader is positioned at its start
+@FunctionalInterface
+public interface ContentDataDecoder {
+    Map<String, Object> decode(BsonReader reader);
+}
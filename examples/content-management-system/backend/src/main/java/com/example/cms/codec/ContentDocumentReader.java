@@ -0,0 +1,46 @@
+package com.example.cms.codec;
+
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read path for whole content documents that bypasses the generic mapping layer
+@Component
+public class ContentDocumentReader {
+    private final MongoTemplate mongoTemplate;
+    private final ContentTypeRegistry registry;
+    private final ContentPartitions partitions;
+    private final Map<String, MongoCollection<ContentItem>> collections = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ContentDocumentReader(MongoTemplate mongoTemplate, ContentTypeRegistry registry,
+                                 ContentPartitions partitions) {
+        this.mongoTemplate = mongoTemplate;
+        this.registry = registry;
+        this.partitions = partitions;
+    }
+
+    public Optional<ContentItem> findById(String id) {
+        return Optional.ofNullable(partitions.lookup(id,
+                collection -> collection(collection).find(Filters.eq("_id", ContentPartitions.key(id))).first()));
+    }
+
+    private MongoCollection<ContentItem> collection(String name) {
+        return collections.computeIfAbsent(name, key -> {
+            MongoCollection<?> content = mongoTemplate.getCollection(key);
+            return content
+                    .withCodecRegistry(CodecRegistries.fromRegistries(
+                            CodecRegistries.fromCodecs(new ContentItemCodec(registry)), content.getCodecRegistry()))
+                    .withDocumentClass(ContentItem.class);
+        });
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.cms.codec;
+
+import com.example.cms.model.Comment;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.Reply;
+import com.example.cms.model.User;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Decodes content documents straight from BSON, without an intermediate Document, handing the
+// data sub-document to the decoder registered for the item's type. Encoding writes the layout the
+// mapping layer writes, minus _class, so the codec is safe in any registry; the application itself
+// still writes content through MongoTemplate.
+public class ContentItemCodec implements Codec<ContentItem> {
+    private final ContentTypeRegistry registry;
+
+    public ContentItemCodec(ContentTypeRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Class<ContentItem> getEncoderClass() {
+        return ContentItem.class;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ContentItem value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonValues.writeId(writer, value.getId());
+        // Before data, which is decoded by type
+        BsonValues.writeString(writer, "type", value.getType());
+        BsonValues.write(writer, "data", value.getData());
+        writer.writeBoolean("published", value.isPublished());
+        BsonValues.writeDate(writer, "createdAt", value.getCreatedAt());
+        BsonValues.writeDate(writer, "updatedAt", value.getUpdatedAt());
+        if (value.getAuthor() != null) {
+            writer.writeName("author");
+            writeUser(writer, value.getAuthor());
+        }
+        if (value.getComments() != null) {
+            writer.writeStartArray("comments");
+            for (Comment comment : value.getComments()) {
+                writeComment(writer, comment);
+            }
+            writer.writeEndArray();
+        }
+        writer.writeInt32("commentCount", value.getCommentCount());
+        writer.writeInt32("revision", value.getRevision());
+        BsonValues.write(writer, "mediaIds", value.getMediaIds());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public ContentItem decode(BsonReader reader, DecoderContext decoderContext) {
+        ContentItem content = new ContentItem();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            switch (name) {
+                case "_id":
+                    content.setId(BsonValues.readId(reader));
+                    break;
+                case "type":
+                    content.setType(BsonValues.readString(reader));
+                    break;
+                case "data":
+                    // The mapping layer writes type before data, so the type is normally known here
+                    if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                        content.setData(registry.decodeData(content.getType(), reader));
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "published":
+                    content.setPublished(BsonValues.readBoolean(reader));
+                    break;
+                case "createdAt":
+                    content.setCreatedAt(BsonValues.readDate(reader));
+                    break;
+                case "updatedAt":
+                    content.setUpdatedAt(BsonValues.readDate(reader));
+                    break;
+                case "author":
+                    content.setAuthor(reader.getCurrentBsonType() == BsonType.DOCUMENT ? readUser(reader) : skip(reader));
+                    break;
+                case "comments":
+                    content.setComments(reader.getCurrentBsonType() == BsonType.ARRAY ? readComments(reader) : new ArrayList<>());
+                    break;
+                case "commentCount":
+                    content.setCommentCount(BsonValues.readInt(reader));
+                    break;
+                case "revision":
+                    content.setRevision(BsonValues.readInt(reader));
+                    break;
+                case "mediaIds":
+                    List<String> mediaIds = reader.getCurrentBsonType() == BsonType.ARRAY
+                            ? BsonValues.asStrings(BsonValues.readArray(reader)) : skip(reader);
+                    content.setMediaIds(mediaIds != null ? mediaIds : new ArrayList<>());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return content;
+    }
+
+    private void writeUser(BsonWriter writer, User user) {
+        writer.writeStartDocument();
+        BsonValues.writeId(writer, user.getId());
+        BsonValues.writeString(writer, "name", user.getName());
+        BsonValues.writeString(writer, "email", user.getEmail());
+        BsonValues.writeString(writer, "role", user.getRole());
+        BsonValues.writeDate(writer, "updatedAt", user.getUpdatedAt());
+        writer.writeEndDocument();
+    }
+
+    private void writeComment(BsonWriter writer, Comment comment) {
+        writer.writeStartDocument();
+        BsonValues.writeId(writer, comment.getId());
+        BsonValues.writeString(writer, "userId", comment.getUserId());
+        BsonValues.writeString(writer, "userName", comment.getUserName());
+        BsonValues.writeString(writer, "text", comment.getText());
+        BsonValues.writeDate(writer, "timestamp", comment.getTimestamp());
+        if (comment.getReplies() != null) {
+            writer.writeStartArray("replies");
+            for (Reply reply : comment.getReplies()) {
+                writer.writeStartDocument();
+                BsonValues.writeId(writer, reply.getId());
+                BsonValues.writeString(writer, "userId", reply.getUserId());
+                BsonValues.writeString(writer, "userName", reply.getUserName());
+                BsonValues.writeString(writer, "text", reply.getText());
+                BsonValues.writeDate(writer, "timestamp", reply.getTimestamp());
+                writer.writeEndDocument();
+            }
+            writer.writeEndArray();
+        }
+        BsonValues.write(writer, "position", comment.getPosition());
+        writer.writeEndDocument();
+    }
+
+    private User readUser(BsonReader reader) {
+        User user = new User();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    user.setId(BsonValues.readId(reader));
+                    break;
+                case "name":
+                    user.setName(BsonValues.readString(reader));
+                    break;
+                case "email":
+                    user.setEmail(BsonValues.readString(reader));
+                    break;
+                case "role":
+                    user.setRole(BsonValues.readString(reader));
+                    break;
+                case "updatedAt":
+                    user.setUpdatedAt(BsonValues.readDate(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return user;
+    }
+
+    private List<Comment> readComments(BsonReader reader) {
+        List<Comment> comments = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+                continue;
+            }
+            Comment comment = new Comment();
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "_id":
+                        comment.setId(BsonValues.readId(reader));
+                        break;
+                    case "userId":
+                        comment.setUserId(BsonValues.readString(reader));
+                        break;
+                    case "userName":
+                        comment.setUserName(BsonValues.readString(reader));
+                        break;
+                    case "text":
+                        comment.setText(BsonValues.readString(reader));
+                        break;
+                    case "timestamp":
+                        comment.setTimestamp(BsonValues.readDate(reader));
+                        break;
+                    case "replies":
+                        comment.setReplies(reader.getCurrentBsonType() == BsonType.ARRAY ? readReplies(reader) : new ArrayList<>());
+                        break;
+                    case "position":
+                        comment.setPosition(reader.getCurrentBsonType() == BsonType.INT32 ? reader.readInt32() : skip(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            comments.add(comment);
+        }
+        reader.readEndArray();
+        return comments;
+    }
+
+    private List<Reply> readReplies(BsonReader reader) {
+        List<Reply> replies = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+                continue;
+            }
+            Reply reply = new Reply();
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "_id":
+                        reply.setId(BsonValues.readId(reader));
+                        break;
+                    case "userId":
+                        reply.setUserId(BsonValues.readString(reader));
+                        break;
+                    case "userName":
+                        reply.setUserName(BsonValues.readString(reader));
+                        break;
+                    case "text":
+                        reply.setText(BsonValues.readString(reader));
+                        break;
+                    case "timestamp":
+                        reply.setTimestamp(BsonValues.readDate(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            replies.add(reply);
+        }
+        reader.readEndArray();
+        return replies;
+    }
+
+    private static <T> T skip(BsonReader reader) {
+        reader.skipValue();
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cms.codec;
+
+import org.bson.BsonReader;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Content types with a known data schema. Types that are not registered decode to a plain map.
+@Component
+public class ContentTypeRegistry {
+    private final Map<String, ContentDataDecoder> decoders = new ConcurrentHashMap<>();
+
+    public ContentTypeRegistry() {
+        register("article", ArticleData::decode);
+        register("product", ProductData::decode);
+    }
+
+    public void register(String type, ContentDataDecoder decoder) {
+        decoders.put(type, decoder);
+    }
+
+    public Set<String> types() {
+        return Collections.unmodifiableSet(decoders.keySet());
+    }
+
+    public Map<String, Object> decodeData(String type, BsonReader reader) {
+        ContentDataDecoder decoder = type != null ? decoders.get(type) : null;
+        return decoder != null ? decoder.decode(reader) : BsonValues.readDocument(reader);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.cms.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.Getter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public class ProductData extends TypedContentData {
+    private String name;
+    private Double price;
+    private List<String> categories;
+    private List<ProductVariant> variants;
+
+    // Free-form by design, so it stays a plain map
+    private Map<String, Object> specifications;
+
+    private ProductData(Map<String, Object> extras) {
+        super(extras);
+    }
+
+    static ProductData decode(BsonReader reader) {
+        Map<String, Object> extras = new LinkedHashMap<>();
+        ProductData data = new ProductData(extras);
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            BsonType type = reader.getCurrentBsonType();
+            if (name.equals("name") && type == BsonType.STRING) {
+                data.name = reader.readString();
+            } else if (name.equals("price") && type == BsonType.DOUBLE) {
+                data.price = reader.readDouble();
+            } else if (name.equals("specifications") && type == BsonType.DOCUMENT) {
+                data.specifications = BsonValues.readDocument(reader);
+            } else if (name.equals("categories") && type == BsonType.ARRAY) {
+                List<Object> categories = BsonValues.readArray(reader);
+                data.categories = BsonValues.asStrings(categories);
+                if (data.categories == null) {
+                    extras.put(name, categories);
+                }
+            } else if (name.equals("variants") && type == BsonType.ARRAY) {
+                List<Object> variants = readVariants(reader);
+                if (variants.stream().allMatch(ProductVariant.class::isInstance)) {
+                    data.variants = new ArrayList<>(variants.size());
+                    variants.forEach(variant -> data.variants.add((ProductVariant) variant));
+                } else {
+                    extras.put(name, variants);
+                }
+            } else {
+                extras.put(name, BsonValues.read(reader));
+            }
+        }
+        reader.readEndDocument();
+        return data;
+    }
+
+    private static List<Object> readVariants(BsonReader reader) {
+        List<Object> variants = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                variants.add(ProductVariant.decode(reader));
+            } else {
+                variants.add(BsonValues.read(reader));
+            }
+        }
+        reader.readEndArray();
+        return variants;
+    }
+
+    @Override
+    protected Object field(String key) {
+        switch (key) {
+            case "name":
+                return name;
+            case "price":
+                return price;
+            case "categories":
+                return categories;
+            case "variants":
+                return variants;
+            case "specifications":
+                return specifications;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected void collectFields(Map<String, Object> target) {
+        putIfPresent(target, "name", name);
+        putIfPresent(target, "price", price);
+        putIfPresent(target, "categories", categories);
+        putIfPresent(target, "variants", variants);
+        putIfPresent(target, "specifications", specifications);
+    }
+
+    @Override
+    protected void writeFields(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        writeString(generator, "name", name);
+        if (price != null) {
+            generator.writeNumberField("price", price);
+        }
+        writeStrings(generator, "categories", categories);
+        if (variants != null) {
+            generator.writeArrayFieldStart("variants");
+            for (ProductVariant variant : variants) {
+                provider.defaultSerializeValue(variant, generator);
+            }
+            generator.writeEndArray();
+        }
+        writeValue(generator, provider, "specifications", specifications);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.cms.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.Getter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+public class ProductVariant extends TypedContentData {
+    private String sku;
+    private String color;
+    private Integer inStock;
+
+    private ProductVariant(Map<String, Object> extras) {
+        super(extras);
+    }
+
+    static ProductVariant decode(BsonReader reader) {
+        Map<String, Object> extras = new LinkedHashMap<>();
+        ProductVariant variant = new ProductVariant(extras);
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            BsonType type = reader.getCurrentBsonType();
+            if (name.equals("sku") && type == BsonType.STRING) {
+                variant.sku = reader.readString();
+            } else if (name.equals("color") && type == BsonType.STRING) {
+                variant.color = reader.readString();
+            } else if (name.equals("inStock") && type == BsonType.INT32) {
+                variant.inStock = reader.readInt32();
+            } else {
+                extras.put(name, BsonValues.read(reader));
+            }
+        }
+        reader.readEndDocument();
+        return variant;
+    }
+
+    @Override
+    protected Object field(String key) {
+        switch (key) {
+            case "sku":
+                return sku;
+            case "color":
+                return color;
+            case "inStock":
+                return inStock;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected void collectFields(Map<String, Object> target) {
+        putIfPresent(target, "sku", sku);
+        putIfPresent(target, "color", color);
+        putIfPresent(target, "inStock", inStock);
+    }
+
+    @Override
+    protected void writeFields(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        writeString(generator, "sku", sku);
+        writeString(generator, "color", color);
+        if (inStock != null) {
+            generator.writeNumberField("inStock", inStock);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cms.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Content data decoded into typed fields, still readable as a Map so the rest of the code does
+// not need to know about it. Fields the schema does not know, or values of an unexpected BSON
+// type, are kept in extras. Instances are read-only since they are shared through the cache.
+@JsonSerialize(using = TypedContentData.Serializer.class)
+public abstract class TypedContentData extends AbstractMap<String, Object> {
+    private final Map<String, Object> extras;
+    private Set<Entry<String, Object>> entries;
+
+    protected TypedContentData(Map<String, Object> extras) {
+        this.extras = extras;
+    }
+
+    public Map<String, Object> getExtras() {
+        return Collections.unmodifiableMap(extras);
+    }
+
+    // Value of a typed field, or null if the key is not one or the field is absent
+    protected abstract Object field(String key);
+
+    // Typed fields that are present, in output order
+    protected abstract void collectFields(Map<String, Object> target);
+
+    protected abstract void writeFields(JsonGenerator generator, SerializerProvider provider) throws IOException;
+
+    @Override
+    public Object get(Object key) {
+        Object value = key instanceof String ? field((String) key) : null;
+        return value != null ? value : extras.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null || extras.containsKey(key);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        // Only generic map access pays for this; serialization and get() go to the fields
+        if (entries == null) {
+            Map<String, Object> all = new LinkedHashMap<>();
+            collectFields(all);
+            all.putAll(extras);
+            entries = Collections.unmodifiableMap(all).entrySet();
+        }
+        return entries;
+    }
+
+    static void writeString(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    static void writeStrings(JsonGenerator generator, String name, List<String> values) throws IOException {
+        if (values != null) {
+            generator.writeArrayFieldStart(name);
+            for (String value : values) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    static void writeValue(JsonGenerator generator, SerializerProvider provider, String name, Object value) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            provider.defaultSerializeValue(value, generator);
+        }
+    }
+
+    static void putIfPresent(Map<String, Object> target, String name, Object value) {
+        if (value != null) {
+            target.put(name, value);
+        }
+    }
+
+    static class Serializer extends StdSerializer<TypedContentData> {
+        Serializer() {
+            super(TypedContentData.class);
+        }
+
+        @Override
+        public void serialize(TypedContentData value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(value);
+            value.writeFields(generator, provider);
+            for (Map.Entry<String, Object> extra : value.extras.entrySet()) {
+                generator.writeFieldName(extra.getKey());
+                provider.defaultSerializeValue(extra.getValue(), generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cms.config;
+
+import com.example.cms.model.BulkReport;
+import com.example.cms.service.ContentBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Command line entry point for bulk loads, e.g.
+//   java -jar target/cms-0.0.1-SNAPSHOT.jar --spring.main.web-application-type=none --import=content.ndjson
+//   java -jar target/cms-0.0.1-SNAPSHOT.jar --spring.main.web-application-type=none --export=content.ndjson [--export-type=article]
+@Component
+@Order(100)
+public class ContentBulkRunner implements ApplicationRunner {
+
+    private final ContentBulkService contentBulkService;
+
+    @Autowired
+    public ContentBulkRunner(ContentBulkService contentBulkService) {
+        this.contentBulkService = contentBulkService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption("import")) {
+            for (String file : args.getOptionValues("import")) {
+                try (InputStream input = Files.newInputStream(Paths.get(file))) {
+                    print("Import of " + file, contentBulkService.importContent(input));
+                }
+            }
+        }
+
+        if (args.containsOption("export")) {
+            String type = args.containsOption("export-type") ? args.getOptionValues("export-type").get(0) : null;
+            Path file = Paths.get(args.getOptionValues("export").get(0));
+            try (OutputStream output = Files.newOutputStream(file)) {
+                print("Export to " + file, contentBulkService.exportContent(type, output));
+            }
+        }
+    }
+
+    private void print(String label, BulkReport report) {
+        System.out.printf("%s: %d processed, %d succeeded, %d failed in %d ms (%.1f records/s)%n", label,
+                report.getProcessed(), report.getSucceeded(), report.getFailed(), report.getDurationMillis(),
+                report.getRecordsPerSecond());
+        for (BulkReport.RecordError error : report.getErrors()) {
+            System.out.printf("  line %d: %s%n", error.getLine(), error.getMessage());
+        }
+    }
+}
@@ -7,18 +7,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+// Seeds through the services on the main thread; fast-start loads a snapshot instead (SnapshotLoader)
 @Configuration
+@Profile("!fast-start")
 public class DataInitializer {
 
     @Bean
     public CommandLineRunner initData(UserService userService, ContentService contentService) {
         return args -> {
+            // Users have a unique email index, so only seed an empty database
+            if (!userService.getAllUsers().isEmpty()) {
+                System.out.println("Sample data already present, skipping initialization");
+                return;
+            }
+
             // Create sample users
             User user1 = new User();
             user1.setName("Jane Smith");
@@ -0,0 +1,190 @@
+package com.example.cms.config;
+
+import com.example.cms.exception.InvalidGzipBodyException;
+import com.example.cms.exception.RequestBodyTooLargeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+// Accepts request bodies sent with Content-Encoding: gzip, such as large content documents and
+// bulk imports. Tomcat compresses responses (server.compression) but does not decode requests.
+// The body is inflated while it is read and stops at max-inflated-bytes, so a small compressed
+// request cannot expand without bound. Other encodings are refused with 415. Corrupt or truncated
+// gzip and oversized bodies surface as unchecked exceptions, which message converters pass on
+// instead of wrapping, so they reach GlobalExceptionHandler as 400 and 413.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class GzipRequestFilter extends OncePerRequestFilter {
+    private final long maxInflatedBytes;
+
+    public GzipRequestFilter(@Value("${cms.compression.max-inflated-bytes:268435456}") long maxInflatedBytes) {
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.trim().isEmpty() || encoding.trim().equalsIgnoreCase("identity")) {
+            chain.doFilter(request, response);
+        } else if (encoding.trim().equalsIgnoreCase("gzip") || encoding.trim().equalsIgnoreCase("x-gzip")) {
+            chain.doFilter(new InflatedRequest(request, maxInflatedBytes), response);
+        } else {
+            response.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding: " + encoding);
+        }
+    }
+
+    // The decoded body, without the headers that described the encoded one
+    private static class InflatedRequest extends HttpServletRequestWrapper {
+        private static final List<String> HIDDEN = List.of(HttpHeaders.CONTENT_ENCODING.toLowerCase(),
+                HttpHeaders.CONTENT_LENGTH.toLowerCase());
+
+        private final long maxBytes;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        InflatedRequest(HttpServletRequest request, long maxBytes) {
+            super(request);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("getReader() has already been called");
+            }
+            if (inputStream == null) {
+                InputStream body = super.getInputStream();
+                try {
+                    // Reads and checks the gzip header
+                    inputStream = new InflatingInputStream(new GZIPInputStream(body, 8192), maxBytes);
+                } catch (ZipException | EOFException ex) {
+                    throw invalidGzip(ex);
+                }
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HIDDEN.contains(name.toLowerCase()) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HIDDEN.contains(name.toLowerCase()) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(name -> HIDDEN.contains(name.toLowerCase()));
+            return Collections.enumeration(names);
+        }
+    }
+
+    private static class InflatingInputStream extends ServletInputStream {
+        private final InputStream inflater;
+        private final long maxBytes;
+        private long read;
+        private boolean finished;
+
+        InflatingInputStream(InputStream inflater, long maxBytes) {
+            this.inflater = inflater;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count;
+            try {
+                count = inflater.read(buffer, offset, length);
+            } catch (ZipException | EOFException ex) {
+                throw invalidGzip(ex);
+            }
+            if (count < 0) {
+                finished = true;
+                return count;
+            }
+            read += count;
+            if (read > maxBytes) {
+                throw new RequestBodyTooLargeException("Decompressed request body is larger than " + maxBytes + " bytes");
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Inflated request bodies are read blocking");
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.close();
+        }
+    }
+
+    private static InvalidGzipBodyException invalidGzip(IOException cause) {
+        return new InvalidGzipBodyException("Request body is not valid gzip: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.cms.config;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+public class MongoIndexConfig {
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final long tombstoneRetentionDays;
+
+    @Autowired
+    public MongoIndexConfig(MongoTemplate mongoTemplate,
+                            @Value("${cms.sync.tombstone-retention-days:30}") long tombstoneRetentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+    }
+
+    public Map<String, List<Index>> indexes() {
+        Map<String, List<Index>> indexes = new LinkedHashMap<>();
+
+        List<Index> users = new ArrayList<>();
+        users.add(new Index().named("email").on("email", Sort.Direction.ASC).unique());
+        // Delta sync reads changes in this order
+        users.add(new Index().named("updatedAt_id")
+                .on("updatedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        indexes.put("users", users);
+
+        List<Index> commentBuckets = new ArrayList<>();
+        commentBuckets.add(new Index().named("contentId_bucket")
+                .on("contentId", Sort.Direction.ASC).on("bucket", Sort.Direction.ASC).unique());
+        commentBuckets.add(new Index().named("comments.userId")
+                .on("comments.userId", Sort.Direction.ASC));
+        commentBuckets.add(new Index().named("comments.replies.userId")
+                .on("comments.replies.userId", Sort.Direction.ASC));
+        // Analytics refresh selects the buckets with comments since its watermark or earliest day
+        commentBuckets.add(new Index().named("comments.timestamp")
+                .on("comments.timestamp", Sort.Direction.ASC));
+        indexes.put("comment_buckets", commentBuckets);
+
+        List<Index> revisions = new ArrayList<>();
+        revisions.add(new Index().named("contentId_revision")
+                .on("contentId", Sort.Direction.ASC).on("revision", Sort.Direction.ASC).unique());
+        indexes.put("content_revisions", revisions);
+
+        List<Index> tagCounts = new ArrayList<>();
+        tagCounts.add(new Index().named("count").on("count", Sort.Direction.DESC));
+        indexes.put("analytics_tag_counts", tagCounts);
+
+        List<Index> tombstones = new ArrayList<>();
+        tombstones.add(new Index().named("collection_deletedAt_documentId")
+                .on("collection", Sort.Direction.ASC)
+                .on("deletedAt", Sort.Direction.ASC).on("documentId", Sort.Direction.ASC));
+        tombstones.add(new Index().named("deletedAt_ttl")
+                .on("deletedAt", Sort.Direction.ASC).expire(Duration.ofDays(tombstoneRetentionDays)));
+        indexes.put("tombstones", tombstones);
+
+        return indexes;
+    }
+
+    // Declared on every content partition; see ContentPartitions. The type is implied by the
+    // collection, so it is no longer part of the keys, and type-specific paths need no partial filter.
+    public List<Index> partitionIndexes(String type) {
+        List<Index> content = new ArrayList<>();
+        // Default list order, used by getAllContent and, read backwards, by delta sync
+        content.add(new Index().named("updatedAt_id")
+                .on("updatedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+        content.add(new Index().named("published_updatedAt_id")
+                .on("published", Sort.Direction.ASC)
+                .on("updatedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+        content.add(new Index().named("data.tags_updatedAt_id")
+                .on("data.tags", Sort.Direction.ASC)
+                .on("updatedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+        content.add(new Index().named("author.id")
+                .on("author._id", Sort.Direction.ASC));
+        content.add(new Index().named("comments.userId")
+                .on("comments.userId", Sort.Direction.ASC));
+        content.add(new Index().named("comments.replies.userId")
+                .on("comments.replies.userId", Sort.Direction.ASC));
+
+        if (type.equals("product")) {
+            content.add(new Index().named("data.categories")
+                    .on("data.categories", Sort.Direction.ASC));
+            content.add(new Index().named("data.variants.sku")
+                    .on("data.variants.sku", Sort.Direction.ASC));
+            content.add(new Index().named("data.price")
+                    .on("data.price", Sort.Direction.ASC));
+        }
+        return content;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void reconcileIndexes() {
+        indexes().forEach(this::reconcile);
+    }
+
+    public void reconcile(String collection, List<Index> declared) {
+        Map<String, Document> existing = new HashMap<>();
+        for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+            existing.put(index.getString("name"), index);
+        }
+        existing.remove("_id_");
+
+        for (Index index : declared) {
+            String name = (String) index.getIndexOptions().get("name");
+            Document current = existing.remove(name);
+            if (current != null && matches(current, index)) {
+                continue;
+            }
+
+            try {
+                if (current != null) {
+                    log.info("Rebuilding index {}.{} because its definition changed", collection, name);
+                    mongoTemplate.indexOps(collection).dropIndex(name);
+                }
+                mongoTemplate.indexOps(collection).ensureIndex(index);
+                log.info("Created index {}.{}", collection, name);
+            } catch (RuntimeException ex) {
+                log.error("Could not create index {}.{}: {}", collection, name, ex.getMessage());
+            }
+        }
+
+        // Anything left over is no longer declared in code
+        for (String name : existing.keySet()) {
+            log.info("Dropping undeclared index {}.{}", collection, name);
+            mongoTemplate.indexOps(collection).dropIndex(name);
+        }
+    }
+
+    private boolean matches(Document current, Index index) {
+        Document options = index.getIndexOptions();
+        return current.get("key", Document.class).equals(index.getIndexKeys())
+                && current.getBoolean("unique", false) == options.getBoolean("unique", false)
+                && Objects.equals(current.get("partialFilterExpression"), options.get("partialFilterExpression"))
+                && Objects.equals(seconds(current.get("expireAfterSeconds")), seconds(options.get("expireAfterSeconds")));
+    }
+
+    // The server may return the TTL as an int or a long
+    private static Long seconds(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+}
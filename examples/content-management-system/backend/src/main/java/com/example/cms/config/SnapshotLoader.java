@@ -0,0 +1,108 @@
+package com.example.cms.config;
+
+import com.example.cms.model.BulkReport;
+import com.example.cms.model.User;
+import com.example.cms.service.ContentBulkService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Seeds the fast-start profile from prebuilt NDJSON snapshots on a background thread once the
+// application is ready, so startup does not wait for it. Users are inserted in one write and
+// content goes through the bulk import, which also updates search, analytics and sync. Replaces
+// DataInitializer, which is not active in fast-start.
+@Component
+@Profile("fast-start")
+public class SnapshotLoader {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotLoader.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentBulkService contentBulkService;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final String usersLocation;
+    private final String contentLocation;
+
+    @Autowired
+    public SnapshotLoader(MongoTemplate mongoTemplate, ContentBulkService contentBulkService, ObjectMapper objectMapper,
+                          ResourceLoader resourceLoader,
+                          @Value("${cms.snapshot.users:}") String usersLocation,
+                          @Value("${cms.snapshot.content:}") String contentLocation) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentBulkService = contentBulkService;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.usersLocation = usersLocation;
+        this.contentLocation = contentLocation;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (usersLocation.isEmpty() && contentLocation.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(this::load, "snapshot-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        try {
+            // Users have a unique email index, so only seed an empty database
+            if (mongoTemplate.estimatedCount(User.class) > 0) {
+                log.info("Sample data already present, skipping snapshot");
+                return;
+            }
+            if (!usersLocation.isEmpty()) {
+                List<User> users = readUsers();
+                mongoTemplate.insert(users, User.class);
+                log.info("Loaded {} users from {}", users.size(), usersLocation);
+            }
+            if (!contentLocation.isEmpty()) {
+                try (InputStream input = resourceLoader.getResource(contentLocation).getInputStream()) {
+                    BulkReport report = contentBulkService.importContent(input);
+                    log.info("Loaded {} content items from {} ({} failed)", report.getSucceeded(), contentLocation,
+                            report.getFailed());
+                }
+            }
+            log.info("Loaded snapshot in {} ms", System.currentTimeMillis() - started);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Could not load snapshot", ex);
+        }
+    }
+
+    private List<User> readUsers() throws IOException {
+        Date now = new Date();
+        List<User> users = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                resourceLoader.getResource(usersLocation).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    User user = objectMapper.readValue(line, User.class);
+                    user.setUpdatedAt(now);
+                    users.add(user);
+                }
+            }
+        }
+        return users;
+    }
+}
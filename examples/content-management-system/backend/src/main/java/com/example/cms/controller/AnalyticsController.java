@@ -0,0 +1,67 @@
+package com.example.cms.controller;
+
+import com.example.cms.analytics.AnalyticsService;
+import com.example.cms.model.AnalyticsWatermark;
+import com.example.cms.model.DailyCommentCount;
+import com.example.cms.model.TagCount;
+import com.example.cms.model.TypeCount;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Analytics Controller", description = "APIs for precomputed content analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @Autowired
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @GetMapping("/types")
+    @Operation(summary = "Get counts per type", description = "Returns total and published item counts per content type")
+    public ResponseEntity<List<TypeCount>> getTypeCounts() {
+        return ResponseEntity.ok(analyticsService.getTypeCounts());
+    }
+
+    @GetMapping("/tags")
+    @Operation(summary = "Get top tags", description = "Returns the most used tags with their item counts")
+    public ResponseEntity<List<TagCount>> getTopTags(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(analyticsService.getTopTags(limit));
+    }
+
+    @GetMapping("/comments-per-day")
+    @Operation(summary = "Get comments per day", description = "Returns the number of comments per UTC day, optionally within a date range")
+    public ResponseEntity<List<DailyCommentCount>> getCommentsPerDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getCommentsPerDay(from, to));
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Get refresh status", description = "Returns the watermark and duration of the last analytics refresh")
+    public ResponseEntity<AnalyticsWatermark> getStatus() {
+        AnalyticsWatermark status = analyticsService.getStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh analytics", description = "Runs an incremental refresh now, or a full one with full=true")
+    public ResponseEntity<AnalyticsWatermark> refresh(@RequestParam(defaultValue = "false") boolean full) {
+        if (full) {
+            analyticsService.requestFullRefresh();
+        }
+        analyticsService.refresh();
+        return ResponseEntity.ok(analyticsService.getStatus());
+    }
+}
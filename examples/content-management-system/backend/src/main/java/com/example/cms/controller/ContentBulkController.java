@@ -0,0 +1,54 @@
+package com.example.cms.controller;
+
+import com.example.cms.model.BulkReport;
+import com.example.cms.service.ContentBulkService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/content")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Content Bulk Controller", description = "APIs for bulk NDJSON import and export of content")
+public class ContentBulkController {
+    private static final Logger log = LoggerFactory.getLogger(ContentBulkController.class);
+
+    private final ContentBulkService contentBulkService;
+
+    @Autowired
+    public ContentBulkController(ContentBulkService contentBulkService) {
+        this.contentBulkService = contentBulkService;
+    }
+
+    @PostMapping("/import")
+    @Operation(summary = "Import content", description = "Imports newline-delimited JSON records of type, authorId, data and published; returns throughput and per-line errors")
+    public ResponseEntity<BulkReport> importContent(HttpServletRequest request) throws IOException {
+        // Read straight from the request so the body is never held in memory as a whole
+        return ResponseEntity.ok(contentBulkService.importContent(request.getInputStream()));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export content", description = "Streams all content, or content of one type, as newline-delimited JSON in the import format")
+    public ResponseEntity<StreamingResponseBody> exportContent(@RequestParam(required = false) String type) {
+        StreamingResponseBody body = output -> {
+            BulkReport report = contentBulkService.exportContent(type, output);
+            if (report.getFailed() > 0) {
+                log.warn("Content export skipped {} records: {}", report.getFailed(), report.getErrors());
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"content.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -1,14 +1,31 @@
 package com.example.cms.controller;
 
+import com.example.cms.model.ChangeSet;
+import com.example.cms.model.Comment;
 import com.example.cms.model.ContentItem;
+import com.example.cms.model.ContentPage;
+import com.example.cms.model.ContentRevision;
+import com.example.cms.model.MediaAsset;
+import com.example.cms.monitoring.QueryBudget;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.search.SearchResult;
+import com.example.cms.search.SearchService;
+import com.example.cms.service.CommentService;
+import com.example.cms.service.ContentCounterService;
 import com.example.cms.service.ContentService;
+import com.example.cms.service.ContentStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -19,46 +36,157 @@ import java.util.Map;
 public class ContentController {
 
     private final ContentService contentService;
+    private final CommentService commentService;
+    private final SearchService searchService;
+    private final ContentStreamService contentStreamService;
+    private final ContentCounterService contentCounterService;
+    private final RevisionService revisionService;
 
     @Autowired
-    public ContentController(ContentService contentService) {
+    public ContentController(ContentService contentService, CommentService commentService,
+                             SearchService searchService, ContentStreamService contentStreamService,
+                             ContentCounterService contentCounterService, RevisionService revisionService) {
         this.contentService = contentService;
+        this.commentService = commentService;
+        this.searchService = searchService;
+        this.contentStreamService = contentStreamService;
+        this.contentCounterService = contentCounterService;
+        this.revisionService = revisionService;
     }
 
     @GetMapping
-    @Operation(summary = "Get all content", description = "Retrieves a list of all content items")
-    public ResponseEntity<List<ContentItem>> getAllContent() {
-        return ResponseEntity.ok(contentService.getAllContent());
+    @Operation(summary = "Get all content", description = "Retrieves a page of content summaries, or the requested fields, newest first")
+    // Lists across types query every content partition, one command each
+    @QueryBudget(value = 1, perPartition = 1)
+    public ResponseEntity<ContentPage> getAllContent(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return page(contentService.getAllContent(cursor, limit, fields));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream content", description = "Streams full content items as newline-delimited JSON, newest first, with optional type, tag and published filters")
+    public Flux<ContentItem> streamContent(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Boolean published,
+            @RequestParam(required = false) Integer batchSize) {
+        return contentStreamService.streamContent(type, tag, published, batchSize);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get content changes", description = "Returns content created or updated and ids deleted since the sync token, oldest first; omit since to start a full sync")
+    public ResponseEntity<ChangeSet<Map<String, Object>>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return ResponseEntity.ok(contentService.getChanges(since, limit, fields));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get content by ID", description = "Retrieves a content item by its ID")
-    public ResponseEntity<ContentItem> getContentById(@PathVariable String id) {
-        return ResponseEntity.ok(contentService.getContentById(id));
+    // An id whose partition is not cached yet is looked up in every partition at once
+    @QueryBudget(value = 3, perPartition = 1)
+    public ResponseEntity<ContentItem> getContentById(@PathVariable String id, WebRequest request) {
+        // Answer revalidations from the version alone, before the document is loaded
+        Date version = contentService.getContentVersion(id);
+        // Counters are flushed without touching updatedAt, so they are part of the version
+        Map<String, Long> counters = contentCounterService.getCounters(id);
+        // No Last-Modified: updatedAt does not cover the counters, so If-Modified-Since cannot be trusted
+        String etag = ETags.of(id, version, counters.values());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        ContentItem content = contentService.getContentById(id);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(id, content.getUpdatedAt(), counters.values()))
+                .body(content);
+    }
+
+    @GetMapping("/{id}/revisions")
+    @Operation(summary = "List revisions", description = "Lists the retained revisions of a content item's data, newest first")
+    public ResponseEntity<List<ContentRevision>> getRevisions(@PathVariable String id) {
+        return ResponseEntity.ok(revisionService.getRevisions(id));
+    }
+
+    @GetMapping("/{id}/revisions/{revision}")
+    @Operation(summary = "Get a revision", description = "Rebuilds a content item's data as it was at the given revision")
+    public ResponseEntity<ContentRevision> getRevision(@PathVariable String id, @PathVariable int revision) {
+        return ResponseEntity.ok(revisionService.getRevision(id, revision));
+    }
+
+    @PostMapping("/{id}/views")
+    @Operation(summary = "Record a view", description = "Counts a view of a content item; counts are written in batches")
+    public ResponseEntity<Void> recordView(@PathVariable String id) {
+        contentCounterService.increment(id, ContentCounterService.VIEWS);
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/{id}/likes")
+    @Operation(summary = "Record a like", description = "Counts a like of a content item; counts are written in batches")
+    public ResponseEntity<Void> recordLike(@PathVariable String id) {
+        contentCounterService.increment(id, ContentCounterService.LIKES);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/{id}/counters")
+    @Operation(summary = "Get counters", description = "Returns view and like counts, including increments not yet written")
+    public ResponseEntity<Map<String, Long>> getCounters(@PathVariable String id) {
+        return ResponseEntity.ok(contentCounterService.getCounters(id));
     }
 
     @GetMapping("/type/{type}")
-    @Operation(summary = "Get content by type", description = "Retrieves all content items of a specific type")
-    public ResponseEntity<List<ContentItem>> getContentByType(@PathVariable String type) {
-        return ResponseEntity.ok(contentService.getContentByType(type));
+    @Operation(summary = "Get content by type", description = "Retrieves a page of content items of a specific type")
+    @QueryBudget(1)
+    public ResponseEntity<ContentPage> getContentByType(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return page(contentService.getContentByType(type, cursor, limit, fields));
     }
 
     @GetMapping("/published/{type}")
-    @Operation(summary = "Get published content by type", description = "Retrieves all published content items of a specific type")
-    public ResponseEntity<List<ContentItem>> getPublishedContentByType(@PathVariable String type) {
-        return ResponseEntity.ok(contentService.getPublishedContentByType(type));
+    @Operation(summary = "Get published content by type", description = "Retrieves a page of published content items of a specific type")
+    public ResponseEntity<ContentPage> getPublishedContentByType(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return page(contentService.getPublishedContentByType(type, cursor, limit, fields));
     }
 
     @GetMapping("/tag/{tag}")
-    @Operation(summary = "Get content by tag", description = "Retrieves all content items that contain a specific tag")
-    public ResponseEntity<List<ContentItem>> getContentByTag(@PathVariable String tag) {
-        return ResponseEntity.ok(contentService.getContentByTag(tag));
+    @Operation(summary = "Get content by tag", description = "Retrieves a page of content items that contain a specific tag")
+    @QueryBudget(value = 1, perPartition = 1)
+    public ResponseEntity<ContentPage> getContentByTag(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return page(contentService.getContentByTag(tag, cursor, limit, fields));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search content by title", description = "Searches for content items by title")
-    public ResponseEntity<List<ContentItem>> searchContentByTitle(@RequestParam String title) {
-        return ResponseEntity.ok(contentService.searchContentByTitle(title));
+    @Operation(summary = "Search content", description = "Full-text search over titles, bodies, tags and product fields, ranked by BM25, with type and tag facets")
+    public ResponseEntity<SearchResult> searchContent(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String tag,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.search(q, prefix, type, tag, offset, limit));
+    }
+
+    @GetMapping("/search/suggest")
+    @Operation(summary = "Suggest search terms", description = "Returns indexed terms starting with the given prefix, most frequent first")
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchService.suggest(prefix, limit));
     }
 
     @PostMapping
@@ -86,12 +214,23 @@ public class ContentController {
     }
 
     @PostMapping("/{id}/comments")
-    @Operation(summary = "Add a comment", description = "Adds a comment to a content item")
+    @Operation(summary = "Add a comment", description = "Adds a comment to a content item; with an id chosen by the client, retries of the same comment add it once")
     public ResponseEntity<ContentItem> addComment(@PathVariable String id, @RequestBody Map<String, String> request) {
         String userId = request.get("userId");
         String text = request.get("text");
+        String commentId = request.get("id");
         
-        return ResponseEntity.ok(contentService.addComment(id, userId, text));
+        return ResponseEntity.ok(commentService.addComment(id, userId, text, commentId));
+    }
+
+    @GetMapping("/{id}/comments")
+    @Operation(summary = "Get comments", description = "Retrieves a page of comments for a content item, oldest first")
+    @QueryBudget(value = 2, perPartition = 1)
+    public ResponseEntity<Page<Comment>> getComments(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.getComments(id, page, size));
     }
 
     @PostMapping("/{contentId}/comments/{commentId}/replies")
@@ -103,7 +242,7 @@ public class ContentController {
         String userId = request.get("userId");
         String text = request.get("text");
         
-        return ResponseEntity.ok(contentService.addReplyToComment(contentId, commentId, userId, text));
+        return ResponseEntity.ok(commentService.addReplyToComment(contentId, commentId, userId, text));
     }
 
     @PutMapping("/{id}/metadata")
@@ -115,10 +254,34 @@ public class ContentController {
         return ResponseEntity.ok(contentService.addMetadata(id, key, value));
     }
 
+    @GetMapping("/{id}/media")
+    @Operation(summary = "List media", description = "Retrieves the metadata of the media files used by a content item")
+    @QueryBudget(value = 2, perPartition = 1)
+    public ResponseEntity<List<MediaAsset>> getMedia(@PathVariable String id) {
+        return ResponseEntity.ok(contentService.getMedia(id));
+    }
+
+    @PutMapping("/{id}/media/{mediaId}")
+    @Operation(summary = "Attach media", description = "Links an uploaded media file to a content item")
+    public ResponseEntity<ContentItem> attachMedia(@PathVariable String id, @PathVariable String mediaId) {
+        return ResponseEntity.ok(contentService.attachMedia(id, mediaId));
+    }
+
+    @DeleteMapping("/{id}/media/{mediaId}")
+    @Operation(summary = "Detach media", description = "Unlinks a media file from a content item; the file itself is kept")
+    public ResponseEntity<ContentItem> detachMedia(@PathVariable String id, @PathVariable String mediaId) {
+        return ResponseEntity.ok(contentService.detachMedia(id, mediaId));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete content", description = "Deletes a content item by its ID")
     public ResponseEntity<Void> deleteContent(@PathVariable String id) {
         contentService.deleteContent(id);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<ContentPage> page(ContentPage page) {
+        // Spring answers If-None-Match with 304 from this ETag before serializing the body
+        return ResponseEntity.ok().eTag(ETags.weak(page.getVersion())).body(page);
+    }
 }
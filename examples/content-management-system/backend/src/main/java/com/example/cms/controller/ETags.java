@@ -0,0 +1,51 @@
+package com.example.cms.controller;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+// API representations get weak ETags: they are compressed (server.compression), and Tomcat leaves
+// responses with a strong ETag uncompressed, since a gzip copy is not byte-identical. Revalidation
+// with If-None-Match compares weakly either way. Media keeps strong ETags for If-Range.
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(String id, Date updatedAt) {
+        return weak(id + "-" + millis(updatedAt));
+    }
+
+    static String of(String id, Date updatedAt, Collection<Long> counters) {
+        StringBuilder version = new StringBuilder(id).append('-').append(millis(updatedAt));
+        for (Long counter : counters) {
+            version.append('-').append(counter);
+        }
+        return weak(version.toString());
+    }
+
+    static <T> String of(List<T> items, Function<T, String> id, Function<T, Date> updatedAt) {
+        StringBuilder version = new StringBuilder();
+        for (T item : items) {
+            version.append(id.apply(item)).append(':').append(millis(updatedAt.apply(item))).append(';');
+        }
+        return weak(DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String weak(String version) {
+        return "W/" + quoted(version);
+    }
+
+    static String quoted(String version) {
+        return "\"" + version + "\"";
+    }
+
+    static long millis(Date date) {
+        // Documents written before updatedAt was tracked share a fixed version
+        return date != null ? date.getTime() : 0L;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.cms.controller;
+
+import com.example.cms.media.MediaStore;
+import com.example.cms.model.MediaAsset;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+@RequestMapping("/api/media")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Media Controller", description = "APIs for uploading and serving media files")
+public class MediaController {
+    // Set by Tomcat when the connector can hand a file to the kernel with sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Content-addressed files never change, so clients may keep them for a year without revalidating
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final MediaStore mediaStore;
+
+    @Autowired
+    public MediaController(MediaStore mediaStore) {
+        this.mediaStore = mediaStore;
+    }
+
+    @PostMapping
+    @Operation(summary = "Upload media", description = "Stores the request body as a media file, deduplicated by its SHA-256; the Content-Type header is kept as the media type")
+    public ResponseEntity<MediaAsset> upload(HttpServletRequest request, @RequestParam(required = false) String filename)
+            throws IOException {
+        // Read straight from the request so the file is never held in memory as a whole
+        MediaAsset asset = mediaStore.store(request.getInputStream(), request.getContentType(), filename);
+        return ResponseEntity.created(URI.create("/api/media/" + asset.getId())).body(asset);
+    }
+
+    @GetMapping("/{id}/info")
+    @Operation(summary = "Get media metadata", description = "Retrieves the type, size and filename of a media file")
+    public ResponseEntity<MediaAsset> getInfo(@PathVariable String id) {
+        return ResponseEntity.ok(mediaStore.getAsset(id));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Download media", description = "Serves a media file, or a single byte range of it, without copying it through the heap")
+    public void download(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        MediaAsset asset = mediaStore.getAsset(id);
+        Path file = mediaStore.getFile(asset);
+        String etag = ETags.quoted(asset.getId());
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long size = asset.getSize();
+        // A range is only valid for the version the client already has part of
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        ByteRange range = ifRange == null || ifRange.equals(etag)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size) : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        long start = range != null ? range.start : 0;
+        long length = range != null ? range.length() : size;
+        if (range != null) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start + "-" + range.end + "/" + size);
+        }
+        response.setContentType(asset.getContentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file after the response headers; nothing may be written here
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        // Without sendfile, let the channel move the bytes instead of an application buffer
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long written = channel.transferTo(position, end - position, output);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+            }
+        }
+    }
+}
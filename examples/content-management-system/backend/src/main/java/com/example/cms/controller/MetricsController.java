@@ -0,0 +1,52 @@
+package com.example.cms.controller;
+
+import com.example.cms.cache.CacheStats;
+import com.example.cms.cache.ContentCache;
+import com.example.cms.monitoring.EndpointQueryStats;
+import com.example.cms.monitoring.QueryAccounting;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.revision.RevisionStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Metrics Controller", description = "APIs for runtime metrics of the content backend")
+public class MetricsController {
+
+    private final ContentCache contentCache;
+    private final RevisionService revisionService;
+    private final QueryAccounting queryAccounting;
+
+    @Autowired
+    public MetricsController(ContentCache contentCache, RevisionService revisionService,
+                             QueryAccounting queryAccounting) {
+        this.contentCache = contentCache;
+        this.revisionService = revisionService;
+        this.queryAccounting = queryAccounting;
+    }
+
+    @GetMapping("/cache")
+    @Operation(summary = "Get content cache statistics", description = "Returns size, hit ratio and load times of the hot-content cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(contentCache.stats());
+    }
+
+    @GetMapping("/revisions")
+    @Operation(summary = "Get revision statistics", description = "Returns how many revisions were recorded and what recording and rebuilding them costs")
+    public ResponseEntity<RevisionStats> getRevisionStats() {
+        return ResponseEntity.ok(revisionService.stats());
+    }
+
+    @GetMapping("/queries")
+    @Operation(summary = "Get query statistics", description = "MongoDB commands per request for each endpoint since startup, most commands first")
+    public ResponseEntity<List<EndpointQueryStats>> getQueryStats() {
+        return ResponseEntity.ok(queryAccounting.getEndpointStats());
+    }
+}
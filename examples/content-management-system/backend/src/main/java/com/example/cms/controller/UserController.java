@@ -1,6 +1,10 @@
 package com.example.cms.controller;
 
+import com.example.cms.model.AuthorPropagationJob;
+import com.example.cms.model.ChangeSet;
 import com.example.cms.model.User;
+import com.example.cms.monitoring.QueryBudget;
+import com.example.cms.service.AuthorPropagationService;
 import com.example.cms.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -8,7 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.Date;
 import java.util.List;
 
 @RestController
@@ -18,28 +24,55 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final AuthorPropagationService authorPropagationService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, AuthorPropagationService authorPropagationService) {
         this.userService = userService;
+        this.authorPropagationService = authorPropagationService;
     }
 
     @GetMapping
     @Operation(summary = "Get all users", description = "Retrieves a list of all users")
     public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+        List<User> users = userService.getAllUsers();
+        return ResponseEntity.ok().eTag(ETags.of(users, User::getId, User::getUpdatedAt)).body(users);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get user changes", description = "Returns users created or updated and ids deleted since the sync token, oldest first; omit since to start a full sync")
+    public ResponseEntity<ChangeSet<User>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(userService.getChanges(since, limit));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Retrieves a user by their ID")
-    public ResponseEntity<User> getUserById(@PathVariable String id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    @QueryBudget(2)
+    public ResponseEntity<User> getUserById(@PathVariable String id, WebRequest request) {
+        // Answer revalidations from the version alone, before the user is loaded
+        Date version = userService.getUserVersion(id);
+        String etag = ETags.of(id, version);
+        if (request.checkNotModified(etag, ETags.millis(version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        User user = userService.getUserById(id);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(id, user.getUpdatedAt()))
+                .lastModified(ETags.millis(user.getUpdatedAt()))
+                .body(user);
     }
 
     @GetMapping("/email/{email}")
     @Operation(summary = "Get user by email", description = "Retrieves a user by their email address")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        return ResponseEntity.ok(userService.getUserByEmail(email));
+        User user = userService.getUserByEmail(email);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(user.getId(), user.getUpdatedAt()))
+                .lastModified(ETags.millis(user.getUpdatedAt()))
+                .body(user);
     }
 
     @PostMapping
@@ -54,6 +87,13 @@ public class UserController {
         return ResponseEntity.ok(userService.updateUser(id, user));
     }
 
+    @GetMapping("/{id}/propagation")
+    @Operation(summary = "Get author propagation status", description = "Shows progress of copying the user's latest details into content and comments")
+    public ResponseEntity<AuthorPropagationJob> getPropagationStatus(@PathVariable String id) {
+        AuthorPropagationJob job = authorPropagationService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a user", description = "Deletes a user by their ID")
     public ResponseEntity<Void> deleteUser(@PathVariable String id) {
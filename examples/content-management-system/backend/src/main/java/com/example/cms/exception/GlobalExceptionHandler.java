@@ -1,5 +1,6 @@
 package com.example.cms.exception;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -24,6 +25,41 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return createErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(MediaNotFoundException.class)
+    public ResponseEntity<Object> handleMediaNotFoundException(MediaNotFoundException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(SyncExpiredException.class)
+    public ResponseEntity<Object> handleSyncExpiredException(SyncExpiredException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<Object> handleInvalidQueryException(InvalidQueryException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidGzipBodyException.class)
+    public ResponseEntity<Object> handleInvalidGzipBodyException(InvalidGzipBodyException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(RequestBodyTooLargeException.class)
+    public ResponseEntity<Object> handleRequestBodyTooLargeException(RequestBodyTooLargeException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<Object> handleQueryBudgetExceededException(QueryBudgetExceededException ex, WebRequest request) {
+        return createErrorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Object> handleDuplicateKeyException(DuplicateKeyException ex, WebRequest request) {
+        return createErrorResponse("A record with the same unique value already exists", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleAllExceptions(Exception ex, WebRequest request) {
         return createErrorResponse("An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,7 @@
+package com.example.cms.exception;
+
+public class InvalidGzipBodyException extends RuntimeException {
+    public InvalidGzipBodyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.cms.exception;
+
+public class MediaNotFoundException extends RuntimeException {
+    public MediaNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.cms.exception;
+
+public class RequestBodyTooLargeException extends RuntimeException {
+    public RequestBodyTooLargeException(String message) {
+        super(message);
+    }
+}
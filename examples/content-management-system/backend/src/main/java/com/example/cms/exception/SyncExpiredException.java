@@ -0,0 +1,7 @@
+package com.example.cms.exception;
+
+public class SyncExpiredException extends RuntimeException {
+    public SyncExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.cms.media;
+
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.exception.MediaNotFoundException;
+import com.example.cms.model.MediaAsset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Content-addressed media files on local disk. An upload is streamed to a temporary file while
+// it is hashed, then moved to root/ab/cd/<sha256>; when that file already exists the upload is a
+// duplicate and only the temporary file is removed. Files are never rewritten, so they can be
+// served with a strong ETag and cached forever. Metadata lives in media_assets.
+@Service
+public class MediaStore {
+    private static final Logger log = LoggerFactory.getLogger(MediaStore.class);
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{64}");
+    private static final String UPLOADS = "tmp";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final MongoTemplate mongoTemplate;
+    private final Path root;
+    private final long maxBytes;
+
+    @Autowired
+    public MediaStore(MongoTemplate mongoTemplate,
+                      @Value("${cms.media.root:media}") String root,
+                      @Value("${cms.media.max-bytes:104857600}") long maxBytes) {
+        this.mongoTemplate = mongoTemplate;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(this.root.resolve(UPLOADS));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create media directory " + this.root, ex);
+        }
+    }
+
+    public MediaAsset store(InputStream input, String contentType, String filename) throws IOException {
+        Path upload = Files.createTempFile(root.resolve(UPLOADS), "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = copy(new DigestInputStream(input, digest), upload);
+            if (size == 0) {
+                throw new InvalidQueryException("Media upload is empty");
+            }
+            String id = hex(digest.digest());
+
+            Path file = file(id);
+            if (Files.exists(file)) {
+                log.debug("Media upload {} is a duplicate of {}", filename, id);
+            } else {
+                Files.createDirectories(file.getParent());
+                move(upload, file);
+            }
+
+            MediaAsset existing = mongoTemplate.findById(id, MediaAsset.class);
+            if (existing != null) {
+                return existing;
+            }
+            MediaAsset asset = new MediaAsset(id, contentType != null ? contentType : DEFAULT_CONTENT_TYPE, size,
+                    filename, new Date());
+            try {
+                return mongoTemplate.insert(asset);
+            } catch (DuplicateKeyException ex) {
+                // The same bytes were uploaded concurrently; the first metadata wins
+                return mongoTemplate.findById(id, MediaAsset.class);
+            }
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public MediaAsset getAsset(String id) {
+        MediaAsset asset = ID.matcher(id).matches() ? mongoTemplate.findById(id, MediaAsset.class) : null;
+        if (asset == null) {
+            throw new MediaNotFoundException("Media not found with id: " + id);
+        }
+        return asset;
+    }
+
+    // In the order of the ids; ids without an asset are left out
+    public List<MediaAsset> getAssets(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, MediaAsset> assets = new LinkedHashMap<>();
+        ids.forEach(id -> assets.put(id, null));
+        for (MediaAsset asset : mongoTemplate.find(new Query(Criteria.where("id").in(ids)), MediaAsset.class)) {
+            assets.put(asset.getId(), asset);
+        }
+        List<MediaAsset> ordered = new ArrayList<>();
+        assets.values().forEach(asset -> {
+            if (asset != null) {
+                ordered.add(asset);
+            }
+        });
+        return ordered;
+    }
+
+    public Path getFile(MediaAsset asset) {
+        Path file = file(asset.getId());
+        if (!Files.isRegularFile(file)) {
+            throw new MediaNotFoundException("Media file missing for id: " + asset.getId());
+        }
+        return file;
+    }
+
+    private Path file(String id) {
+        return root.resolve(id.substring(0, 2)).resolve(id.substring(2, 4)).resolve(id);
+    }
+
+    private long copy(InputStream input, Path target) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        try (OutputStream output = Files.newOutputStream(target)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new InvalidQueryException("Media upload is larger than " + maxBytes + " bytes");
+                }
+                output.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    // The upload directory is under root, so this is a rename and readers never see a partial file
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+            // Moved there by a concurrent upload of the same bytes
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
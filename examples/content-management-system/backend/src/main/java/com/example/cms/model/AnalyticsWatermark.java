@@ -0,0 +1,23 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Progress of the analytics refresh; content updated after watermark has not been processed yet
+@Document(collection = "analytics_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsWatermark {
+    @Id
+    private String id;
+    private Date watermark;
+    private Date refreshedAt;
+    private long refreshMillis;
+    private boolean full;
+}
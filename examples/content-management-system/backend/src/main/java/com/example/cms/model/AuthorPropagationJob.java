@@ -0,0 +1,35 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// One job per user; a newer change to the same user replaces the target values of a running job
+@Document(collection = "author_propagation_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorPropagationJob {
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String userId;
+    private String name;
+    private String email;
+    private String role;
+
+    private String status;
+    private Date requestedAt;
+    private Date startedAt;
+    private Date finishedAt;
+    private long documentsUpdated;
+    private double documentsPerSecond;
+    private String error;
+}
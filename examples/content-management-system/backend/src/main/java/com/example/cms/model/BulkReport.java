@@ -0,0 +1,30 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReport {
+    private long processed;
+    private long succeeded;
+    private long failed;
+    private long durationMillis;
+    private double recordsPerSecond;
+
+    // Capped; failed counts every error
+    private List<RecordError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSet<T> {
+    // Created or updated since the token, oldest first
+    private List<T> items;
+
+    // Ids deleted since the token
+    private List<String> deleted;
+
+    // Pass as since on the next request
+    private String nextToken;
+
+    // More changes are waiting; request again right away with nextToken
+    private boolean hasMore;
+}
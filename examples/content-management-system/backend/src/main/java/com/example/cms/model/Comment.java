@@ -18,4 +18,8 @@ public class Comment {
     private String text;
     private Date timestamp;
     private List<Reply> replies = new ArrayList<>();
+
+    // Position among all comments of the item, which orders bucket pages; missing on comments
+    // bucketed before it was stored
+    private Integer position;
 }
@@ -0,0 +1,23 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "comment_buckets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentBucket {
+    @Id
+    private String id;
+    private String contentId;
+    private int bucket;
+    private int count;
+    private List<Comment> comments = new ArrayList<>();
+}
@@ -11,6 +11,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+// Stored in one collection per type, content.<type> (see ContentPartitions). "content" remains
+// the logical name used for deletion records and sync, and the collection migrated on startup.
 @Document(collection = "content")
 @Data
 @NoArgsConstructor
@@ -26,5 +28,14 @@ public class ContentItem {
     private Date createdAt;
     private Date updatedAt;
     private User author;
+
+    // Latest comments only; the full history is stored in comment_buckets
     private List<Comment> comments = new ArrayList<>();
+    private int commentCount;
+
+    // Number of data revisions recorded in content_revisions
+    private int revision;
+
+    // Media assets used by this item, by their content hash
+    private List<String> mediaIds = new ArrayList<>();
 }
@@ -0,0 +1,23 @@
+package com.example.cms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentPage {
+    private List<Map<String, Object>> items;
+
+    // Opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+
+    // Hash of the ids, updatedAt values and loaded counters on this page, used as its ETag
+    @JsonIgnore
+    private String version;
+}
@@ -0,0 +1,22 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+// One line of the NDJSON import/export format
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentRecord {
+    private String id;
+    private String type;
+    private String authorId;
+    private Map<String, Object> data;
+    private boolean published;
+    private Date createdAt;
+    private Date updatedAt;
+}
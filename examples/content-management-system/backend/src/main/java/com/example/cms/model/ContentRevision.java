@@ -0,0 +1,28 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// A revision of a content item's data. Snapshots hold the full data, other revisions only the
+// patch from the revision before.
+@Document(collection = "content_revisions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentRevision {
+    @Id
+    private String id;
+    private String contentId;
+    private int revision;
+    private boolean snapshot;
+    private Date createdAt;
+    private Map<String, Object> data;
+    private List<PatchOperation> patch;
+}
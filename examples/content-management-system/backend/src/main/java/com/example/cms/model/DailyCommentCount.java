@@ -0,0 +1,21 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Materialized by AnalyticsService; day is yyyy-MM-dd in UTC
+@Document(collection = "analytics_comments_per_day")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCommentCount {
+    @Id
+    private String day;
+    private long count;
+    private Date refreshedAt;
+}
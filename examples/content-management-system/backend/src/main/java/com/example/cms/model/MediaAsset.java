@@ -0,0 +1,24 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Metadata of a file in the media store. The id is the SHA-256 of the bytes, so identical uploads
+// share one asset; contentType and filename are those of the first upload.
+@Document(collection = "media_assets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaAsset {
+    @Id
+    private String id;
+    private String contentType;
+    private long size;
+    private String filename;
+    private Date createdAt;
+}
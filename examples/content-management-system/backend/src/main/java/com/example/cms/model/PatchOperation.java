@@ -0,0 +1,21 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One step of a structural diff between two versions of content data. Paths are lists of keys
+// so keys never need escaping; arrays are replaced as a whole.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatchOperation {
+    public static final String SET = "set";
+    public static final String REMOVE = "remove";
+
+    private String op;
+    private List<String> path;
+    private Object value;
+}
@@ -0,0 +1,21 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Last write to a collection that delta sync cannot describe, such as an import that keeps the
+// original updatedAt values; tokens issued before it require a full resync
+@Document(collection = "sync_resets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncReset {
+    @Id
+    private String collection;
+    private Date resetAt;
+}
@@ -0,0 +1,21 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Materialized by AnalyticsService
+@Document(collection = "analytics_tag_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagCount {
+    @Id
+    private String tag;
+    private long count;
+    private Date refreshedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Left behind by a delete so that delta sync can report it; expires after the retention period
+@Document(collection = "tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tombstone {
+    @Id
+    private String id;
+    private String collection;
+    private String documentId;
+    private Date deletedAt;
+}
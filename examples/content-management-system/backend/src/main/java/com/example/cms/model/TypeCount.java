@@ -0,0 +1,22 @@
+package com.example.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Materialized by AnalyticsService
+@Document(collection = "analytics_type_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeCount {
+    @Id
+    private String type;
+    private long total;
+    private long published;
+    private Date refreshedAt;
+}
@@ -6,6 +6,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.Date;
+
 @Document(collection = "users")
 @Data
 @NoArgsConstructor
@@ -16,4 +18,5 @@ public class User {
     private String name;
     private String email;
     private String role;
+    private Date updatedAt;
 }
@@ -0,0 +1,17 @@
+package com.example.cms.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EndpointQueryStats {
+    private String endpoint;
+    private long requests;
+    private double averageQueries;
+    private int maxQueries;
+    private long slowQueries;
+    // Requests that ran the same command at least the repeat threshold times
+    private long repeatedQueryRequests;
+    private long overBudgetRequests;
+}
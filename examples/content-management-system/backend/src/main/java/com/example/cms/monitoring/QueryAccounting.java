@@ -0,0 +1,219 @@
+package com.example.cms.monitoring;
+
+import com.example.cms.exception.QueryBudgetExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts the MongoDB commands of each request. The driver's command listener reports every
+// command here; the request filter opens and closes the per-thread QueryStats around each request.
+// Commands outside a request, such as background jobs and streamed responses, are only checked
+// for slowness.
+@Component
+public class QueryAccounting {
+    private static final Logger log = LoggerFactory.getLogger(QueryAccounting.class);
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    private static final String APP_PACKAGE = "com.example.cms.";
+    private static final String OWN_PACKAGE = QueryAccounting.class.getPackage().getName() + ".";
+    private static final int MAX_LOGGED_COMMAND = 300;
+
+    private final long slowNanos;
+    private final int warnQueries;
+    private final int repeatThreshold;
+    private final boolean strict;
+
+    private final Map<String, EndpointTotals> endpoints = new ConcurrentHashMap<>();
+
+    public QueryAccounting(@Value("${cms.query-accounting.slow-query-millis:100}") long slowQueryMillis,
+                           @Value("${cms.query-accounting.warn-queries:20}") int warnQueries,
+                           @Value("${cms.query-accounting.repeat-threshold:5}") int repeatThreshold,
+                           @Value("${cms.query-accounting.strict:false}") boolean strict) {
+        this.slowNanos = slowQueryMillis * 1_000_000;
+        this.warnQueries = warnQueries;
+        this.repeatThreshold = Math.max(2, repeatThreshold);
+        this.strict = strict;
+    }
+
+    // Counts the commands the action issues on this thread, for asserting a maximum in tests
+    public static QueryStats measure(Runnable action) {
+        QueryStats previous = CURRENT.get();
+        QueryStats stats = new QueryStats("measure");
+        CURRENT.set(stats);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+        return stats;
+    }
+
+    public static void expectAtMost(int maxQueries, Runnable action) {
+        QueryStats stats = measure(action);
+        if (stats.getCount() > maxQueries) {
+            throw new AssertionError("Expected at most " + maxQueries + " queries but " + stats.getCount()
+                    + " were issued; repeated: " + stats.getRepeated());
+        }
+    }
+
+    // Lets a task handed to another thread, such as a partition query, count towards the request
+    // that submitted it. The caller must wait for the task before the request finishes.
+    public static <T> Callable<T> inheritStats(Callable<T> task) {
+        QueryStats parent = CURRENT.get();
+        if (parent == null) {
+            return task;
+        }
+        return () -> {
+            QueryStats previous = CURRENT.get();
+            QueryStats child = new QueryStats(parent.getRequest());
+            CURRENT.set(child);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+                parent.addAll(child);
+            }
+        };
+    }
+
+    // A request handled inside measure, e.g. by MockMvc in a test, also counts towards the measurement
+    QueryStats begin(String request) {
+        QueryStats stats = new QueryStats(request, CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    void setBudget(int budget) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.setBudget(budget);
+        }
+    }
+
+    // Called before the response body is written, while the request can still fail
+    void checkBudget() {
+        QueryStats stats = CURRENT.get();
+        if (strict && stats != null && stats.isOverBudget()) {
+            throw new QueryBudgetExceededException(stats.getRequest() + " issued " + stats.getCount()
+                    + " queries, more than its budget of " + stats.getBudget());
+        }
+    }
+
+    void record(String command, long nanos) {
+        QueryStats stats = CURRENT.get();
+        String origin = null;
+        if (stats != null && stats.add(command, nanos) == repeatThreshold) {
+            // Likely an N+1: a lookup per item of a list, e.g. a query inside a loop
+            origin = origin();
+            stats.addRepeated(command, origin);
+        }
+        if (nanos >= slowNanos) {
+            if (stats != null) {
+                stats.addSlow();
+            }
+            log.warn("Slow query ({} ms) from {}{}: {}", nanos / 1_000_000, origin != null ? origin : origin(),
+                    stats != null ? " in " + stats.getRequest() : "", abbreviate(command));
+        }
+    }
+
+    void finish(QueryStats stats, String endpoint) {
+        QueryStats enclosing = stats.getEnclosing();
+        restore(enclosing);
+        if (enclosing != null) {
+            enclosing.addAll(stats);
+        }
+        if (endpoint != null) {
+            endpoints.computeIfAbsent(endpoint, key -> new EndpointTotals()).add(stats);
+        }
+
+        if (stats.isOverBudget()) {
+            log.error("{} issued {} queries, more than its budget of {}{}", stats.getRequest(), stats.getCount(),
+                    stats.getBudget(), repeatedReport(stats));
+        } else if (stats.getCount() > warnQueries || !stats.getRepeated().isEmpty()) {
+            log.warn("{} issued {} queries ({} ms of {} ms){}", stats.getRequest(), stats.getCount(),
+                    stats.getQueryMillis(), stats.getElapsedMillis(), repeatedReport(stats));
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} issued {} queries ({} ms of {} ms)", stats.getRequest(), stats.getCount(),
+                    stats.getQueryMillis(), stats.getElapsedMillis());
+        }
+    }
+
+    public List<EndpointQueryStats> getEndpointStats() {
+        List<EndpointQueryStats> result = new ArrayList<>();
+        endpoints.forEach((endpoint, totals) -> result.add(totals.toStats(endpoint)));
+        result.sort(Comparator.comparingInt(EndpointQueryStats::getMaxQueries).reversed());
+        return result;
+    }
+
+    private String repeatedReport(QueryStats stats) {
+        StringBuilder report = new StringBuilder();
+        stats.getRepeated().forEach((command, origin) -> report.append(System.lineSeparator())
+                .append("  ").append(stats.getExecutions(command)).append("x from ").append(origin)
+                .append(": ").append(abbreviate(command)));
+        return report.toString();
+    }
+
+    // The innermost application frame outside this package, e.g. a service method
+    private static String origin() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().startsWith(OWN_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(APP_PACKAGE.length()) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private static String abbreviate(String command) {
+        String compact = command.replaceAll("\\s+", " ").trim();
+        return compact.length() > MAX_LOGGED_COMMAND ? compact.substring(0, MAX_LOGGED_COMMAND) + "..." : compact;
+    }
+
+    private static void restore(QueryStats previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    private static class EndpointTotals {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder queries = new LongAdder();
+        private final AtomicInteger maxQueries = new AtomicInteger();
+        private final LongAdder slowQueries = new LongAdder();
+        private final LongAdder repeatedQueryRequests = new LongAdder();
+        private final LongAdder overBudgetRequests = new LongAdder();
+
+        void add(QueryStats stats) {
+            requests.increment();
+            queries.add(stats.getCount());
+            maxQueries.accumulateAndGet(stats.getCount(), Math::max);
+            slowQueries.add(stats.getSlowCount());
+            if (!stats.getRepeated().isEmpty()) {
+                repeatedQueryRequests.increment();
+            }
+            if (stats.isOverBudget()) {
+                overBudgetRequests.increment();
+            }
+        }
+
+        EndpointQueryStats toStats(String endpoint) {
+            long requestCount = requests.sum();
+            return new EndpointQueryStats(endpoint, requestCount,
+                    requestCount > 0 ? (double) queries.sum() / requestCount : 0, maxQueries.get(),
+                    slowQueries.sum(), repeatedQueryRequests.sum(), overBudgetRequests.sum());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.cms.monitoring;
+
+import com.example.cms.partition.ContentPartitions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Configuration
+public class QueryAccountingConfig implements WebMvcConfigurer {
+    private final QueryAccounting queryAccounting;
+    // Looked up per request: the partitions need the Mongo client this class configures
+    private final ObjectProvider<ContentPartitions> partitions;
+
+    public QueryAccountingConfig(QueryAccounting queryAccounting, ObjectProvider<ContentPartitions> partitions) {
+        this.queryAccounting = queryAccounting;
+        this.partitions = partitions;
+    }
+
+    // Applied to the client created by Spring Boot's Mongo auto-configuration
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryCountingCommandListener() {
+        return settings -> settings.addCommandListener(new QueryCountingCommandListener(queryAccounting));
+    }
+
+    // Hands the endpoint's budget to the request's QueryStats once the handler is known
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod) {
+                    QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+                    if (budget != null) {
+                        int perPartition = budget.perPartition() > 0
+                                ? budget.perPartition() * partitions.getObject().count() : 0;
+                        queryAccounting.setBudget(budget.value() + perPartition);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+}
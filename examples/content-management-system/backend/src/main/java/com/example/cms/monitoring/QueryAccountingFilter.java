@@ -0,0 +1,35 @@
+package com.example.cms.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Component
+public class QueryAccountingFilter extends OncePerRequestFilter {
+    private final QueryAccounting queryAccounting;
+
+    @Autowired
+    public QueryAccountingFilter(QueryAccounting queryAccounting) {
+        this.queryAccounting = queryAccounting;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = queryAccounting.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Aggregated by mapped pattern, so /api/content/1 and /api/content/2 count as one endpoint
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryAccounting.finish(stats, pattern != null ? request.getMethod() + " " + pattern : null);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.cms.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Most database commands one request to the annotated endpoint may issue. Going over is logged as an
+// error, and with cms.query-accounting.strict=true the request fails before the body is written.
+// Endpoints that query every content partition add perPartition for each partition there is.
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+    int value();
+
+    int perPartition() default 0;
+}
@@ -0,0 +1,122 @@
+package com.example.cms.monitoring;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Reports every MongoDB command to QueryAccounting. The synchronous driver calls the listener on
+// the thread that issued the command, so the per-request stats and the caller's stack are at hand.
+// Commands are described by name, collection and the shape of their filter, with values left out,
+// so a lookup repeated for different ids is recognized as the same command.
+class QueryCountingCommandListener implements CommandListener {
+    // Driver housekeeping, not issued by the application
+    private static final Set<String> IGNORED = Set.of("hello", "ismaster", "isMaster", "ping", "saslStart",
+            "saslContinue", "endSessions", "buildInfo", "killCursors");
+
+    private final QueryAccounting accounting;
+    private final Map<Integer, String> started = new ConcurrentHashMap<>();
+
+    QueryCountingCommandListener(QueryAccounting accounting) {
+        this.accounting = accounting;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!IGNORED.contains(event.getCommandName())) {
+            started.put(event.getRequestId(), describe(event.getCommandName(), event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void finished(int requestId, long nanos) {
+        String command = started.remove(requestId);
+        if (command != null) {
+            accounting.record(command, nanos);
+        }
+    }
+
+    private static String describe(String name, BsonDocument command) {
+        StringBuilder description = new StringBuilder(name);
+        BsonValue collection = command.get(name);
+        if (collection != null && collection.isString()) {
+            description.append(' ').append(collection.asString().getValue());
+        } else if (command.isString("collection")) {
+            // getMore names its collection separately
+            description.append(' ').append(command.getString("collection").getValue());
+        }
+
+        BsonValue filter = filter(command);
+        if (filter != null) {
+            description.append(' ');
+            shape(filter, description);
+        }
+        return description.toString();
+    }
+
+    private static BsonValue filter(BsonDocument command) {
+        for (String key : new String[]{"filter", "query", "q"}) {
+            if (command.containsKey(key)) {
+                return command.get(key);
+            }
+        }
+        // Updates and deletes carry their filters in statement lists
+        for (String key : new String[]{"updates", "deletes"}) {
+            if (command.isArray(key) && !command.getArray(key).isEmpty()
+                    && command.getArray(key).get(0).isDocument()) {
+                return filter(command.getArray(key).get(0).asDocument());
+            }
+        }
+        if (command.isArray("pipeline")) {
+            return command.getArray("pipeline");
+        }
+        return null;
+    }
+
+    // Keys and operators are kept, values become ?
+    private static void shape(BsonValue value, StringBuilder out) {
+        if (value.isDocument()) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                out.append(first ? "" : ", ").append(entry.getKey()).append(": ");
+                shape(entry.getValue(), out);
+                first = false;
+            }
+            out.append('}');
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            boolean nested = !array.isEmpty() && array.get(0).isDocument();
+            out.append('[');
+            if (nested) {
+                // Pipelines and $or branches keep their structure, plain lists of values do not
+                for (int i = 0; i < array.size(); i++) {
+                    out.append(i > 0 ? ", " : "");
+                    shape(array.get(i), out);
+                }
+            } else {
+                out.append('?');
+            }
+            out.append(']');
+        } else {
+            out.append('?');
+        }
+    }
+}
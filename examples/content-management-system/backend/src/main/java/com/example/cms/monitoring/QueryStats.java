@@ -0,0 +1,100 @@
+package com.example.cms.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Commands issued while handling one request, or one QueryAccounting.measure call. Tasks the
+// request hands to other threads merge their stats in when they end, which can be after the
+// request stopped waiting for them, e.g. partition queries cancelled when another one failed;
+// so every access is synchronized.
+public class QueryStats {
+    private final String request;
+    private final QueryStats enclosing;
+    private final long started = System.nanoTime();
+    private int count;
+    private long queryNanos;
+    private int slowCount;
+    private int budget = -1;
+
+    private final Map<String, Integer> executions = new HashMap<>();
+    // Commands that reached the repeat threshold, with where the repeats come from
+    private final Map<String, String> repeated = new LinkedHashMap<>();
+
+    QueryStats(String request) {
+        this(request, null);
+    }
+
+    QueryStats(String request, QueryStats enclosing) {
+        this.request = request;
+        this.enclosing = enclosing;
+    }
+
+    // Returns how often this command has now run
+    synchronized int add(String command, long nanos) {
+        count++;
+        queryNanos += nanos;
+        return executions.merge(command, 1, Integer::sum);
+    }
+
+    // other is the finished task's own stats, read on the task's thread
+    synchronized void addAll(QueryStats other) {
+        count += other.count;
+        queryNanos += other.queryNanos;
+        slowCount += other.slowCount;
+        other.executions.forEach((command, executions) -> this.executions.merge(command, executions, Integer::sum));
+        repeated.putAll(other.repeated);
+    }
+
+    synchronized void addRepeated(String command, String origin) {
+        repeated.put(command, origin);
+    }
+
+    synchronized void addSlow() {
+        slowCount++;
+    }
+
+    synchronized void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    QueryStats getEnclosing() {
+        return enclosing;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized long getQueryMillis() {
+        return queryNanos / 1_000_000;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    public synchronized int getSlowCount() {
+        return slowCount;
+    }
+
+    public synchronized int getBudget() {
+        return budget;
+    }
+
+    public synchronized boolean isOverBudget() {
+        return budget >= 0 && count > budget;
+    }
+
+    public synchronized int getExecutions(String command) {
+        return executions.getOrDefault(command, 0);
+    }
+
+    public synchronized Map<String, String> getRepeated() {
+        return new LinkedHashMap<>(repeated);
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.cms.partition;
+
+import com.example.cms.config.MongoIndexConfig;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.model.ContentItem;
+import com.example.cms.monitoring.QueryAccounting;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Content is stored in one collection per type, content.<type>, each with its own indexes and
+// working set. Queries for one type go to its partition; queries across types run on every
+// partition in parallel and merge the results. Ids stay ObjectIds, so the partition of an id is
+// looked up: a bounded cache remembers where ids were found, and an unknown id is probed in all
+// partitions at once. A type never changes, so a remembered route can only go stale by deletion.
+// Partitions created by other instances are picked up from the collection names on a schedule,
+// and sooner when a type or id is not found, at most once per refresh-on-miss interval.
+@Component
+public class ContentPartitions {
+    private static final Logger log = LoggerFactory.getLogger(ContentPartitions.class);
+
+    public static final String PREFIX = "content.";
+    // Order of every content list: updatedAt, then id, newest first, as sorted by MongoDB
+    public static final Comparator<ContentItem> NEWEST_FIRST = Comparator
+            .comparing(ContentItem::getUpdatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ContentItem::getId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .reversed();
+
+    // Types become part of a collection name
+    private static final Pattern TYPE = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexConfig indexConfig;
+    private final String legacyCollection;
+    private final Set<String> partitions = new ConcurrentSkipListSet<>();
+    private final Map<String, String> routes;
+    private final ExecutorService executor;
+    private final boolean migrateLegacyData;
+    private final long refreshOnMissMillis;
+    private final AtomicLong lastRefresh = new AtomicLong();
+
+    @Autowired
+    public ContentPartitions(MongoTemplate mongoTemplate, MongoIndexConfig indexConfig,
+                             @Value("${cms.partitions.route-cache-size:100000}") int routeCacheSize,
+                             @Value("${cms.partitions.query-threads:8}") int queryThreads,
+                             @Value("${cms.startup.migrate-legacy-data:true}") boolean migrateLegacyData,
+                             @Value("${cms.partitions.refresh-on-miss-millis:1000}") long refreshOnMissMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexConfig = indexConfig;
+        this.legacyCollection = mongoTemplate.getCollectionName(ContentItem.class);
+        this.migrateLegacyData = migrateLegacyData;
+        this.refreshOnMissMillis = refreshOnMissMillis;
+        this.routes = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > routeCacheSize;
+            }
+        };
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, queryThreads), runnable -> {
+            Thread thread = new Thread(runnable, "content-partition-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        lastRefresh.set(System.currentTimeMillis());
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            if (collection.startsWith(PREFIX)) {
+                partitions.add(collection);
+                indexConfig.reconcile(collection, indexConfig.partitionIndexes(typeOf(collection)));
+            }
+        }
+        if (migrateLegacyData) {
+            migrateLegacyCollection();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Adds the partitions that exist in the database but are not known here yet
+    @Scheduled(initialDelayString = "${cms.partitions.refresh-interval-millis:30000}",
+            fixedDelayString = "${cms.partitions.refresh-interval-millis:30000}")
+    public void refresh() {
+        lastRefresh.set(System.currentTimeMillis());
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            if (collection.startsWith(PREFIX) && partitions.add(collection)) {
+                log.info("Found content partition {}", collection);
+            }
+        }
+    }
+
+    // The partition new content of this type is written to, created with its indexes on first use
+    public String partitionFor(String type) {
+        String collection = collectionName(type);
+        if (!partitions.contains(collection)) {
+            synchronized (partitions) {
+                if (!partitions.contains(collection)) {
+                    if (!mongoTemplate.collectionExists(collection)) {
+                        mongoTemplate.createCollection(collection);
+                    }
+                    indexConfig.reconcile(collection, indexConfig.partitionIndexes(type));
+                    partitions.add(collection);
+                    log.info("Added content partition {}", collection);
+                }
+            }
+        }
+        return collection;
+    }
+
+    // The partition to read a type from; empty when nothing of this type was ever written
+    public Optional<String> existingPartition(String type) {
+        String collection = collectionName(type);
+        if (!partitions.contains(collection)) {
+            refreshOnMiss();
+        }
+        return partitions.contains(collection) ? Optional.of(collection) : Optional.empty();
+    }
+
+    public List<String> all() {
+        return new ArrayList<>(partitions);
+    }
+
+    public int count() {
+        return partitions.size();
+    }
+
+    public static String typeOf(String collection) {
+        return collection.substring(PREFIX.length());
+    }
+
+    // Runs lookup against the partition holding id and returns its result, or null when no
+    // partition has it. lookup receives a collection name and returns null for "not here".
+    public <T> T lookup(String id, Function<String, T> lookup) {
+        String known;
+        synchronized (routes) {
+            known = routes.get(id);
+        }
+        if (known != null) {
+            T result = lookup.apply(known);
+            if (result == null) {
+                forget(id);
+            }
+            return result;
+        }
+
+        // Ids are unique across partitions, so at most one of them can match
+        List<String> collections = all();
+        T result = probe(id, collections, lookup);
+        if (result == null && refreshOnMiss()) {
+            List<String> added = all();
+            added.removeAll(collections);
+            result = probe(id, added, lookup);
+        }
+        return result;
+    }
+
+    private <T> T probe(String id, List<String> collections, Function<String, T> lookup) {
+        if (collections.isEmpty()) {
+            return null;
+        }
+        List<T> results = scatter(collections, lookup);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                remember(id, collections.get(i));
+                return results.get(i);
+            }
+        }
+        return null;
+    }
+
+    // Returns whether partitions were added; misses for ids that do not exist would otherwise list
+    // the collections on every request
+    private boolean refreshOnMiss() {
+        long last = lastRefresh.get();
+        long now = System.currentTimeMillis();
+        if (now - last < refreshOnMissMillis || !lastRefresh.compareAndSet(last, now)) {
+            return false;
+        }
+        int before = partitions.size();
+        refresh();
+        return partitions.size() > before;
+    }
+
+    // The partition holding id, or null
+    public String locate(String id) {
+        return lookup(id, collection -> mongoTemplate.exists(byId(id), collection) ? collection : null);
+    }
+
+    // The remembered partition of id, or null; never queries
+    public String knownPartition(String id) {
+        synchronized (routes) {
+            return routes.get(id);
+        }
+    }
+
+    // The partitions holding ids, from the route cache where known and otherwise with one query per
+    // partition for all the unknown ids together. Ids no partition holds are left out.
+    public Map<String, String> locateAll(Collection<String> ids) {
+        Map<String, String> located = new LinkedHashMap<>();
+        List<Object> unknown = new ArrayList<>();
+        for (String id : ids) {
+            String known = knownPartition(id);
+            if (known != null) {
+                located.put(id, known);
+            } else {
+                unknown.add(key(id));
+            }
+        }
+        if (unknown.isEmpty()) {
+            return located;
+        }
+
+        List<String> collections = all();
+        Query query = new Query(Criteria.where("_id").in(unknown));
+        query.fields().include("_id");
+        List<List<Document>> found = scatter(collections, collection -> mongoTemplate.find(query, Document.class, collection));
+        for (int i = 0; i < collections.size(); i++) {
+            for (Document document : found.get(i)) {
+                String id = document.get("_id").toString();
+                remember(id, collections.get(i));
+                located.put(id, collections.get(i));
+            }
+        }
+        return located;
+    }
+
+    public void remember(String id, String collection) {
+        synchronized (routes) {
+            routes.put(id, collection);
+        }
+    }
+
+    public void forget(String id) {
+        synchronized (routes) {
+            routes.remove(id);
+        }
+    }
+
+    // Runs query on every given partition in parallel; the results are in the order of collections
+    public <T> List<T> scatter(Collection<String> collections, Function<String, T> query) {
+        List<String> targets = new ArrayList<>(collections);
+        List<T> results = new ArrayList<>(targets.size());
+        if (targets.size() == 1) {
+            results.add(query.apply(targets.get(0)));
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(targets.size());
+        for (String collection : targets) {
+            futures.add(executor.submit(QueryAccounting.inheritStats(() -> query.apply(collection))));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying content partitions", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Content partition query failed", ex.getCause());
+        } finally {
+            // A failed partition makes the others pointless
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    // Runs query on every given partition in parallel and merges the sorted results. Each
+    // partition must return its first limit items in order, so the merged first limit are exact.
+    public <T> List<T> gather(Collection<String> collections, Function<String, List<T>> query, Comparator<T> order,
+                              int limit) {
+        List<T> merged = new ArrayList<>();
+        scatter(collections, query).forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    public static String collectionName(String type) {
+        if (type == null || !TYPE.matcher(type).matches()) {
+            throw new InvalidQueryException("Invalid content type: " + type);
+        }
+        return PREFIX + type;
+    }
+
+    public static Query byId(String id) {
+        return new Query(Criteria.where("id").is(id));
+    }
+
+    // Same id conversion as the mapping layer, for the driver-level readers
+    public static Object key(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    // Moves content from the single collection used before partitioning into the partitions,
+    // keeping ids. Documents whose type cannot name a partition stay behind and are reported.
+    private void migrateLegacyCollection() {
+        if (!mongoTemplate.collectionExists(legacyCollection)) {
+            return;
+        }
+        List<String> types = mongoTemplate.findDistinct(new Query(), "type", legacyCollection, String.class);
+        for (String type : types) {
+            if (type == null || !TYPE.matcher(type).matches()) {
+                continue;
+            }
+            String collection = partitionFor(type);
+            Criteria ofType = Criteria.where("type").is(type);
+            mongoTemplate.aggregate(Aggregation.newAggregation(Aggregation.match(ofType),
+                    Aggregation.merge().intoCollection(collection).on("_id")
+                            .whenMatched(MergeOperation.WhenDocumentsMatch.keepExistingDocument())
+                            .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                            .build()), legacyCollection, Document.class);
+            long moved = mongoTemplate.remove(new Query(ofType), legacyCollection).getDeletedCount();
+            log.info("Moved {} content documents of type {} into {}", moved, type, collection);
+        }
+
+        long left = mongoTemplate.getCollection(legacyCollection).countDocuments();
+        if (left == 0) {
+            mongoTemplate.dropCollection(legacyCollection);
+        } else {
+            log.warn("{} content documents without a valid type were left in {}", left, legacyCollection);
+        }
+    }
+}
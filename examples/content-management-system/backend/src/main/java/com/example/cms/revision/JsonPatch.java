@@ -0,0 +1,109 @@
+package com.example.cms.revision;
+
+import com.example.cms.model.PatchOperation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Structural diff and patch over nested maps. Nested maps are diffed key by key; any other
+// value, including lists, is replaced as a whole when it differs.
+public final class JsonPatch {
+
+    private JsonPatch() {
+    }
+
+    public static List<PatchOperation> diff(Map<String, Object> from, Map<String, Object> to) {
+        List<PatchOperation> patch = new ArrayList<>();
+        diff(new ArrayList<>(), from != null ? from : Collections.emptyMap(), to != null ? to : Collections.emptyMap(), patch);
+        return patch;
+    }
+
+    public static Map<String, Object> apply(Map<String, Object> base, List<PatchOperation> patch) {
+        Map<String, Object> result = copy(base);
+        for (PatchOperation operation : patch) {
+            List<String> path = operation.getPath();
+            Map<String, Object> parent = result;
+            for (String key : path.subList(0, path.size() - 1)) {
+                Object child = parent.get(key);
+                if (!(child instanceof Map)) {
+                    if (PatchOperation.REMOVE.equals(operation.getOp())) {
+                        parent = null;
+                        break;
+                    }
+                    child = new LinkedHashMap<String, Object>();
+                    parent.put(key, child);
+                }
+                parent = asMap(child);
+            }
+            if (parent == null) {
+                continue;
+            }
+
+            String last = path.get(path.size() - 1);
+            if (PatchOperation.REMOVE.equals(operation.getOp())) {
+                parent.remove(last);
+            } else {
+                Object value = operation.getValue();
+                parent.put(last, value instanceof Map ? copy((Map<?, ?>) value) : value);
+            }
+        }
+        return result;
+    }
+
+    private static void diff(List<String> path, Map<?, ?> from, Map<?, ?> to, List<PatchOperation> patch) {
+        for (Object key : from.keySet()) {
+            if (!to.containsKey(key)) {
+                patch.add(new PatchOperation(PatchOperation.REMOVE, append(path, key), null));
+            }
+        }
+        for (Map.Entry<?, ?> entry : to.entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            Object previous = from.get(key);
+            if (previous instanceof Map && value instanceof Map) {
+                diff(append(path, key), (Map<?, ?>) previous, (Map<?, ?>) value, patch);
+            } else if (!from.containsKey(key) || !same(previous, value)) {
+                patch.add(new PatchOperation(PatchOperation.SET, append(path, key), value));
+            }
+        }
+    }
+
+    // Request bodies and stored documents may box the same number differently
+    private static boolean same(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            try {
+                return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+            } catch (NumberFormatException ex) {
+                // NaN and infinities
+                return a.equals(b);
+            }
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static List<String> append(List<String> path, Object key) {
+        List<String> child = new ArrayList<>(path.size() + 1);
+        child.addAll(path);
+        child.add(String.valueOf(key));
+        return child;
+    }
+
+    // Lists are never modified in place, so only the maps need copying
+    private static Map<String, Object> copy(Map<?, ?> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        if (map != null) {
+            map.forEach((key, value) -> copy.put(String.valueOf(key), value instanceof Map ? copy((Map<?, ?>) value) : value));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
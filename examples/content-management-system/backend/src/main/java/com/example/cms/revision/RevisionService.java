@@ -0,0 +1,171 @@
+package com.example.cms.revision;
+
+import com.example.cms.exception.ContentNotFoundException;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.ContentRevision;
+import com.example.cms.model.PatchOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// History of content data. Revision 0 is the data before the first recorded update and is
+// written lazily by that update. Every snapshot-interval revisions a full snapshot is stored;
+// the revisions in between only hold a patch, so rebuilding reads at most one snapshot and
+// snapshot-interval - 1 patches. Counter flushes are not revisions, so counts in history lag.
+@Service
+public class RevisionService {
+    private static final Logger log = LoggerFactory.getLogger(RevisionService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int snapshotInterval;
+    private final int maxRevisions;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder recordNanos = new LongAdder();
+    private final LongAdder patchOperations = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder rebuildNanos = new LongAdder();
+
+    @Autowired
+    public RevisionService(MongoTemplate mongoTemplate,
+                           @Value("${cms.revisions.snapshot-interval:20}") int snapshotInterval,
+                           @Value("${cms.revisions.max-revisions:200}") int maxRevisions) {
+        this.mongoTemplate = mongoTemplate;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.maxRevisions = Math.max(1, maxRevisions);
+    }
+
+    // previous is the item as it was before the update, as returned by findAndModify
+    public void record(ContentItem previous, Map<String, Object> data, Date updatedAt) {
+        long start = System.nanoTime();
+        String contentId = previous.getId();
+        int revision = previous.getRevision() + 1;
+
+        List<ContentRevision> revisions = new ArrayList<>(2);
+        if (previous.getRevision() == 0) {
+            revisions.add(snapshot(contentId, 0, previous.getData(), previous.getUpdatedAt()));
+        }
+        boolean snapshot = revision % snapshotInterval == 0;
+        List<PatchOperation> patch = null;
+        if (snapshot) {
+            revisions.add(snapshot(contentId, revision, data, updatedAt));
+        } else {
+            patch = JsonPatch.diff(previous.getData(), data);
+            revisions.add(new ContentRevision(null, contentId, revision, false, updatedAt, null, patch));
+        }
+
+        // The update itself has already been applied; a lost revision must not fail it
+        try {
+            mongoTemplate.insert(revisions, ContentRevision.class);
+            if (snapshot) {
+                prune(contentId, revision);
+            }
+        } catch (DataAccessException ex) {
+            failures.increment();
+            log.error("Could not record revision {} of content {}: {}", revision, contentId, ex.getMessage());
+            return;
+        }
+
+        recorded.increment();
+        if (snapshot) {
+            snapshots.increment();
+        } else {
+            patchOperations.add(patch.size());
+        }
+        recordNanos.add(System.nanoTime() - start);
+    }
+
+    public List<ContentRevision> getRevisions(String contentId) {
+        Query query = new Query(Criteria.where("contentId").is(contentId))
+                .with(Sort.by(Sort.Direction.DESC, "revision"));
+        query.fields().exclude("data").exclude("patch");
+        return mongoTemplate.find(query, ContentRevision.class);
+    }
+
+    public ContentRevision getRevision(String contentId, int revision) {
+        long start = System.nanoTime();
+
+        Query snapshotQuery = new Query(Criteria.where("contentId").is(contentId)
+                .and("snapshot").is(true).and("revision").lte(revision))
+                .with(Sort.by(Sort.Direction.DESC, "revision"));
+        ContentRevision base = mongoTemplate.findOne(snapshotQuery, ContentRevision.class);
+        if (base == null) {
+            throw new ContentNotFoundException("Revision " + revision + " not found for content id: " + contentId);
+        }
+
+        Query patchQuery = new Query(Criteria.where("contentId").is(contentId)
+                .and("revision").gt(base.getRevision()).lte(revision))
+                .with(Sort.by(Sort.Direction.ASC, "revision"));
+        List<ContentRevision> patches = mongoTemplate.find(patchQuery, ContentRevision.class);
+        if (patches.size() != revision - base.getRevision()) {
+            throw new ContentNotFoundException("Revision " + revision + " not found for content id: " + contentId);
+        }
+
+        Map<String, Object> data = base.getData();
+        Date createdAt = base.getCreatedAt();
+        for (ContentRevision patch : patches) {
+            // A snapshot that was written but not needed as the base can be taken as is
+            data = patch.isSnapshot() ? patch.getData() : JsonPatch.apply(data, patch.getPatch());
+            createdAt = patch.getCreatedAt();
+        }
+
+        rebuilds.increment();
+        rebuildNanos.add(System.nanoTime() - start);
+        return new ContentRevision(null, contentId, revision, false, createdAt, data, null);
+    }
+
+    public void deleteRevisions(String contentId) {
+        mongoTemplate.remove(new Query(Criteria.where("contentId").is(contentId)), ContentRevision.class);
+    }
+
+    public RevisionStats stats() {
+        long recordCount = recorded.sum();
+        long deltaCount = recordCount - snapshots.sum();
+        double averageRecordMillis = recordCount > 0 ? recordNanos.sum() / 1_000_000.0 / recordCount : 0;
+        double averagePatchOperations = deltaCount > 0 ? (double) patchOperations.sum() / deltaCount : 0;
+        long rebuildCount = rebuilds.sum();
+        double averageRebuildMillis = rebuildCount > 0 ? rebuildNanos.sum() / 1_000_000.0 / rebuildCount : 0;
+        return new RevisionStats(recordCount, snapshots.sum(), failures.sum(), averageRecordMillis,
+                averagePatchOperations, pruned.sum(), rebuildCount, averageRebuildMillis);
+    }
+
+    // Keeps at least max-revisions revisions, plus the snapshot the oldest of them is built from
+    private void prune(String contentId, int latest) {
+        int oldestKept = latest - maxRevisions + 1;
+        if (oldestKept <= 0) {
+            return;
+        }
+
+        Query baseQuery = new Query(Criteria.where("contentId").is(contentId)
+                .and("snapshot").is(true).and("revision").lte(oldestKept))
+                .with(Sort.by(Sort.Direction.DESC, "revision"));
+        baseQuery.fields().include("revision");
+        ContentRevision base = mongoTemplate.findOne(baseQuery, ContentRevision.class);
+        if (base == null) {
+            return;
+        }
+
+        Query expired = new Query(Criteria.where("contentId").is(contentId).and("revision").lt(base.getRevision()));
+        pruned.add(mongoTemplate.remove(expired, ContentRevision.class).getDeletedCount());
+    }
+
+    private ContentRevision snapshot(String contentId, int revision, Map<String, Object> data, Date createdAt) {
+        return new ContentRevision(null, contentId, revision, true, createdAt, data, null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.cms.revision;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionStats {
+    private long recorded;
+    private long snapshots;
+    private long failures;
+    private double averageRecordMillis;
+    private double averagePatchOperations;
+    private long pruned;
+    private long rebuilds;
+    private double averageRebuildMillis;
+}
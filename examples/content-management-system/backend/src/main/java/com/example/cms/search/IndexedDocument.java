@@ -0,0 +1,93 @@
+package com.example.cms.search;
+
+import com.example.cms.model.ContentItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pre-tokenized form of a content item; building it is the expensive part of indexing
+final class IndexedDocument {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int BODY_WEIGHT = 1;
+
+    final String id;
+    final String type;
+    final String title;
+    final List<String> tags;
+    final Map<String, Integer> termFrequencies = new HashMap<>();
+    int length;
+
+    private IndexedDocument(String id, String type, String title, List<String> tags) {
+        this.id = id;
+        this.type = type;
+        this.title = title;
+        this.tags = tags;
+    }
+
+    static IndexedDocument of(ContentItem content) {
+        Map<String, Object> data = content.getData() != null ? content.getData() : Collections.emptyMap();
+
+        String title = asString(data.containsKey("title") ? data.get("title") : data.get("name"));
+        List<String> tags = asStrings(data.get("tags"));
+        IndexedDocument document = new IndexedDocument(content.getId(), content.getType(), title, tags);
+
+        // Articles
+        document.add(data.get("title"), TITLE_WEIGHT);
+        document.add(data.get("content"), BODY_WEIGHT);
+        for (String tag : tags) {
+            document.add(tag, TAG_WEIGHT);
+        }
+
+        // Products
+        document.add(data.get("name"), TITLE_WEIGHT);
+        for (String category : asStrings(data.get("categories"))) {
+            document.add(category, TAG_WEIGHT);
+        }
+        if (data.get("specifications") instanceof Map) {
+            for (Object value : ((Map<?, ?>) data.get("specifications")).values()) {
+                document.add(value, BODY_WEIGHT);
+            }
+        }
+        if (data.get("variants") instanceof Collection) {
+            for (Object variant : (Collection<?>) data.get("variants")) {
+                if (variant instanceof Map) {
+                    document.add(((Map<?, ?>) variant).get("color"), BODY_WEIGHT);
+                    document.add(((Map<?, ?>) variant).get("sku"), BODY_WEIGHT);
+                }
+            }
+        }
+
+        return document;
+    }
+
+    private void add(Object value, int weight) {
+        if (!(value instanceof String)) {
+            return;
+        }
+        for (String token : Tokenizer.tokenize((String) value)) {
+            termFrequencies.merge(token, weight, Integer::sum);
+            length += weight;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static List<String> asStrings(Object value) {
+        List<String> strings = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                if (element != null) {
+                    strings.add(element.toString());
+                }
+            }
+        }
+        return strings;
+    }
+}
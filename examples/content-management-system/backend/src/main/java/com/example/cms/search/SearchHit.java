@@ -0,0 +1,15 @@
+package com.example.cms.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+    private String id;
+    private String type;
+    private String title;
+    private double score;
+}
@@ -0,0 +1,198 @@
+package com.example.cms.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index with BM25 scoring. Terms are kept sorted so prefixes can be expanded.
+final class SearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MAX_TAG_FACETS = 20;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    void put(IndexedDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(document.id);
+            addDocument(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putAll(List<IndexedDocument> batch) {
+        lock.writeLock().lock();
+        try {
+            for (IndexedDocument document : batch) {
+                removeDocument(document.id);
+                addDocument(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    SearchResult search(String text, boolean prefix, String type, String tag, int offset, int limit) {
+        List<String> tokens = Tokenizer.tokenize(text);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = new HashMap<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean expand = prefix && i == tokens.size() - 1;
+                for (String term : expand ? expand(tokens.get(i)) : List.of(tokens.get(i))) {
+                    score(term, scores);
+                }
+            }
+
+            Map<String, Long> typeFacet = new HashMap<>();
+            Map<String, Long> tagFacet = new HashMap<>();
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::getScore));
+            int wanted = offset + limit;
+            long total = 0;
+
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                IndexedDocument document = documents.get(entry.getKey());
+                if ((type != null && !type.equals(document.type)) || (tag != null && !document.tags.contains(tag))) {
+                    continue;
+                }
+
+                total++;
+                if (document.type != null) {
+                    typeFacet.merge(document.type, 1L, Long::sum);
+                }
+                for (String documentTag : document.tags) {
+                    tagFacet.merge(documentTag, 1L, Long::sum);
+                }
+
+                top.add(new SearchHit(document.id, document.type, document.title, entry.getValue()));
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed());
+            hits = offset < hits.size() ? hits.subList(offset, hits.size()) : new ArrayList<>();
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("type", sortByCount(typeFacet, Integer.MAX_VALUE));
+            facets.put("tags", sortByCount(tagFacet, MAX_TAG_FACETS));
+            return new SearchResult(total, hits, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<String> suggest(String prefix, int limit) {
+        List<String> tokens = Tokenizer.tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Most frequent completions first
+            Map<String, Long> completions = new HashMap<>();
+            for (String term : expand(tokens.get(tokens.size() - 1))) {
+                completions.put(term, (long) postings.get(term).size());
+            }
+            return new ArrayList<>(sortByCount(completions, limit).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(String term, Map<String, Double> scores) {
+        Map<String, Integer> termPostings = postings.get(term);
+        if (termPostings == null) {
+            return;
+        }
+
+        double documentCount = documents.size();
+        double averageLength = documentCount > 0 ? (double) totalLength / documentCount : 1;
+        double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+
+        for (Map.Entry<String, Integer> posting : termPostings.entrySet()) {
+            double tf = posting.getValue();
+            double length = documents.get(posting.getKey()).length;
+            double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            scores.merge(posting.getKey(), score, Double::sum);
+        }
+    }
+
+    private List<String> expand(String prefix) {
+        List<String> terms = new ArrayList<>();
+        for (String term : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet()) {
+            terms.add(term);
+            if (terms.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return terms;
+    }
+
+    private void addDocument(IndexedDocument document) {
+        documents.put(document.id, document);
+        totalLength += document.length;
+        for (Map.Entry<String, Integer> entry : document.termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(document.id, entry.getValue());
+        }
+    }
+
+    private void removeDocument(String id) {
+        IndexedDocument existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+
+        totalLength -= existing.length;
+        for (String term : existing.termFrequencies.keySet()) {
+            Map<String, Integer> termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static Map<String, Long> sortByCount(Map<String, Long> counts, int limit) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.cms.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private long total;
+    private List<SearchHit> hits;
+
+    // Facet name ("type", "tags") to value counts over all matching documents
+    private Map<String, Map<String, Long>> facets;
+}
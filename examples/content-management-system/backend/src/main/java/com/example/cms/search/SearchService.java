@@ -0,0 +1,156 @@
+package com.example.cms.search;
+
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+@Service
+public class SearchService {
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int MAX_RESULTS = 100;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentPartitions partitions;
+    private final Object writeLock = new Object();
+
+    private volatile SearchIndex index = new SearchIndex();
+
+    // Writes made while a rebuild is running, replayed onto the rebuilt index; guarded by writeLock
+    private List<Consumer<SearchIndex>> pendingWrites;
+
+    @Autowired
+    public SearchService(MongoTemplate mongoTemplate, ContentPartitions partitions) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitions = partitions;
+    }
+
+    public SearchResult search(String text, boolean prefix, String type, String tag, int offset, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_RESULTS));
+        return index.search(text, prefix, type, tag, Math.max(0, offset), pageSize);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return index.suggest(prefix, Math.max(1, Math.min(limit, MAX_RESULTS)));
+    }
+
+    public void index(ContentItem content) {
+        IndexedDocument document = IndexedDocument.of(content);
+        write(target -> target.put(document));
+    }
+
+    public void remove(String id) {
+        write(target -> target.remove(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        synchronized (writeLock) {
+            if (pendingWrites != null) {
+                log.info("Search index rebuild already in progress");
+                return;
+            }
+            pendingWrites = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        SearchIndex rebuilt = new SearchIndex();
+        try {
+            load(rebuilt);
+        } catch (RuntimeException ex) {
+            synchronized (writeLock) {
+                pendingWrites = null;
+            }
+            log.error("Search index rebuild failed", ex);
+            return;
+        }
+
+        synchronized (writeLock) {
+            pendingWrites.forEach(write -> write.accept(rebuilt));
+            pendingWrites = null;
+            index = rebuilt;
+        }
+        log.info("Rebuilt search index with {} documents in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private void load(SearchIndex target) {
+        Query query = new Query();
+        query.fields().include("type").include("data.title").include("data.content").include("data.tags")
+                .include("data.name").include("data.categories").include("data.specifications").include("data.variants");
+
+        // Reading stays on this thread; tokenizing the batches is spread over the workers
+        ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Future<?>> batches = new ArrayList<>();
+        try {
+            // One partition after the other, so only one cursor is open at a time
+            for (String collection : partitions.all()) {
+                try (CloseableIterator<ContentItem> contents = mongoTemplate.stream(query, ContentItem.class, collection)) {
+                    List<ContentItem> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+                    while (contents.hasNext()) {
+                        batch.add(contents.next());
+                        if (batch.size() == REBUILD_BATCH_SIZE) {
+                            batches.add(workers.submit(indexBatch(target, batch)));
+                            batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        batches.add(workers.submit(indexBatch(target, batch)));
+                    }
+                }
+            }
+
+            for (Future<?> future : batches) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search index rebuild interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Search index rebuild failed", ex.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Runnable indexBatch(SearchIndex target, List<ContentItem> batch) {
+        return () -> {
+            List<IndexedDocument> documents = new ArrayList<>(batch.size());
+            for (ContentItem content : batch) {
+                documents.add(IndexedDocument.of(content));
+            }
+            target.putAll(documents);
+        };
+    }
+
+    private void write(Consumer<SearchIndex> write) {
+        synchronized (writeLock) {
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+            write.accept(index);
+        }
+    }
+}
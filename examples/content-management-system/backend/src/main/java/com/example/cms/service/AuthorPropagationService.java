@@ -0,0 +1,240 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.model.AuthorPropagationJob;
+import com.example.cms.model.CommentBucket;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Copies a user's name, email and role into the documents that embed them. Every batch only
+// selects documents that still hold other values, so a job can be re-run or resumed safely.
+@Service
+public class AuthorPropagationService {
+    private static final Logger log = LoggerFactory.getLogger(AuthorPropagationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentCache contentCache;
+    private final ContentPartitions partitions;
+    private final int batchSize;
+    private final int maxDocumentsPerSecond;
+    private final long slowBatchMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "author-propagation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public AuthorPropagationService(MongoTemplate mongoTemplate, ContentCache contentCache, ContentPartitions partitions,
+                                    @Value("${cms.propagation.batch-size:500}") int batchSize,
+                                    @Value("${cms.propagation.max-documents-per-second:5000}") int maxDocumentsPerSecond,
+                                    @Value("${cms.propagation.slow-batch-millis:250}") long slowBatchMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentCache = contentCache;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.maxDocumentsPerSecond = maxDocumentsPerSecond;
+        this.slowBatchMillis = slowBatchMillis;
+    }
+
+    public void schedule(User user) {
+        AuthorPropagationJob job = new AuthorPropagationJob();
+        job.setUserId(user.getId());
+        job.setName(user.getName());
+        job.setEmail(user.getEmail());
+        job.setRole(user.getRole());
+        job.setStatus(AuthorPropagationJob.PENDING);
+        job.setRequestedAt(new Date());
+        mongoTemplate.save(job);
+
+        executor.submit(() -> run(user.getId()));
+    }
+
+    public AuthorPropagationJob getJob(String userId) {
+        return mongoTemplate.findById(userId, AuthorPropagationJob.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        Query unfinished = new Query(Criteria.where("status").in(AuthorPropagationJob.PENDING, AuthorPropagationJob.RUNNING));
+        for (AuthorPropagationJob job : mongoTemplate.find(unfinished, AuthorPropagationJob.class)) {
+            log.info("Resuming author propagation for user {}", job.getUserId());
+            executor.submit(() -> run(job.getUserId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Unfinished jobs stay RUNNING and are picked up again on the next start
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void run(String userId) {
+        try {
+            AuthorPropagationJob job = getJob(userId);
+            while (job != null && !AuthorPropagationJob.COMPLETED.equals(job.getStatus())) {
+                Date requestedAt = job.getRequestedAt();
+                long started = System.currentTimeMillis();
+                mongoTemplate.updateFirst(byUser(userId), new Update()
+                        .set("status", AuthorPropagationJob.RUNNING)
+                        .set("startedAt", new Date(started))
+                        .set("documentsUpdated", 0)
+                        .unset("error"), AuthorPropagationJob.class);
+
+                long updated = 0;
+                for (String collection : partitions.all()) {
+                    updated += propagateAuthor(job, collection, started)
+                            + propagateComments(job, ContentItem.class, collection, ContentItem::getId, started, true);
+                }
+                updated += propagateComments(job, CommentBucket.class, mongoTemplate.getCollectionName(CommentBucket.class),
+                        CommentBucket::getId, started, false);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+
+                // Only complete if the user was not changed again while this pass was running
+                Query sameRequest = new Query(Criteria.where("userId").is(userId).and("requestedAt").is(requestedAt));
+                long completed = mongoTemplate.updateFirst(sameRequest, new Update()
+                        .set("status", AuthorPropagationJob.COMPLETED)
+                        .set("finishedAt", new Date()), AuthorPropagationJob.class).getModifiedCount();
+                if (completed > 0) {
+                    log.info("Propagated author changes for user {} to {} documents ({} docs/s)",
+                            userId, updated, String.format("%.1f", rate(updated, started)));
+                }
+                job = getJob(userId);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Author propagation for user {} failed", userId, ex);
+            mongoTemplate.updateFirst(byUser(userId), new Update()
+                    .set("status", AuthorPropagationJob.FAILED)
+                    .set("error", ex.getMessage()), AuthorPropagationJob.class);
+        }
+    }
+
+    // Moving updatedAt is intended: it is the version of everything an item returns, embedded
+    // author and preview comments included. Item and page ETags and the sync feed are built on it,
+    // so without it clients would keep the old name behind 304s and sync would never deliver it.
+    // The cost is that the items also move to the top of updatedAt-ordered lists. Comment buckets
+    // carry no version and are not touched.
+    private long propagateAuthor(AuthorPropagationJob job, String collection, long started) {
+        Criteria stale = Criteria.where("author.id").is(job.getUserId()).orOperator(
+                Criteria.where("author.name").ne(job.getName()),
+                Criteria.where("author.email").ne(job.getEmail()),
+                Criteria.where("author.role").ne(job.getRole()));
+        Supplier<Update> update = () -> new Update()
+                .set("author.name", job.getName())
+                .set("author.email", job.getEmail())
+                .set("author.role", job.getRole())
+                .set("updatedAt", new Date());
+
+        return propagate(job, stale, update, ContentItem.class, collection, ContentItem::getId, started);
+    }
+
+    private <T> long propagateComments(AuthorPropagationJob job, Class<T> entity, String collection,
+                                       Function<T, String> idOf, long started, boolean touch) {
+        Criteria staleComment = Criteria.where("userId").is(job.getUserId()).and("userName").ne(job.getName());
+        Criteria stale = new Criteria().orOperator(
+                Criteria.where("comments").elemMatch(staleComment),
+                Criteria.where("comments.replies").elemMatch(staleComment));
+        Supplier<Update> update = () -> {
+            Update commentUpdate = new Update()
+                    .set("comments.$[comment].userName", job.getName())
+                    .set("comments.$[].replies.$[reply].userName", job.getName())
+                    .filterArray(Criteria.where("comment.userId").is(job.getUserId()))
+                    .filterArray(Criteria.where("reply.userId").is(job.getUserId()));
+            // See propagateAuthor for why content items get a new updatedAt
+            if (touch) {
+                commentUpdate.set("updatedAt", new Date());
+            }
+            return commentUpdate;
+        };
+
+        return propagate(job, stale, update, entity, collection, idOf, started);
+    }
+
+    // The update is built per batch: a throttled job can run for minutes, and an updatedAt taken
+    // when it started would land behind the sync settle window and never reach clients
+    private <T> long propagate(AuthorPropagationJob job, Criteria stale, Supplier<Update> update, Class<T> entity,
+                               String collection, Function<T, String> idOf, long started) {
+        long total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long batchStarted = System.nanoTime();
+
+            Query batchQuery = new Query(stale).limit(batchSize);
+            batchQuery.fields().include("id");
+            List<String> ids = new ArrayList<>();
+            for (T document : mongoTemplate.find(batchQuery, entity, collection)) {
+                ids.add(idOf.apply(document));
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // The stale criteria are repeated so a concurrent fix is not overwritten with older values
+            Query updateQuery = new Query(Criteria.where("id").in(ids).andOperator(stale));
+            long modified = mongoTemplate.updateMulti(updateQuery, update.get(), entity, collection).getModifiedCount();
+            total += modified;
+            if (entity == ContentItem.class && modified > 0) {
+                contentCache.invalidateAll();
+            }
+
+            mongoTemplate.updateFirst(byUser(job.getUserId()), new Update()
+                    .inc("documentsUpdated", modified)
+                    .set("documentsPerSecond", rate(total, started)), AuthorPropagationJob.class);
+
+            throttle(batchStarted, ids.size());
+        }
+        return total;
+    }
+
+    private void throttle(long batchStarted, int documents) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStarted);
+        long budgetMillis = documents * 1000L / Math.max(1, maxDocumentsPerSecond);
+        long pauseMillis = budgetMillis - elapsedMillis;
+
+        // A slow batch means the database is busy; give it as much time back as the batch took
+        if (elapsedMillis > slowBatchMillis) {
+            pauseMillis = Math.max(pauseMillis, elapsedMillis);
+        }
+
+        if (pauseMillis > 0) {
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private double rate(long documents, long started) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        return documents * 1000.0 / elapsed;
+    }
+
+    private Query byUser(String userId) {
+        return new Query(Criteria.where("userId").is(userId));
+    }
+}
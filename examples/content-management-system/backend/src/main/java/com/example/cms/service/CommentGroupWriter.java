@@ -0,0 +1,393 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.exception.ContentNotFoundException;
+import com.example.cms.exception.UserNotFoundException;
+import com.example.cms.model.Comment;
+import com.example.cms.model.CommentBucket;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import com.mongodb.WriteConcern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Writes new comments in groups, so a burst of comments on one item costs a few writes instead of
+// several per comment. Comments are queued per item; a group is written when its oldest comment
+// has waited max-delay or max-size comments are queued. A group is one user lookup, one update of
+// the item that reserves the positions and refreshes the preview, and one $push $each per comment
+// bucket. Groups of an item are written one at a time in arrival order, and every request
+// returns once its group is journaled. A comment sent with its own id is written at most once:
+// ids already in the item's buckets, or earlier in the group, are answered without a write. That
+// holds for retries through one instance; retries racing across instances can still both land.
+@Component
+public class CommentGroupWriter {
+    private static final Logger log = LoggerFactory.getLogger(CommentGroupWriter.class);
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentPartitions partitions;
+    private final ContentCache contentCache;
+    private final long maxDelayMillis;
+    private final int maxSize;
+
+    private final Map<String, ItemQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "comment-group-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService writers;
+
+    @Autowired
+    public CommentGroupWriter(MongoTemplate mongoTemplate, ContentPartitions partitions, ContentCache contentCache,
+                              @Value("${cms.comments.group-max-delay-millis:5}") long maxDelayMillis,
+                              @Value("${cms.comments.group-max-size:200}") int maxSize,
+                              @Value("${cms.comments.group-writers:4}") int writerThreads) {
+        this(journaled(mongoTemplate), partitions, contentCache, maxDelayMillis, maxSize, writerPool(writerThreads));
+    }
+
+    // Writes through mongoTemplate as given, for tests
+    CommentGroupWriter(MongoTemplate mongoTemplate, ContentPartitions partitions, ContentCache contentCache,
+                       long maxDelayMillis, int maxSize, ExecutorService writers) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitions = partitions;
+        this.contentCache = contentCache;
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+        this.maxSize = Math.max(1, maxSize);
+        this.writers = writers;
+    }
+
+    // Blocks until the comment's group is written; returns the item as updated by that group.
+    // commentId is optional; a client that sets it can retry the same comment safely.
+    public ContentItem add(String contentId, String userId, String text, String commentId) {
+        Comment comment = new Comment();
+        comment.setId(commentId != null ? commentId : UUID.randomUUID().toString());
+        comment.setUserId(userId);
+        comment.setText(text);
+        comment.setTimestamp(new Date());
+        comment.setReplies(new ArrayList<>());
+        Pending pending = new Pending(comment, commentId != null);
+
+        while (true) {
+            ItemQueue queue = queues.computeIfAbsent(contentId, ItemQueue::new);
+            synchronized (queue) {
+                // Closed queues were removed from the map by their last flush; take a fresh one
+                if (queue.closed) {
+                    continue;
+                }
+                queue.pending.add(pending);
+                if (!queue.active) {
+                    queue.active = true;
+                    if (queue.pending.size() >= maxSize) {
+                        dispatch(queue);
+                    } else {
+                        schedule(queue);
+                    }
+                } else if (queue.timer != null && queue.pending.size() >= maxSize && queue.timer.cancel(false)) {
+                    queue.timer = null;
+                    dispatch(queue);
+                }
+            }
+            return await(pending.written);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Groups already waiting are still written
+        timer.shutdown();
+        timer.awaitTermination(1, TimeUnit.SECONDS);
+        writers.shutdown();
+        writers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void schedule(ItemQueue queue) {
+        try {
+            queue.timer = timer.schedule(() -> dispatch(queue), maxDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            dispatch(queue);
+        }
+    }
+
+    private void dispatch(ItemQueue queue) {
+        try {
+            writers.execute(() -> flush(queue));
+        } catch (RejectedExecutionException ex) {
+            synchronized (queue) {
+                close(queue);
+                queue.pending.forEach(pending -> pending.written.completeExceptionally(
+                        new IllegalStateException("Comment writer is shutting down")));
+                queue.pending.clear();
+            }
+        }
+    }
+
+    private void flush(ItemQueue queue) {
+        List<Pending> group = new ArrayList<>();
+        synchronized (queue) {
+            queue.timer = null;
+            while (group.size() < maxSize && !queue.pending.isEmpty()) {
+                group.add(queue.pending.poll());
+            }
+        }
+
+        write(queue.contentId, group);
+
+        synchronized (queue) {
+            // Comments that arrived during the write have waited long enough; they form the next group
+            if (queue.pending.isEmpty()) {
+                close(queue);
+            } else {
+                dispatch(queue);
+            }
+        }
+    }
+
+    private void close(ItemQueue queue) {
+        queue.closed = true;
+        queues.remove(queue.contentId, queue);
+    }
+
+    private void write(String contentId, List<Pending> group) {
+        try {
+            List<Pending> accepted = resolveUsers(group);
+            if (accepted.isEmpty()) {
+                return;
+            }
+            List<Pending> repeated = removeRepeated(contentId, accepted);
+            if (accepted.isEmpty()) {
+                ContentItem current = partitions.lookup(contentId, collection ->
+                        mongoTemplate.findOne(ContentPartitions.byId(contentId), ContentItem.class, collection));
+                if (current == null) {
+                    throw new ContentNotFoundException("Content not found with id: " + contentId);
+                }
+                repeated.forEach(pending -> pending.written.complete(current));
+                return;
+            }
+            List<Comment> comments = new ArrayList<>(accepted.size());
+            accepted.forEach(pending -> comments.add(pending.comment));
+
+            Update update = new Update()
+                    .inc("commentCount", comments.size())
+                    .set("updatedAt", new Date());
+            update.push("comments").slice(-CommentService.PREVIEW_SIZE).each(comments.toArray());
+            ContentItem content = partitions.lookup(contentId, collection ->
+                    mongoTemplate.findAndModify(ContentPartitions.byId(contentId), update, RETURN_NEW,
+                            ContentItem.class, collection));
+            if (content == null) {
+                throw new ContentNotFoundException("Content not found with id: " + contentId);
+            }
+            contentCache.invalidate(content);
+
+            // The group holds positions first..count-1, which may span two or more buckets. Groups
+            // of other instances can reach a bucket first, so pages order by the stored position.
+            int first = content.getCommentCount() - comments.size();
+            for (int i = 0; i < comments.size(); i++) {
+                comments.get(i).setPosition(first + i);
+            }
+            try {
+                int start = 0;
+                while (start < comments.size()) {
+                    int bucket = (first + start) / CommentService.BUCKET_SIZE;
+                    int end = Math.min(comments.size(), (bucket + 1) * CommentService.BUCKET_SIZE - first);
+                    appendToBucket(contentId, bucket, comments.subList(start, end));
+                    start = end;
+                }
+            } catch (RuntimeException ex) {
+                release(content, comments);
+                throw ex;
+            }
+
+            accepted.forEach(pending -> pending.written.complete(content));
+            repeated.forEach(pending -> pending.written.complete(content));
+        } catch (RuntimeException ex) {
+            group.forEach(pending -> pending.written.completeExceptionally(ex));
+        }
+    }
+
+    // One query for the commenters of the whole group; comments by unknown users fail on their own
+    private List<Pending> resolveUsers(List<Pending> group) {
+        Set<String> userIds = new HashSet<>();
+        group.forEach(pending -> userIds.add(pending.comment.getUserId()));
+        Map<String, User> users = new HashMap<>();
+        for (User user : mongoTemplate.find(new Query(Criteria.where("id").in(userIds)), User.class)) {
+            users.put(user.getId(), user);
+        }
+
+        List<Pending> accepted = new ArrayList<>(group.size());
+        for (Pending pending : group) {
+            User user = users.get(pending.comment.getUserId());
+            if (user == null) {
+                pending.written.completeExceptionally(
+                        new UserNotFoundException("User not found with id: " + pending.comment.getUserId()));
+            } else {
+                pending.comment.setUserName(user.getName());
+                accepted.add(pending);
+            }
+        }
+        return accepted;
+    }
+
+    // Takes the retries out of accepted and returns them: comments with a client id that is
+    // already in a bucket of the item, or that came earlier in the same group
+    private List<Pending> removeRepeated(String contentId, List<Pending> accepted) {
+        List<String> clientIds = new ArrayList<>();
+        accepted.stream().filter(pending -> pending.clientId).forEach(pending -> clientIds.add(pending.comment.getId()));
+        List<Pending> repeated = new ArrayList<>();
+        if (clientIds.isEmpty()) {
+            return repeated;
+        }
+
+        // Embedded ids are stored as _id
+        Query stored = new Query(Criteria.where("contentId").is(contentId).and("comments._id").in(clientIds));
+        stored.fields().include("comments._id");
+        Set<String> seen = new HashSet<>();
+        for (CommentBucket bucket : mongoTemplate.find(stored, CommentBucket.class)) {
+            bucket.getComments().forEach(comment -> seen.add(comment.getId()));
+        }
+        for (Iterator<Pending> iterator = accepted.iterator(); iterator.hasNext(); ) {
+            Pending pending = iterator.next();
+            if (pending.clientId && !seen.add(pending.comment.getId())) {
+                repeated.add(pending);
+                iterator.remove();
+            }
+        }
+        return repeated;
+    }
+
+    // Undoes a reservation whose comments did not all reach their buckets. The count can only be
+    // given back while no later group has reserved positions after it; otherwise those positions
+    // stay as a gap. Comments that did reach a bucket are removed, so a retry does not repeat them.
+    private void release(ContentItem reserved, List<Comment> comments) {
+        String contentId = reserved.getId();
+        int first = reserved.getCommentCount() - comments.size();
+        List<String> ids = new ArrayList<>(comments.size());
+        comments.forEach(comment -> ids.add(comment.getId()));
+        // Embedded ids are stored as _id
+        Query group = Query.query(Criteria.where("_id").in(ids));
+        try {
+            mongoTemplate.updateMulti(new Query(Criteria.where("contentId").is(contentId).and("bucket")
+                            .gte(first / CommentService.BUCKET_SIZE)
+                            .lte((reserved.getCommentCount() - 1) / CommentService.BUCKET_SIZE)),
+                    new Update().pull("comments", group), CommentBucket.class);
+
+            Update release = new Update().inc("commentCount", -comments.size()).pull("comments", group);
+            Query stillLast = ContentPartitions.byId(contentId)
+                    .addCriteria(Criteria.where("commentCount").is(reserved.getCommentCount()));
+            ContentItem released = partitions.lookup(contentId, collection ->
+                    mongoTemplate.findAndModify(stillLast, release, RETURN_NEW, ContentItem.class, collection));
+            if (released == null) {
+                partitions.lookup(contentId, collection -> mongoTemplate.findAndModify(
+                        ContentPartitions.byId(contentId), new Update().pull("comments", group), RETURN_NEW,
+                        ContentItem.class, collection));
+                log.warn("Comment positions {}..{} of {} stay unused after a failed bucket write",
+                        first, reserved.getCommentCount() - 1, contentId);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Could not release comment positions of {} after a failed bucket write", contentId, ex);
+        } finally {
+            contentCache.invalidate(reserved);
+        }
+    }
+
+    private void appendToBucket(String contentId, int bucket, List<Comment> comments) {
+        Query query = new Query(Criteria.where("contentId").is(contentId).and("bucket").is(bucket));
+        Update update = new Update().inc("count", comments.size());
+        update.push("comments").each(comments.toArray());
+
+        try {
+            mongoTemplate.upsert(query, update, CommentBucket.class);
+        } catch (DuplicateKeyException ex) {
+            // Another writer created the bucket concurrently; the retry will match it
+            mongoTemplate.upsert(query, update, CommentBucket.class);
+        }
+    }
+
+    // Waiting for the journal is what the grouping pays for; other writes keep the default
+    private static MongoTemplate journaled(MongoTemplate mongoTemplate) {
+        MongoTemplate journaled = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter());
+        journaled.setWriteConcern(WriteConcern.JOURNALED);
+        return journaled;
+    }
+
+    private static ExecutorService writerPool(int writerThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, writerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "comment-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ContentItem await(CompletableFuture<ContentItem> written) {
+        try {
+            return written.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the comment to be written", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Comment write failed", ex.getCause());
+        }
+    }
+
+    private static class Pending {
+        private final Comment comment;
+        // The id came from the client, so the comment may be a retry
+        private final boolean clientId;
+        private final CompletableFuture<ContentItem> written = new CompletableFuture<>();
+
+        private Pending(Comment comment, boolean clientId) {
+            this.comment = comment;
+            this.clientId = clientId;
+        }
+    }
+
+    // Guarded by its own monitor. active: a flush is scheduled, queued or running
+    private static class ItemQueue {
+        private final String contentId;
+        private final Queue<Pending> pending = new ArrayDeque<>();
+        private boolean active;
+        private boolean closed;
+        private ScheduledFuture<?> timer;
+
+        private ItemQueue(String contentId) {
+            this.contentId = contentId;
+        }
+    }
+}
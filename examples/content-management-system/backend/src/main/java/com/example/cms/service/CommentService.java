@@ -0,0 +1,200 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.exception.ContentNotFoundException;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.model.Comment;
+import com.example.cms.model.CommentBucket;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.Reply;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+@Service
+public class CommentService {
+    public static final int BUCKET_SIZE = 100;
+    public static final int PREVIEW_SIZE = 5;
+    // Client-chosen comment ids, e.g. UUIDs
+    private static final Pattern COMMENT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final ContentCache contentCache;
+    private final ContentPartitions partitions;
+    private final CommentGroupWriter groupWriter;
+    private final boolean migrateLegacyData;
+
+    @Autowired
+    public CommentService(MongoTemplate mongoTemplate, UserService userService, ContentCache contentCache,
+                          ContentPartitions partitions, CommentGroupWriter groupWriter,
+                          @Value("${cms.startup.migrate-legacy-data:true}") boolean migrateLegacyData) {
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.contentCache = contentCache;
+        this.partitions = partitions;
+        this.groupWriter = groupWriter;
+        this.migrateLegacyData = migrateLegacyData;
+    }
+
+    // Comments are written in groups per item, see CommentGroupWriter. commentId is optional and
+    // chosen by the client, so that a retried request does not add the comment twice.
+    public ContentItem addComment(String contentId, String userId, String text, String commentId) {
+        if (commentId != null && !COMMENT_ID.matcher(commentId).matches()) {
+            throw new InvalidQueryException("Invalid comment id: " + commentId);
+        }
+        return groupWriter.add(contentId, userId, text, commentId);
+    }
+
+    public ContentItem addReplyToComment(String contentId, String commentId, String userId, String text) {
+        User user = userService.getUserById(userId);
+
+        Reply reply = new Reply();
+        reply.setId(UUID.randomUUID().toString());
+        reply.setUserId(user.getId());
+        reply.setUserName(user.getName());
+        reply.setText(text);
+        reply.setTimestamp(new Date());
+
+        // Embedded ids are stored as _id, and array filters are not mapped against the entity
+        Query bucketQuery = new Query(Criteria.where("contentId").is(contentId).and("comments.id").is(commentId));
+        Update bucketUpdate = new Update()
+                .push("comments.$[comment].replies", reply)
+                .filterArray(Criteria.where("comment._id").is(commentId));
+
+        if (mongoTemplate.updateFirst(bucketQuery, bucketUpdate, CommentBucket.class).getMatchedCount() == 0) {
+            if (partitions.locate(contentId) == null) {
+                throw new ContentNotFoundException("Content not found with id: " + contentId);
+            }
+            throw new ContentNotFoundException("Comment not found with id: " + commentId);
+        }
+
+        // Keep the embedded preview in sync; this is a no-op when the comment is no longer in it
+        Update previewUpdate = new Update()
+                .push("comments.$[comment].replies", reply)
+                .filterArray(Criteria.where("comment._id").is(commentId))
+                .set("updatedAt", new Date());
+
+        ContentItem content = partitions.lookup(contentId, collection ->
+                mongoTemplate.findAndModify(byId(contentId), previewUpdate, RETURN_NEW, ContentItem.class, collection));
+        if (content == null) {
+            throw new ContentNotFoundException("Content not found with id: " + contentId);
+        }
+        contentCache.invalidate(content);
+        return content;
+    }
+
+    public Page<Comment> getComments(String contentId, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
+
+        Query countQuery = byId(contentId);
+        countQuery.fields().include("commentCount");
+        ContentItem content = partitions.lookup(contentId,
+                collection -> mongoTemplate.findOne(countQuery, ContentItem.class, collection));
+        if (content == null) {
+            throw new ContentNotFoundException("Content not found with id: " + contentId);
+        }
+
+        long total = content.getCommentCount();
+        long from = (long) pageNumber * pageSize;
+        if (from >= total) {
+            return new PageImpl<>(Collections.emptyList(), pageRequest, total);
+        }
+        long to = Math.min(from + pageSize, total);
+
+        int firstBucket = (int) (from / BUCKET_SIZE);
+        int lastBucket = (int) ((to - 1) / BUCKET_SIZE);
+        Query bucketQuery = new Query(Criteria.where("contentId").is(contentId)
+                .and("bucket").gte(firstBucket).lte(lastBucket))
+                .with(Sort.by("bucket"));
+
+        // Concurrent groups can append to a bucket out of order, so comments are placed by their
+        // stored position; comments bucketed before positions were stored are in order already
+        List<Comment> comments = new ArrayList<>();
+        for (CommentBucket bucket : mongoTemplate.find(bucketQuery, CommentBucket.class)) {
+            long bucketStart = (long) bucket.getBucket() * BUCKET_SIZE;
+            List<Comment> bucketComments = bucket.getComments();
+            for (int i = 0; i < bucketComments.size(); i++) {
+                Comment comment = bucketComments.get(i);
+                long position = comment.getPosition() != null ? comment.getPosition() : bucketStart + i;
+                if (position >= from && position < to) {
+                    comment.setPosition((int) position);
+                    comments.add(comment);
+                }
+            }
+        }
+        comments.sort(Comparator.comparing(Comment::getPosition));
+
+        return new PageImpl<>(comments, pageRequest, total);
+    }
+
+    public void deleteComments(String contentId) {
+        mongoTemplate.remove(new Query(Criteria.where("contentId").is(contentId)), CommentBucket.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedComments() {
+        if (!migrateLegacyData) {
+            return;
+        }
+        partitions.all().forEach(this::migrateEmbeddedComments);
+    }
+
+    private void migrateEmbeddedComments(String collection) {
+        // Items written before bucketing keep every comment embedded and have no commentCount
+        Query legacyQuery = new Query(Criteria.where("commentCount").exists(false));
+        for (ContentItem content : mongoTemplate.find(legacyQuery, ContentItem.class, collection)) {
+            List<Comment> comments = content.getComments() != null ? content.getComments() : Collections.emptyList();
+
+            deleteComments(content.getId());
+            List<CommentBucket> buckets = new ArrayList<>();
+            for (int start = 0; start < comments.size(); start += BUCKET_SIZE) {
+                List<Comment> slice = new ArrayList<>(comments.subList(start, Math.min(start + BUCKET_SIZE, comments.size())));
+                for (int i = 0; i < slice.size(); i++) {
+                    slice.get(i).setPosition(start + i);
+                }
+                buckets.add(new CommentBucket(null, content.getId(), start / BUCKET_SIZE, slice.size(), slice));
+            }
+            if (!buckets.isEmpty()) {
+                mongoTemplate.insert(buckets, CommentBucket.class);
+            }
+
+            List<Comment> preview = new ArrayList<>(comments.subList(Math.max(0, comments.size() - PREVIEW_SIZE), comments.size()));
+            Update update = new Update()
+                    .set("commentCount", comments.size())
+                    .set("comments", preview);
+            mongoTemplate.updateFirst(byId(content.getId()), update, ContentItem.class, collection);
+            contentCache.invalidate(content);
+        }
+    }
+
+    private Query byId(String contentId) {
+        return ContentPartitions.byId(contentId);
+    }
+}
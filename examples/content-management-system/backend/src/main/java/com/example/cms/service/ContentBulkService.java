@@ -0,0 +1,380 @@
+package com.example.cms.service;
+
+import com.example.cms.analytics.AnalyticsService;
+import com.example.cms.cache.ContentCache;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.model.BulkReport;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.ContentRecord;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import com.example.cms.search.SearchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Loads and dumps content as NDJSON, one ContentRecord per line. Comments are not part of the
+// format; imported items start without comments.
+@Service
+public class ContentBulkService {
+    private static final Logger log = LoggerFactory.getLogger(ContentBulkService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final SearchService searchService;
+    private final ContentCache contentCache;
+    private final ObjectMapper objectMapper;
+    private final AnalyticsService analyticsService;
+    private final SyncService syncService;
+    private final ContentPartitions partitions;
+    private final int batchSize;
+    private final int workers;
+
+    @Autowired
+    public ContentBulkService(MongoTemplate mongoTemplate, SearchService searchService, ContentCache contentCache,
+                              ObjectMapper objectMapper, AnalyticsService analyticsService, SyncService syncService,
+                              ContentPartitions partitions,
+                              @Value("${cms.bulk.batch-size:1000}") int batchSize,
+                              @Value("${cms.bulk.workers:4}") int workers) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchService = searchService;
+        this.contentCache = contentCache;
+        this.objectMapper = objectMapper;
+        this.analyticsService = analyticsService;
+        this.syncService = syncService;
+        this.partitions = partitions;
+        this.batchSize = Math.max(1, batchSize);
+        this.workers = Math.max(1, workers);
+    }
+
+    public BulkReport importContent(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "content-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Bounds how far reading may run ahead of the writers
+        Semaphore inFlight = new Semaphore(workers * 2);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<Line> batch = new ArrayList<>(batchSize);
+            String text;
+            long lineNumber = 0;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                batch.add(new Line(lineNumber, text));
+                if (batch.size() == batchSize) {
+                    submit(pool, inFlight, batch, run);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(pool, inFlight, batch, run);
+            }
+
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Content import interrupted", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Published lists for any type may have changed, and imported items keep their own updatedAt
+        if (run.succeeded.get() > 0) {
+            contentCache.invalidateAll();
+            analyticsService.requestFullRefresh();
+            syncService.requestResync(ContentItem.class);
+        }
+
+        BulkReport report = run.report();
+        log.info("Imported {} of {} content records in {} ms ({} records/s, {} failed)", report.getSucceeded(),
+                report.getProcessed(), report.getDurationMillis(),
+                String.format("%.1f", report.getRecordsPerSecond()), report.getFailed());
+        return report;
+    }
+
+    public BulkReport exportContent(String type, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        long processed = 0;
+        long failed = 0;
+        List<BulkReport.RecordError> errors = new ArrayList<>();
+
+        Query query = new Query();
+        query.fields().exclude("comments");
+        query.cursorBatchSize(batchSize);
+
+        // A type is exactly one partition; a full export reads the partitions one after the other
+        List<String> collections = type != null
+                ? partitions.existingPartition(type).map(List::of).orElse(List.of())
+                : partitions.all();
+
+        OutputStream out = new BufferedOutputStream(output, 64 * 1024);
+        for (String collection : collections) {
+            try (CloseableIterator<ContentItem> contents = mongoTemplate.stream(query, ContentItem.class, collection)) {
+                while (contents.hasNext()) {
+                    ContentItem content = contents.next();
+                    processed++;
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(toRecord(content)));
+                        out.write('\n');
+                    } catch (JsonProcessingException ex) {
+                        failed++;
+                        if (errors.size() < MAX_REPORTED_ERRORS) {
+                            errors.add(new BulkReport.RecordError(processed,
+                                    "Could not serialize content " + content.getId() + ": " + ex.getOriginalMessage()));
+                        }
+                    }
+                }
+            }
+        }
+        out.flush();
+
+        BulkReport report = report(processed, processed - failed, failed, started, errors);
+        log.info("Exported {} content records in {} ms ({} records/s, {} failed)", report.getSucceeded(),
+                report.getDurationMillis(), String.format("%.1f", report.getRecordsPerSecond()), report.getFailed());
+        return report;
+    }
+
+    private void submit(ExecutorService pool, Semaphore inFlight, List<Line> batch, ImportRun run)
+            throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                importBatch(batch, run);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void importBatch(List<Line> batch, ImportRun run) {
+        List<Line> valid = new ArrayList<>(batch.size());
+        List<ContentRecord> records = new ArrayList<>(batch.size());
+        for (Line line : batch) {
+            try {
+                ContentRecord record = objectMapper.readValue(line.text, ContentRecord.class);
+                String problem = validate(record);
+                if (problem != null) {
+                    run.fail(line.number, problem);
+                    continue;
+                }
+                valid.add(line);
+                records.add(record);
+            } catch (JsonProcessingException ex) {
+                run.fail(line.number, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+
+        try {
+            resolveAuthors(records, run);
+        } catch (DataAccessException ex) {
+            for (Line line : valid) {
+                run.fail(line.number, "Author lookup failed: " + ex.getMessage());
+            }
+            return;
+        }
+
+        List<Line> lines = new ArrayList<>(records.size());
+        List<ContentItem> items = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ContentRecord record = records.get(i);
+            Optional<User> author = run.authors.get(record.getAuthorId());
+            if (author == null || author.isEmpty()) {
+                run.fail(valid.get(i).number, "Author not found with id: " + record.getAuthorId());
+                continue;
+            }
+            lines.add(valid.get(i));
+            items.add(toContent(record, author.get()));
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        // One bulk insert per partition the batch touches
+        Map<String, List<Integer>> byType = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            byType.computeIfAbsent(items.get(i).getType(), t -> new ArrayList<>()).add(i);
+        }
+        byType.forEach((type, positions) -> insertBatch(type, positions, lines, items, run));
+    }
+
+    private void insertBatch(String type, List<Integer> positions, List<Line> lines, List<ContentItem> items,
+                             ImportRun run) {
+        List<ContentItem> batch = new ArrayList<>(positions.size());
+        positions.forEach(i -> batch.add(items.get(i)));
+
+        Set<Integer> rejected = new HashSet<>();
+        try {
+            String collection = partitions.partitionFor(type);
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContentItem.class, collection).insert(batch).execute();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                rejected.add(error.getIndex());
+                run.fail(lines.get(positions.get(error.getIndex())).number, error.getMessage());
+            }
+        } catch (DataAccessException ex) {
+            for (int i : positions) {
+                run.fail(lines.get(i).number, "Batch write failed: " + ex.getMessage());
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (!rejected.contains(i)) {
+                searchService.index(batch.get(i));
+                run.succeeded.incrementAndGet();
+            }
+        }
+    }
+
+    private String validate(ContentRecord record) {
+        if (record.getType() == null || record.getType().isBlank()) {
+            return "Missing type";
+        }
+        try {
+            ContentPartitions.collectionName(record.getType());
+        } catch (InvalidQueryException ex) {
+            return ex.getMessage();
+        }
+        if (record.getData() == null) {
+            return "Missing data";
+        }
+        if (record.getAuthorId() == null || record.getAuthorId().isBlank()) {
+            return "Missing authorId";
+        }
+        return null;
+    }
+
+    // One query per batch for the authors not seen yet in this import
+    private void resolveAuthors(List<ContentRecord> records, ImportRun run) {
+        Set<String> missing = new HashSet<>();
+        for (ContentRecord record : records) {
+            if (!run.authors.containsKey(record.getAuthorId())) {
+                missing.add(record.getAuthorId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        for (User user : mongoTemplate.find(new Query(Criteria.where("id").in(missing)), User.class)) {
+            run.authors.put(user.getId(), Optional.of(user));
+            missing.remove(user.getId());
+        }
+        for (String id : missing) {
+            run.authors.putIfAbsent(id, Optional.empty());
+        }
+    }
+
+    private ContentItem toContent(ContentRecord record, User author) {
+        Date now = new Date();
+        ContentItem content = new ContentItem();
+        // Ids are assigned here so the search index can be updated without reading the items back
+        content.setId(record.getId() != null ? record.getId() : new ObjectId().toHexString());
+        content.setType(record.getType());
+        content.setData(record.getData());
+        content.setAuthor(author);
+        content.setPublished(record.isPublished());
+        content.setCreatedAt(record.getCreatedAt() != null ? record.getCreatedAt() : now);
+        content.setUpdatedAt(record.getUpdatedAt() != null ? record.getUpdatedAt() : content.getCreatedAt());
+        content.setComments(new ArrayList<>());
+        content.setCommentCount(0);
+        return content;
+    }
+
+    private ContentRecord toRecord(ContentItem content) {
+        String authorId = content.getAuthor() != null ? content.getAuthor().getId() : null;
+        return new ContentRecord(content.getId(), content.getType(), authorId, content.getData(),
+                content.isPublished(), content.getCreatedAt(), content.getUpdatedAt());
+    }
+
+    private static BulkReport report(long processed, long succeeded, long failed, long started,
+                                     List<BulkReport.RecordError> errors) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        double rate = processed * 1_000_000_000.0 / elapsedNanos;
+        return new BulkReport(processed, succeeded, failed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rate, errors);
+    }
+
+    private static class Line {
+        private final long number;
+        private final String text;
+
+        private Line(long number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    // State shared by the workers of one import
+    private static class ImportRun {
+        private final long started = System.nanoTime();
+        private final Map<String, Optional<User>> authors = new ConcurrentHashMap<>();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<BulkReport.RecordError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new BulkReport.RecordError(line, message));
+                }
+            }
+        }
+
+        private BulkReport report() {
+            List<BulkReport.RecordError> sorted;
+            synchronized (errors) {
+                sorted = new ArrayList<>(errors);
+            }
+            sorted.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+            long ok = succeeded.get();
+            long bad = failed.get();
+            return ContentBulkService.report(ok + bad, ok, bad, started, sorted);
+        }
+    }
+}
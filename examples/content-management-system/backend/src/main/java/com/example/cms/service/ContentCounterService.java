@@ -0,0 +1,268 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.exception.ContentNotFoundException;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// View and like counters kept in data.metadata. Increments are accumulated in memory and written
+// as batched $inc updates, either every flush interval or as soon as max-pending counters have
+// changes. Flushing does not touch updatedAt, so counting does not reorder content lists.
+// Counting does not query: ids are checked when they are flushed, which drops the counts of ids
+// no partition holds. Past max-pending, only ids already counted or known to the route cache are
+// taken without a check, so made-up ids cannot grow the pending map without bound.
+@Service
+public class ContentCounterService {
+    private static final Logger log = LoggerFactory.getLogger(ContentCounterService.class);
+
+    public static final String VIEWS = "viewCount";
+    public static final String LIKES = "likeCount";
+    public static final List<String> FIELDS = Arrays.asList(VIEWS, LIKES);
+
+    private static final String METADATA = "metadata";
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentCache contentCache;
+    private final ContentPartitions partitions;
+    private final int maxPending;
+
+    // Keyed by contentId + ":" + field
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Deltas taken out of pending but not written yet, so reads do not dip during a flush
+    private volatile Map<String, Long> flushing = Collections.emptyMap();
+
+    // Idle counters removed in the previous flush; summed once more to catch late increments
+    private final List<Map.Entry<String, LongAdder>> retired = new ArrayList<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ContentCounterService(MongoTemplate mongoTemplate, ContentCache contentCache, ContentPartitions partitions,
+                                 @Value("${cms.counters.max-pending:10000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentCache = contentCache;
+        this.partitions = partitions;
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    public void increment(String contentId, String field) {
+        if (!FIELDS.contains(field)) {
+            throw new InvalidQueryException("Unknown counter: " + field);
+        }
+        String key = key(contentId, field);
+        if (pending.size() >= maxPending && !pending.containsKey(key)
+                && partitions.knownPartition(contentId) == null && partitions.locate(contentId) == null) {
+            throw new ContentNotFoundException("Content not found with id: " + contentId);
+        }
+        pending.computeIfAbsent(key, k -> new LongAdder()).increment();
+
+        if (pending.size() >= maxPending && flushQueued.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    // Flushed values plus everything still held in memory
+    public Map<String, Long> getCounters(String contentId) {
+        Map<?, ?> metadata = flushedMetadata(contentId);
+        Map<String, Long> counters = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            Object flushed = metadata.get(field);
+            long value = flushed instanceof Number ? ((Number) flushed).longValue() : 0L;
+            counters.put(field, value + unflushed(contentId, field));
+        }
+        return counters;
+    }
+
+    // Returns the item itself when nothing is pending, otherwise a copy with the counters added
+    public ContentItem withPending(ContentItem content) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            long delta = unflushed(content.getId(), field);
+            if (delta != 0) {
+                deltas.put(field, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return content;
+        }
+
+        Map<String, Object> data = content.getData() != null ? new LinkedHashMap<>(content.getData()) : new LinkedHashMap<>();
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        if (data.get(METADATA) instanceof Map) {
+            ((Map<?, ?>) data.get(METADATA)).forEach((key, value) -> metadata.put(String.valueOf(key), value));
+        }
+        deltas.forEach((field, delta) -> {
+            Object flushed = metadata.get(field);
+            metadata.put(field, (flushed instanceof Number ? ((Number) flushed).longValue() : 0L) + delta);
+        });
+        data.put(METADATA, metadata);
+
+        return new ContentItem(content.getId(), content.getType(), data, content.isPublished(), content.getCreatedAt(),
+                content.getUpdatedAt(), content.getAuthor(), content.getComments(), content.getCommentCount(),
+                content.getRevision(), content.getMediaIds());
+    }
+
+    @Scheduled(fixedDelayString = "${cms.counters.flush-interval-millis:1000}")
+    public void flush() {
+        // A flush already running will pick up these increments on the next round
+        if (flushLock.tryLock()) {
+            try {
+                writePending();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writePending() {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : retired) {
+            addDelta(deltas, entry.getKey(), entry.getValue().sumThenReset());
+        }
+        retired.clear();
+
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                addDelta(deltas, entry.getKey(), delta);
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                retired.add(entry);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        flushing = deltas;
+        try {
+            Map<String, Update> updates = new LinkedHashMap<>();
+            deltas.forEach((key, delta) -> updates
+                    .computeIfAbsent(contentId(key), id -> new Update())
+                    .inc("data." + METADATA + "." + field(key), delta));
+
+            // One bulk write per partition; content deleted since it was counted has none
+            Map<String, String> located = partitions.locateAll(updates.keySet());
+            Map<String, Map<String, Update>> byPartition = new LinkedHashMap<>();
+            updates.forEach((contentId, update) -> {
+                String collection = located.get(contentId);
+                if (collection == null) {
+                    log.warn("Dropped counter update for unknown or deleted content {}", contentId);
+                } else {
+                    byPartition.computeIfAbsent(collection, c -> new LinkedHashMap<>()).put(contentId, update);
+                }
+            });
+            byPartition.forEach(this::writeUpdates);
+
+            updates.keySet().forEach(contentId -> contentCache.invalidate(contentId, null));
+            // Published pages that include data show the counters
+            byPartition.keySet().forEach(collection -> contentCache.invalidatePublished(ContentPartitions.typeOf(collection)));
+        } catch (DataAccessException ex) {
+            // Keep the increments for the next flush rather than losing them
+            log.error("Could not flush {} counters, retrying on the next flush: {}", deltas.size(), ex.getMessage());
+            deltas.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(delta));
+        } finally {
+            flushing = Collections.emptyMap();
+        }
+    }
+
+    private void writeUpdates(String collection, Map<String, Update> updates) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContentItem.class, collection);
+        updates.forEach((contentId, update) -> operations.updateOne(ContentPartitions.byId(contentId), update));
+        try {
+            operations.execute();
+        } catch (BulkOperationException ex) {
+            // Rejected updates, e.g. metadata that is not a document, would fail again; drop them
+            List<String> contentIds = new ArrayList<>(updates.keySet());
+            for (BulkWriteError error : ex.getErrors()) {
+                log.warn("Dropped counter update for content {}: {}", contentIds.get(error.getIndex()), error.getMessage());
+            }
+        }
+    }
+
+    private Map<?, ?> flushedMetadata(String contentId) {
+        ContentItem content = contentCache.peek(ContentCache.contentKey(contentId));
+        if (content == null) {
+            Query query = ContentPartitions.byId(contentId);
+            FIELDS.forEach(field -> query.fields().include("data." + METADATA + "." + field));
+            content = partitions.lookup(contentId, collection -> mongoTemplate.findOne(query, ContentItem.class, collection));
+            if (content == null) {
+                throw new ContentNotFoundException("Content not found with id: " + contentId);
+            }
+        }
+        Object metadata = content.getData() != null ? content.getData().get(METADATA) : null;
+        return metadata instanceof Map ? (Map<?, ?>) metadata : Collections.emptyMap();
+    }
+
+    private long unflushed(String contentId, String field) {
+        String key = key(contentId, field);
+        LongAdder adder = pending.get(key);
+        return (adder != null ? adder.sum() : 0L) + flushing.getOrDefault(key, 0L);
+    }
+
+    private static void addDelta(Map<String, Long> deltas, String key, long delta) {
+        if (delta != 0) {
+            deltas.merge(key, delta, Long::sum);
+        }
+    }
+
+    private static String key(String contentId, String field) {
+        return contentId + ":" + field;
+    }
+
+    private static String contentId(String key) {
+        return key.substring(0, key.lastIndexOf(':'));
+    }
+
+    private static String field(String key) {
+        return key.substring(key.lastIndexOf(':') + 1);
+    }
+}
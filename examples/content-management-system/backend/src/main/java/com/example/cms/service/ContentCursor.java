@@ -0,0 +1,44 @@
+package com.example.cms.service;
+
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.model.ContentItem;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+// Position in a list ordered by (updatedAt desc, id desc), encoded as an opaque token
+public final class ContentCursor {
+    private final Date updatedAt;
+    private final String id;
+
+    private ContentCursor(Date updatedAt, String id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    public static String encode(ContentItem content) {
+        String raw = content.getUpdatedAt().getTime() + ":" + content.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ContentCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new ContentCursor(new Date(Long.parseLong(raw.substring(0, separator))), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new InvalidQueryException("Invalid cursor: " + token);
+        }
+    }
+
+    public Criteria after() {
+        // Range operators on the id are not converted to ObjectId by the query mapper
+        Object idValue = ObjectId.isValid(id) ? new ObjectId(id) : id;
+        return new Criteria().orOperator(
+                Criteria.where("updatedAt").lt(updatedAt),
+                Criteria.where("updatedAt").is(updatedAt).and("id").lt(idValue));
+    }
+}
@@ -1,55 +1,146 @@
 package com.example.cms.service;
 
+import com.example.cms.analytics.AnalyticsService;
+import com.example.cms.cache.ContentCache;
+import com.example.cms.codec.ContentDocumentReader;
 import com.example.cms.exception.ContentNotFoundException;
-import com.example.cms.model.Comment;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.media.MediaStore;
+import com.example.cms.model.ChangeSet;
 import com.example.cms.model.ContentItem;
-import com.example.cms.model.Reply;
+import com.example.cms.model.ContentPage;
+import com.example.cms.model.MediaAsset;
+import com.example.cms.model.PatchOperation;
 import com.example.cms.model.User;
-import com.example.cms.repository.ContentRepository;
+import com.example.cms.partition.ContentPartitions;
+import com.example.cms.revision.JsonPatch;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.search.SearchService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 @Service
 public class ContentService {
-    private final ContentRepository contentRepository;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    private static final List<String> SUMMARY_FIELDS = Arrays.asList(
+            "type", "data.title", "data.name", "published", "commentCount");
+    private static final Set<String> PROJECTABLE_FIELDS = new HashSet<>(Arrays.asList(
+            "type", "data", "published", "createdAt", "updatedAt", "author", "comments", "commentCount", "mediaIds"));
+    private static final Pattern METADATA_KEY = Pattern.compile("[A-Za-z_][A-Za-z0-9_-]*(\\.[A-Za-z_][A-Za-z0-9_-]*)*");
+
     private final UserService userService;
+    private final CommentService commentService;
+    private final SearchService searchService;
+    private final ContentCache contentCache;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ContentDocumentReader contentDocumentReader;
+    private final ContentCounterService contentCounterService;
+    private final RevisionService revisionService;
+    private final AnalyticsService analyticsService;
+    private final MediaStore mediaStore;
+    private final SyncService syncService;
+    private final ContentPartitions partitions;
 
     @Autowired
-    public ContentService(ContentRepository contentRepository, UserService userService) {
-        this.contentRepository = contentRepository;
+    public ContentService(UserService userService, CommentService commentService,
+                          SearchService searchService, ContentCache contentCache, MongoTemplate mongoTemplate,
+                          ObjectMapper objectMapper, ContentDocumentReader contentDocumentReader,
+                          ContentCounterService contentCounterService, RevisionService revisionService,
+                          AnalyticsService analyticsService, MediaStore mediaStore,
+                          SyncService syncService, ContentPartitions partitions) {
         this.userService = userService;
+        this.commentService = commentService;
+        this.searchService = searchService;
+        this.contentCache = contentCache;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.contentDocumentReader = contentDocumentReader;
+        this.contentCounterService = contentCounterService;
+        this.revisionService = revisionService;
+        this.analyticsService = analyticsService;
+        this.mediaStore = mediaStore;
+        this.syncService = syncService;
+        this.partitions = partitions;
     }
 
-    public List<ContentItem> getAllContent() {
-        return contentRepository.findAll();
+    public ContentPage getAllContent(String cursor, int limit, List<String> fields) {
+        return findPage(partitions.all(), null, cursor, limit, fields);
     }
 
     public ContentItem getContentById(String id) {
-        return contentRepository.findById(id)
-                .orElseThrow(() -> new ContentNotFoundException("Content not found with id: " + id));
+        // Decoded with the typed per-type codecs; this is the hot read path
+        ContentItem content = contentCache.get(ContentCache.contentKey(id), () -> contentDocumentReader.findById(id)
+                .orElseThrow(() -> new ContentNotFoundException("Content not found with id: " + id)));
+        return contentCounterService.withPending(content);
+    }
+
+    // Cheap lookup of updatedAt for conditional requests; avoids loading and decoding the document
+    public Date getContentVersion(String id) {
+        ContentItem cached = contentCache.peek(ContentCache.contentKey(id));
+        if (cached != null) {
+            return cached.getUpdatedAt();
+        }
+
+        Query query = ContentPartitions.byId(id);
+        query.fields().include("updatedAt");
+        ContentItem content = partitions.lookup(id,
+                collection -> mongoTemplate.findOne(query, ContentItem.class, collection));
+        if (content == null) {
+            throw new ContentNotFoundException("Content not found with id: " + id);
+        }
+        return content.getUpdatedAt();
     }
 
-    public List<ContentItem> getContentByType(String type) {
-        return contentRepository.findByType(type);
+    public ContentPage getContentByType(String type, String cursor, int limit, List<String> fields) {
+        return findPage(partitionOf(type), null, cursor, limit, fields);
     }
 
-    public List<ContentItem> getPublishedContentByType(String type) {
-        return contentRepository.findByTypeAndPublishedTrue(type);
+    public ContentPage getPublishedContentByType(String type, String cursor, int limit, List<String> fields) {
+        String key = ContentCache.publishedKey(type, String.valueOf(cursor), String.valueOf(limit), String.valueOf(fields));
+        return contentCache.get(key, () ->
+                findPage(partitionOf(type), Criteria.where("published").is(true), cursor, limit, fields));
     }
 
-    public List<ContentItem> getContentByTag(String tag) {
-        return contentRepository.findByDataTagsContaining(tag);
+    public ContentPage getContentByTag(String tag, String cursor, int limit, List<String> fields) {
+        return findPage(partitions.all(), Criteria.where("data.tags").is(tag), cursor, limit, fields);
     }
-    
-    public List<ContentItem> searchContentByTitle(String title) {
-        return contentRepository.findByTitleContainingIgnoreCase(title);
+
+    // Same item shapes as the list endpoints: summaries, or the requested fields
+    public ChangeSet<Map<String, Object>> getChanges(String since, int limit, List<String> fields) {
+        boolean summary = fields == null || fields.isEmpty();
+        Query query = new Query();
+        includeFields(query, fields);
+        return syncService.changes(ContentItem.class, query, since, limit, ContentItem::getId, ContentItem::getUpdatedAt,
+                content -> summary ? toSummary(content) : toProjection(content, fields),
+                changesQuery -> partitions.gather(partitions.all(),
+                        collection -> mongoTemplate.find(changesQuery, ContentItem.class, collection),
+                        ContentPartitions.NEWEST_FIRST.reversed(), changesQuery.getLimit()));
     }
 
     public ContentItem createContent(String type, Map<String, Object> data, String authorId) {
@@ -63,100 +154,199 @@ public class ContentService {
         content.setUpdatedAt(new Date());
         content.setPublished(false);
         content.setComments(new ArrayList<>());
+        content.setCommentCount(0);
         
-        return contentRepository.save(content);
+        String collection = partitions.partitionFor(type);
+        ContentItem saved = mongoTemplate.insert(content, collection);
+        partitions.remember(saved.getId(), collection);
+        searchService.index(saved);
+        analyticsService.markChanged(type, tags(data));
+        return saved;
     }
 
     public ContentItem updateContent(String id, Map<String, Object> data) {
-        ContentItem content = getContentById(id);
-        
-        content.setData(data);
-        content.setUpdatedAt(new Date());
-        
-        return contentRepository.save(content);
+        return reviseContent(id, new Update().set("data", data), previous -> data);
     }
 
     public ContentItem publishContent(String id, boolean published) {
+        Update update = new Update()
+                .set("published", published)
+                .set("updatedAt", new Date());
+
+        ContentItem content = modifyContent(id, update);
+        analyticsService.markChanged(content.getType(), null);
+        return content;
+    }
+
+    public ContentItem addMetadata(String contentId, String key, Object value) {
+        // The key becomes part of an update path; operators, empty segments and array positions are not keys
+        if (key == null || !METADATA_KEY.matcher(key).matches()) {
+            throw new InvalidQueryException("Invalid metadata key: " + key);
+        }
+        PatchOperation set = new PatchOperation(PatchOperation.SET, Arrays.asList(key.split("\\.")), value);
+        return reviseContent(contentId, new Update().set("data." + key, value),
+                previous -> JsonPatch.apply(previous, Collections.singletonList(set)));
+    }
+
+    public List<MediaAsset> getMedia(String id) {
+        return mediaStore.getAssets(getContentById(id).getMediaIds());
+    }
+
+    public ContentItem attachMedia(String id, String mediaId) {
+        mediaStore.getAsset(mediaId);
+        Update update = new Update()
+                .addToSet("mediaIds", mediaId)
+                .set("updatedAt", new Date());
+        return modifyContent(id, update);
+    }
+
+    // The file stays in the media store; other items may use the same bytes
+    public ContentItem detachMedia(String id, String mediaId) {
+        Update update = new Update()
+                .pull("mediaIds", mediaId)
+                .set("updatedAt", new Date());
+        return modifyContent(id, update);
+    }
+
+    public void deleteContent(String id) {
         ContentItem content = getContentById(id);
-        
-        content.setPublished(published);
-        content.setUpdatedAt(new Date());
-        
-        return contentRepository.save(content);
+        partitions.lookup(id, collection ->
+                mongoTemplate.remove(ContentPartitions.byId(id), collection).getDeletedCount() > 0 ? collection : null);
+        partitions.forget(id);
+        syncService.recordDeletion(ContentItem.class, id);
+        contentCache.invalidate(content);
+        analyticsService.markChanged(content.getType(), tags(content.getData()));
+        analyticsService.markCommentsRemoved(id);
+        commentService.deleteComments(id);
+        revisionService.deleteRevisions(id);
+        searchService.remove(id);
     }
 
-    public ContentItem addComment(String contentId, String userId, String text) {
-        ContentItem content = getContentById(contentId);
-        User user = userService.getUserById(userId);
-        
-        Comment comment = new Comment();
-        comment.setId(UUID.randomUUID().toString());
-        comment.setUserId(user.getId());
-        comment.setUserName(user.getName());
-        comment.setText(text);
-        comment.setTimestamp(new Date());
-        comment.setReplies(new ArrayList<>());
-        
-        if (content.getComments() == null) {
-            content.setComments(new ArrayList<>());
+    // Applies a change to data and records it as a revision. findAndModify returns the item as it
+    // was before, which the revision is diffed against; change derives the new data from it.
+    private ContentItem reviseContent(String id, Update update, UnaryOperator<Map<String, Object>> change) {
+        Date now = new Date();
+        update.set("updatedAt", now).inc("revision", 1);
+
+        ContentItem content = partitions.lookup(id, collection ->
+                mongoTemplate.findAndModify(ContentPartitions.byId(id), update, ContentItem.class, collection));
+        if (content == null) {
+            throw new ContentNotFoundException("Content not found with id: " + id);
         }
-        
-        content.getComments().add(comment);
-        content.setUpdatedAt(new Date());
-        
-        return contentRepository.save(content);
+        contentCache.invalidate(content);
+
+        Map<String, Object> data = change.apply(content.getData());
+        revisionService.record(content, data, now);
+
+        // Tags may have been added and removed
+        List<Object> tags = new ArrayList<>(tags(content.getData()));
+        tags.addAll(tags(data));
+        analyticsService.markChanged(content.getType(), tags);
+
+        content.setData(data);
+        content.setUpdatedAt(now);
+        content.setRevision(content.getRevision() + 1);
+        searchService.index(content);
+        return content;
     }
 
-    public ContentItem addReplyToComment(String contentId, String commentId, String userId, String text) {
-        ContentItem content = getContentById(contentId);
-        User user = userService.getUserById(userId);
-        
-        boolean commentFound = false;
-        for (Comment comment : content.getComments()) {
-            if (comment.getId().equals(commentId)) {
-                Reply reply = new Reply();
-                reply.setId(UUID.randomUUID().toString());
-                reply.setUserId(user.getId());
-                reply.setUserName(user.getName());
-                reply.setText(text);
-                reply.setTimestamp(new Date());
-                
-                if (comment.getReplies() == null) {
-                    comment.setReplies(new ArrayList<>());
+    private static Collection<?> tags(Map<String, Object> data) {
+        Object tags = data != null ? data.get("tags") : null;
+        return tags instanceof Collection ? (Collection<?>) tags : Collections.emptyList();
+    }
+
+    private ContentItem modifyContent(String id, Update update) {
+        ContentItem content = partitions.lookup(id, collection ->
+                mongoTemplate.findAndModify(ContentPartitions.byId(id), update, RETURN_NEW, ContentItem.class, collection));
+        if (content == null) {
+            throw new ContentNotFoundException("Content not found with id: " + id);
+        }
+        contentCache.invalidate(content);
+        return content;
+    }
+
+    // Types that were never written have no partition and no content
+    private List<String> partitionOf(String type) {
+        return partitions.existingPartition(type).map(Collections::singletonList).orElse(Collections.emptyList());
+    }
+
+    // Every partition returns its own first page; merged, their newest items are the page
+    private ContentPage findPage(List<String> collections, Criteria filter, String cursor, int limit, List<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean summary = fields == null || fields.isEmpty();
+
+        Query query = new Query();
+        if (filter != null) {
+            query.addCriteria(cursor == null ? filter : new Criteria().andOperator(filter, ContentCursor.decode(cursor).after()));
+        } else if (cursor != null) {
+            query.addCriteria(ContentCursor.decode(cursor).after());
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "updatedAt", "id")).limit(pageSize + 1);
+
+        // updatedAt is always needed to build the next cursor
+        includeFields(query, fields);
+
+        List<ContentItem> contents = partitions.gather(collections,
+                collection -> mongoTemplate.find(query, ContentItem.class, collection), ContentPartitions.NEWEST_FIRST,
+                pageSize + 1);
+        String nextCursor = null;
+        if (contents.size() > pageSize) {
+            contents = contents.subList(0, pageSize);
+            nextCursor = ContentCursor.encode(contents.get(pageSize - 1));
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(contents.size());
+        StringBuilder version = new StringBuilder();
+        for (ContentItem content : contents) {
+            items.add(summary ? toSummary(content) : toProjection(content, fields));
+            version.append(content.getId()).append(':').append(content.getUpdatedAt().getTime());
+            // Counter flushes leave updatedAt alone, so counters in the page are versioned on their own
+            Object metadata = content.getData() != null ? content.getData().get("metadata") : null;
+            if (metadata instanceof Map) {
+                for (String counter : ContentCounterService.FIELDS) {
+                    version.append(':').append(((Map<?, ?>) metadata).get(counter));
                 }
-                
-                comment.getReplies().add(reply);
-                commentFound = true;
-                break;
             }
+            version.append(';');
         }
-        
-        if (!commentFound) {
-            throw new ContentNotFoundException("Comment not found with id: " + commentId);
-        }
-        
-        content.setUpdatedAt(new Date());
-        
-        return contentRepository.save(content);
+        String pageVersion = DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8));
+        return new ContentPage(items, nextCursor, pageVersion);
     }
 
-    public ContentItem addMetadata(String contentId, String key, Object value) {
-        ContentItem content = getContentById(contentId);
-        
-        Map<String, Object> data = content.getData();
-        if (data == null) {
-            data = new HashMap<>();
+    private void includeFields(Query query, List<String> fields) {
+        query.fields().include("updatedAt");
+        for (String field : fields == null || fields.isEmpty() ? SUMMARY_FIELDS : fields) {
+            String root = field.contains(".") ? field.substring(0, field.indexOf('.')) : field;
+            if (!PROJECTABLE_FIELDS.contains(root)) {
+                throw new InvalidQueryException("Unknown field: " + field);
+            }
+            query.fields().include(field);
         }
-        
-        data.put(key, value);
-        content.setData(data);
-        content.setUpdatedAt(new Date());
-        
-        return contentRepository.save(content);
     }
 
-    public void deleteContent(String id) {
-        ContentItem content = getContentById(id);
-        contentRepository.delete(content);
+    private Map<String, Object> toSummary(ContentItem content) {
+        Map<String, Object> data = content.getData() != null ? content.getData() : Collections.emptyMap();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", content.getId());
+        summary.put("type", content.getType());
+        // Articles carry a title, products a name
+        summary.put("title", data.containsKey("title") ? data.get("title") : data.get("name"));
+        summary.put("published", content.isPublished());
+        summary.put("updatedAt", content.getUpdatedAt());
+        summary.put("commentCount", content.getCommentCount());
+        return summary;
+    }
+
+    private Map<String, Object> toProjection(ContentItem content, List<String> fields) {
+        Map<String, Object> full = objectMapper.convertValue(content, new TypeReference<Map<String, Object>>() {});
+
+        Map<String, Object> projection = new LinkedHashMap<>();
+        projection.put("id", content.getId());
+        for (String field : fields) {
+            String root = field.contains(".") ? field.substring(0, field.indexOf('.')) : field;
+            projection.put(root, full.get(root));
+        }
+        return projection;
     }
 }
@@ -0,0 +1,57 @@
+package com.example.cms.service;
+
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@Service
+public class ContentStreamService {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ContentPartitions partitions;
+    private final int batchSize;
+
+    @Autowired
+    public ContentStreamService(ReactiveMongoTemplate reactiveMongoTemplate, ContentPartitions partitions,
+                                @Value("${cms.stream.batch-size:100}") int batchSize) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+    }
+
+    // Documents are pulled from the cursor as the subscriber requests them, at most one batch ahead.
+    // Without a type every partition has a cursor open and their sorted streams are merged.
+    public Flux<ContentItem> streamContent(String type, String tag, Boolean published, Integer requestedBatchSize) {
+        Query query = new Query();
+        if (tag != null) {
+            query.addCriteria(Criteria.where("data.tags").is(tag));
+        }
+        if (published != null) {
+            query.addCriteria(Criteria.where("published").is(published));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "updatedAt", "id"));
+        query.cursorBatchSize(requestedBatchSize != null ? Math.max(1, Math.min(requestedBatchSize, MAX_BATCH_SIZE)) : batchSize);
+
+        List<String> collections = type != null
+                ? partitions.existingPartition(type).map(List::of).orElse(List.of())
+                : partitions.all();
+        if (collections.size() == 1) {
+            return reactiveMongoTemplate.find(query, ContentItem.class, collections.get(0));
+        }
+        @SuppressWarnings("unchecked")
+        Flux<ContentItem>[] sorted = collections.stream()
+                .map(collection -> reactiveMongoTemplate.find(query, ContentItem.class, collection))
+                .toArray(Flux[]::new);
+        return Flux.mergeComparing(ContentPartitions.NEWEST_FIRST, sorted);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.cms.service;
+
+import com.example.cms.exception.SyncExpiredException;
+import com.example.cms.model.ChangeSet;
+import com.example.cms.model.SyncReset;
+import com.example.cms.model.Tombstone;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Delta sync over a collection: documents with a newer (updatedAt, id) than the token, merged
+// with the tombstones of deletes in the same order. updatedAt is set by the application before
+// the write commits, so a write can become visible after a later one; once a client has caught
+// up, its token is held back by the settle time, and the few changes re-sent are harmless
+// because applying a change twice gives the same copy.
+@Service
+public class SyncService {
+    public static final int MAX_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final long settleMillis;
+    private final long retentionMillis;
+
+    @Autowired
+    public SyncService(MongoTemplate mongoTemplate,
+                       @Value("${cms.sync.settle-millis:5000}") long settleMillis,
+                       @Value("${cms.sync.tombstone-retention-days:30}") long retentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.settleMillis = settleMillis;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+    }
+
+    public void recordDeletion(Class<?> entityClass, String id) {
+        mongoTemplate.insert(new Tombstone(null, mongoTemplate.getCollectionName(entityClass), id, new Date()));
+    }
+
+    // For writes that bypass updatedAt; every token issued before now has to start over
+    public void requestResync(Class<?> entityClass) {
+        mongoTemplate.save(new SyncReset(mongoTemplate.getCollectionName(entityClass), new Date()));
+    }
+
+    // query selects the fields to load; view turns a loaded document into what the client keeps
+    public <T, R> ChangeSet<R> changes(Class<T> entityClass, Query query, String since, int limit,
+                                       Function<T, String> id, Function<T, Date> updatedAt, Function<T, R> view) {
+        return changes(entityClass, query, since, limit, id, updatedAt, view,
+                changesQuery -> mongoTemplate.find(changesQuery, entityClass));
+    }
+
+    // For entities stored across several collections: find runs the sorted, limited query on all of
+    // them and returns the merged results in the same order. Deletes are still recorded under the
+    // entity's collection name.
+    public <T, R> ChangeSet<R> changes(Class<T> entityClass, Query query, String since, int limit,
+                                       Function<T, String> id, Function<T, Date> updatedAt, Function<T, R> view,
+                                       Function<Query, List<T>> find) {
+        int batch = Math.max(1, Math.min(limit, MAX_BATCH));
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        long now = System.currentTimeMillis();
+        SyncToken token = since != null ? SyncToken.decode(since) : null;
+        if (token != null) {
+            checkNotExpired(collection, token, now);
+            query.addCriteria(token.after("updatedAt", "id"));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "updatedAt", "id")).limit(batch + 1);
+        List<T> items = find.apply(query);
+
+        // A client starting from scratch has nothing to delete
+        List<Tombstone> tombstones = Collections.emptyList();
+        if (token != null) {
+            Query deletes = new Query(new Criteria().andOperator(
+                    Criteria.where("collection").is(collection), token.after("deletedAt", "documentId")))
+                    .with(Sort.by(Sort.Direction.ASC, "deletedAt", "documentId")).limit(batch + 1);
+            tombstones = mongoTemplate.find(deletes, Tombstone.class);
+        }
+
+        List<R> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        SyncToken last = token;
+        int nextItem = 0;
+        int nextTombstone = 0;
+        while (changed.size() + deleted.size() < batch
+                && (nextItem < items.size() || nextTombstone < tombstones.size())) {
+            SyncToken itemPosition = nextItem < items.size()
+                    ? new SyncToken(updatedAt.apply(items.get(nextItem)), id.apply(items.get(nextItem)), now) : null;
+            SyncToken tombstonePosition = nextTombstone < tombstones.size()
+                    ? new SyncToken(tombstones.get(nextTombstone).getDeletedAt(),
+                    tombstones.get(nextTombstone).getDocumentId(), now) : null;
+
+            if (tombstonePosition == null
+                    || itemPosition != null && SyncToken.ORDER.compare(itemPosition, tombstonePosition) <= 0) {
+                changed.add(view.apply(items.get(nextItem++)));
+                last = itemPosition;
+            } else {
+                deleted.add(tombstones.get(nextTombstone++).getDocumentId());
+                last = tombstonePosition;
+            }
+        }
+
+        // Each list was read one past the batch, so anything left over means there is more
+        boolean hasMore = nextItem < items.size() || nextTombstone < tombstones.size();
+        SyncToken next = last != null ? last.issuedAt(now) : null;
+        if (!hasMore) {
+            // Everything up to the settle point has been sent, so the token moves up to it when the
+            // last change is older, and a newer last change is held back to it for late-visible writes
+            next = new SyncToken(new Date(now - settleMillis), null, now);
+        }
+        return new ChangeSet<>(changed, deleted, next.encode(), hasMore);
+    }
+
+    // Tombstones are kept for the retention from their delete, and a token has seen every delete
+    // up to when it was issued, so its age is the time since issue, not the time of its position
+    private void checkNotExpired(String collection, SyncToken token, long now) {
+        if (token.getIssuedAt() < now - retentionMillis) {
+            throw new SyncExpiredException("Sync token is older than the tombstone retention; sync again without since");
+        }
+        SyncReset reset = mongoTemplate.findById(collection, SyncReset.class);
+        if (reset != null && token.getIssuedAt() < reset.getResetAt().getTime()) {
+            throw new SyncExpiredException("The " + collection + " collection was reloaded; sync again without since");
+        }
+    }
+}
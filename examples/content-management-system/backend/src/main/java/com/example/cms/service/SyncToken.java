@@ -0,0 +1,70 @@
+package com.example.cms.service;
+
+import com.example.cms.exception.InvalidQueryException;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+
+// Position in a change feed ordered by (updatedAt, id) ascending, plus the time the token was
+// issued, encoded as an opaque token. A position without an id lies before every id at its time.
+public final class SyncToken {
+    static final Comparator<SyncToken> ORDER = Comparator.comparingLong((SyncToken token) -> token.time)
+            .thenComparing(token -> token.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final long time;
+    private final String id;
+    private final long issuedAt;
+
+    SyncToken(Date time, String id, long issuedAt) {
+        // Documents written before updatedAt was tracked sort first
+        this.time = time != null ? time.getTime() : 0L;
+        this.id = id;
+        this.issuedAt = issuedAt;
+    }
+
+    public String encode() {
+        String raw = time + ":" + issuedAt + ":" + (id != null ? id : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(':');
+            int second = raw.indexOf(':', first + 1);
+            String id = raw.substring(second + 1);
+            return new SyncToken(new Date(Long.parseLong(raw.substring(0, first))), id.isEmpty() ? null : id,
+                    Long.parseLong(raw.substring(first + 1, second)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new InvalidQueryException("Invalid sync token: " + token);
+        }
+    }
+
+    public Date getTime() {
+        return new Date(time);
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    SyncToken issuedAt(long issuedAt) {
+        return new SyncToken(new Date(time), id, issuedAt);
+    }
+
+    public Criteria after(String timeField, String idField) {
+        Date at = new Date(time);
+        if (id == null) {
+            return Criteria.where(timeField).gte(at);
+        }
+        // Range operators on the id are not converted to ObjectId by the query mapper
+        Object idValue = idField.equals("id") && ObjectId.isValid(id) ? new ObjectId(id) : id;
+        return new Criteria().orOperator(
+                Criteria.where(timeField).gt(at),
+                Criteria.where(timeField).is(at).and(idField).gt(idValue));
+    }
+}
@@ -1,26 +1,43 @@
 package com.example.cms.service;
 
 import com.example.cms.exception.UserNotFoundException;
+import com.example.cms.model.ChangeSet;
 import com.example.cms.model.User;
 import com.example.cms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final AuthorPropagationService authorPropagationService;
+    private final MongoTemplate mongoTemplate;
+    private final SyncService syncService;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, AuthorPropagationService authorPropagationService,
+                       MongoTemplate mongoTemplate, SyncService syncService) {
         this.userRepository = userRepository;
+        this.authorPropagationService = authorPropagationService;
+        this.mongoTemplate = mongoTemplate;
+        this.syncService = syncService;
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    public ChangeSet<User> getChanges(String since, int limit) {
+        return syncService.changes(User.class, new Query(), since, limit, User::getId, User::getUpdatedAt, user -> user);
+    }
+
     public User getUserById(String id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
@@ -31,22 +48,44 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
     }
 
+    // Cheap lookup of updatedAt for conditional requests
+    public Date getUserVersion(String id) {
+        Query query = new Query(Criteria.where("id").is(id));
+        query.fields().include("updatedAt");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            throw new UserNotFoundException("User not found with id: " + id);
+        }
+        return user.getUpdatedAt();
+    }
+
     public User createUser(User user) {
+        user.setUpdatedAt(new Date());
         return userRepository.save(user);
     }
 
     public User updateUser(String id, User userDetails) {
         User user = getUserById(id);
+        boolean authorChanged = !Objects.equals(user.getName(), userDetails.getName())
+                || !Objects.equals(user.getEmail(), userDetails.getEmail())
+                || !Objects.equals(user.getRole(), userDetails.getRole());
         
         user.setName(userDetails.getName());
         user.setEmail(userDetails.getEmail());
         user.setRole(userDetails.getRole());
+        user.setUpdatedAt(new Date());
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (authorChanged) {
+            // Content and comments embed copies of the user; refresh them in the background
+            authorPropagationService.schedule(saved);
+        }
+        return saved;
     }
 
     public void deleteUser(String id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        syncService.recordDeletion(User.class, id);
     }
 }
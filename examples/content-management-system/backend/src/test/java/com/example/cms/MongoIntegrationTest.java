@@ -0,0 +1,30 @@
+package com.example.cms;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Runs the application against a throwaway MongoDB; skipped where Docker is not available.
+// The container is shared by all subclasses, so tests clean up what they rely on.
+@SpringBootTest(properties = "cms.startup.migrate-legacy-data=false")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MongoIntegrationTest {
+    protected static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    static {
+        // Once per test JVM, by the first test class that runs
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            MONGO.start();
+        }
+    }
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        // host and port, not a uri: application.properties sets them, and Boot rejects both together
+        registry.add("spring.data.mongodb.host", MONGO::getHost);
+        registry.add("spring.data.mongodb.port", () -> MONGO.getMappedPort(27017));
+    }
+}
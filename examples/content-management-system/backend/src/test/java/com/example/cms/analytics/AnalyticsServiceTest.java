@@ -0,0 +1,67 @@
+package com.example.cms.analytics;
+
+import com.example.cms.model.AnalyticsWatermark;
+import com.example.cms.model.TypeCount;
+import com.example.cms.partition.ContentPartitions;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsServiceTest {
+    private static final String ARTICLES = "content.article";
+
+    private MongoTemplate mongoTemplate;
+    private AnalyticsService analytics;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        ContentPartitions partitions = mock(ContentPartitions.class);
+        when(partitions.all()).thenReturn(List.of(ARTICLES));
+        when(partitions.existingPartition("article")).thenReturn(Optional.of(ARTICLES));
+        when(mongoTemplate.getCollectionName(any())).thenReturn("summary");
+        when(mongoTemplate.findById("content", AnalyticsWatermark.class))
+                .thenReturn(new AnalyticsWatermark("content", new Date(), new Date(), 1, true));
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        analytics = new AnalyticsService(mongoTemplate, partitions, 5000, 60000, 60000);
+    }
+
+    // A changed type is two index counts on its partition, never a regroup of its documents
+    @Test
+    void changedTypeIsCountedNotAggregated() {
+        when(mongoTemplate.count(new Query(Criteria.where("published").is(true)), ARTICLES)).thenReturn(3L);
+        when(mongoTemplate.count(new Query(Criteria.where("published").is(false)), ARTICLES)).thenReturn(2L);
+
+        analytics.markChanged("article", null);
+        analytics.refresh();
+        analytics.shutdown();
+
+        ArgumentCaptor<Object> saved = ArgumentCaptor.forClass(Object.class);
+        verify(mongoTemplate, atLeastOnce()).save(saved.capture());
+        assertThat(saved.getAllValues()).filteredOn(TypeCount.class::isInstance)
+                .singleElement().usingRecursiveComparison().ignoringFields("refreshedAt")
+                .isEqualTo(new TypeCount("article", 5, 3, null));
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(ARTICLES), eq(Document.class));
+    }
+}
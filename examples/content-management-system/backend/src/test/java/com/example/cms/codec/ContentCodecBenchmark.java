@@ -0,0 +1,157 @@
+package com.example.cms.codec;
+
+import com.example.cms.model.ContentItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cost per document of the typed read path (ContentItemCodec and the per-type data classes)
+// against the generic one it replaced (Document, then MappingMongoConverter into nested maps),
+// each decoding from the same BSON bytes and, in the *AndSerialize variants, writing the JSON
+// the API returns. Allocation per document is the gc.alloc.rate.norm line of the GC profiler.
+//
+// Not a test; JMH forks a JVM with this JVM's class path, so run it with exec:exec, not exec:java
+//   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//       -Dexec.args="-cp %classpath com.example.cms.codec.ContentCodecBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentCodecBenchmark {
+
+    @Param({"article", "product"})
+    public String type;
+
+    private byte[] bson;
+    private ContentItemCodec codec;
+    private DocumentCodec documentCodec;
+    private MappingMongoConverter converter;
+    private ObjectMapper objectMapper;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContentCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        documentCodec = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+        Document document = type.equals("product") ? product() : article();
+        RawBsonDocument raw = new RawBsonDocument(document, documentCodec);
+        bson = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().asNIO().get(bson);
+
+        codec = new ContentItemCodec(new ContentTypeRegistry());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public ContentItem typedDecode() {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+    }
+
+    @Benchmark
+    public ContentItem mapDecode() {
+        Document document = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)),
+                DecoderContext.builder().build());
+        return converter.read(ContentItem.class, document);
+    }
+
+    @Benchmark
+    public byte[] typedDecodeAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(typedDecode());
+    }
+
+    @Benchmark
+    public byte[] mapDecodeAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(mapDecode());
+    }
+
+    private static Document article() {
+        Document data = new Document("title", "Typed codecs in practice")
+                .append("content", "Decoding straight into typed fields skips the intermediate maps. ".repeat(20))
+                .append("tags", List.of("mongodb", "bson", "performance"))
+                .append("metadata", new Document("viewCount", 1200L).append("likeCount", 85L)
+                        .append("seo", new Document("title", "Typed codecs").append("description", "Faster reads")));
+        return item("article", data);
+    }
+
+    private static Document product() {
+        List<Document> variants = new ArrayList<>();
+        for (String color : List.of("black", "white", "red", "blue")) {
+            variants.add(new Document("sku", "SKU-" + color).append("color", color).append("price", 49.5)
+                    .append("stock", 120));
+        }
+        Document data = new Document("name", "Wireless headphones")
+                .append("price", 49.5)
+                .append("categories", List.of("audio", "electronics"))
+                .append("variants", variants)
+                .append("specifications", new Document("battery", "30 h").append("weight", "250 g")
+                        .append("bluetooth", "5.3"));
+        return item("product", data);
+    }
+
+    private static Document item(String type, Document data) {
+        Map<String, Object> author = new LinkedHashMap<>();
+        author.put("_id", new ObjectId());
+        author.put("name", "Author");
+        author.put("email", "author@example.com");
+        author.put("role", "EDITOR");
+        List<Document> comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(new Document("_id", "c" + i).append("userId", "u" + i).append("userName", "Reader " + i)
+                    .append("text", "Clear and useful. ".repeat(4)).append("timestamp", new Date())
+                    .append("replies", new ArrayList<>()));
+        }
+        return new Document("_id", new ObjectId())
+                .append("type", type)
+                .append("data", data)
+                .append("published", true)
+                .append("createdAt", new Date())
+                .append("updatedAt", new Date())
+                .append("author", new Document(author))
+                .append("comments", comments)
+                .append("commentCount", 42)
+                .append("revision", 3)
+                .append("mediaIds", new ArrayList<>())
+                .append("_class", ContentItem.class.getName());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.cms.codec;
+
+import com.example.cms.model.Comment;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.Reply;
+import com.example.cms.model.User;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentItemCodecTest {
+    private final ContentItemCodec codec = new ContentItemCodec(new ContentTypeRegistry());
+
+    @Test
+    void encodesTheLayoutOfTheMappingLayer() {
+        ContentItem content = article();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Document mapped = new Document();
+        converter.write(content, mapped);
+        mapped.remove("_class");
+
+        assertThat(encode(content))
+                .isEqualTo(mapped.toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()));
+    }
+
+    @Test
+    void decodesWhatItEncodes() {
+        ContentItem content = article();
+
+        ContentItem decoded = codec.decode(new BsonDocumentReader(encode(content)), DecoderContext.builder().build());
+
+        assertThat(decoded).isEqualTo(content);
+        assertThat(decoded.getData()).isInstanceOf(ArticleData.class);
+    }
+
+    private BsonDocument encode(ContentItem content) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), content, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static ContentItem article() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("viewCount", 12L);
+        metadata.put("featuredImage", "cover.png");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("title", "Symmetric codecs");
+        data.put("content", "Encoding mirrors decoding.");
+        data.put("tags", List.of("bson", "codecs"));
+        data.put("metadata", metadata);
+        data.put("subtitle", "An extra field");
+
+        Reply reply = new Reply("r1", "u2", "Second Reader", "Agreed", new Date(1_700_000_002_000L));
+        Comment comment = new Comment();
+        comment.setId("c1");
+        comment.setUserId("u1");
+        comment.setUserName("First Reader");
+        comment.setText("Nice");
+        comment.setTimestamp(new Date(1_700_000_001_000L));
+        comment.setReplies(new ArrayList<>(List.of(reply)));
+        comment.setPosition(0);
+
+        ContentItem content = new ContentItem();
+        content.setId("64a000000000000000000101");
+        content.setType("article");
+        content.setData(data);
+        content.setPublished(true);
+        content.setCreatedAt(new Date(1_700_000_000_000L));
+        content.setUpdatedAt(new Date(1_700_000_003_000L));
+        content.setAuthor(new User("64a000000000000000000201", "Author", "author@example.com", "EDITOR",
+                new Date(1_699_000_000_000L)));
+        content.setComments(new ArrayList<>(List.of(comment)));
+        content.setCommentCount(1);
+        content.setRevision(2);
+        content.setMediaIds(new ArrayList<>(List.of("a".repeat(64))));
+        return content;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.cms.config;
+
+import com.example.cms.controller.ContentBulkController;
+import com.example.cms.controller.ContentController;
+import com.example.cms.exception.GlobalExceptionHandler;
+import com.example.cms.model.BulkReport;
+import com.example.cms.model.ContentItem;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.search.SearchService;
+import com.example.cms.service.CommentService;
+import com.example.cms.service.ContentBulkService;
+import com.example.cms.service.ContentCounterService;
+import com.example.cms.service.ContentService;
+import com.example.cms.service.ContentStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GzipRequestFilterTest {
+    private static final String BODY = "{\"type\":\"article\",\"authorId\":\"u1\",\"data\":{\"title\":\"Inflated\"}}";
+    // Read by Spring's message conversion, and by bulk import from the request stream itself
+    private static final List<String> PATHS = List.of("/api/content", "/api/content/import");
+
+    private ContentBulkService bulkService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ContentService contentService = mock(ContentService.class);
+        ContentItem created = new ContentItem();
+        created.setId("64a000000000000000000101");
+        created.setType("article");
+        created.setData(Map.of("title", "Inflated"));
+        when(contentService.createContent(eq("article"), any(), eq("u1"))).thenReturn(created);
+        ContentController controller = new ContentController(contentService, mock(CommentService.class),
+                mock(SearchService.class), mock(ContentStreamService.class), mock(ContentCounterService.class),
+                mock(RevisionService.class));
+        bulkService = mock(ContentBulkService.class);
+        when(bulkService.importContent(any())).thenAnswer(invocation -> {
+            ((InputStream) invocation.getArgument(0)).readAllBytes();
+            return new BulkReport();
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(controller, new ContentBulkController(bulkService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addFilters(new GzipRequestFilter(1024))
+                .build();
+    }
+
+    @Test
+    void gzipBodyIsInflated() throws Exception {
+        mockMvc.perform(gzipPost("/api/content", gzip(BODY)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.title").value("Inflated"));
+    }
+
+    @Test
+    void corruptGzipBodyIs400() throws Exception {
+        byte[] corrupt = gzip(BODY);
+        Arrays.fill(corrupt, 10, corrupt.length, (byte) 0x5a);
+
+        for (String path : PATHS) {
+            mockMvc.perform(gzipPost(path, corrupt))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(startsWith("Request body is not valid gzip")));
+        }
+    }
+
+    @Test
+    void truncatedGzipBodyIs400() throws Exception {
+        byte[] body = gzip(BODY);
+
+        for (String path : PATHS) {
+            mockMvc.perform(gzipPost(path, Arrays.copyOf(body, body.length / 2)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(startsWith("Request body is not valid gzip")));
+        }
+    }
+
+    @Test
+    void bodyInflatingPastTheLimitIs413() throws Exception {
+        String large = "{\"type\":\"article\",\"authorId\":\"u1\",\"data\":{\"title\":\"" + "x".repeat(2048) + "\"}}";
+
+        for (String path : PATHS) {
+            mockMvc.perform(gzipPost(path, gzip(large)))
+                    .andExpect(status().isPayloadTooLarge())
+                    .andExpect(jsonPath("$.message").value(startsWith("Decompressed request body is larger than 1024")));
+        }
+    }
+
+    // Other IO failures are not taken for a client's bad gzip
+    @Test
+    void unrelatedZipExceptionIs500() throws Exception {
+        doThrow(new UncheckedIOException(new ZipException("archive"))).when(bulkService).importContent(any());
+
+        mockMvc.perform(post("/api/content/import").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void unsupportedEncodingIs415() throws Exception {
+        mockMvc.perform(post("/api/content").contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br").content(BODY))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    private static MockHttpServletRequestBuilder gzipPost(String path, byte[] body) {
+        return post(path).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip").content(body);
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
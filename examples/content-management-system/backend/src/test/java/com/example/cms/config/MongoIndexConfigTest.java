@@ -0,0 +1,202 @@
+package com.example.cms.config;
+
+import com.example.cms.MongoIntegrationTest;
+import com.example.cms.analytics.AnalyticsService;
+import com.example.cms.model.ChangeSet;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.ContentPage;
+import com.example.cms.model.User;
+import com.example.cms.service.CommentService;
+import com.example.cms.service.ContentService;
+import com.example.cms.service.UserService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the services' read paths, captures the commands they send to MongoDB and explains each of
+// them, so a changed query or a dropped index fails here rather than as a slow endpoint.
+// Background analytics refreshes are held off; only the test's own refresh is captured.
+@TestPropertySource(properties = {"cms.analytics.trigger-delay-millis=600000",
+        "cms.analytics.refresh-interval-millis=600000"})
+class MongoIndexConfigTest extends MongoIntegrationTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig indexConfig;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private CapturedCommands captured;
+
+    private User author;
+    private ContentItem article;
+
+    @BeforeEach
+    void setUp() {
+        author = userService.createUser(new User(null, "Index Author", UUID.randomUUID() + "@example.com", "EDITOR", null));
+        // A few documents, so the planner has something to choose between
+        for (int i = 0; i < 20; i++) {
+            article = contentService.createContent("article",
+                    Map.of("title", "Article " + i, "tags", List.of("tag" + i % 3)), author.getId());
+            contentService.publishContent(article.getId(), i % 2 == 0);
+            contentService.createContent("product", Map.of("name", "Product " + i, "price", i,
+                    "categories", List.of("c" + i % 2)), author.getId());
+        }
+        commentService.addComment(article.getId(), author.getId(), "First", null);
+    }
+
+    @Test
+    void contentPagesUseAnIndex() {
+        assertIndexed(() -> {
+            ContentPage first = contentService.getAllContent(null, 5, null);
+            contentService.getAllContent(first.getNextCursor(), 5, null);
+            contentService.getContentByType("article", null, 5, null);
+            contentService.getPublishedContentByType("article", null, 5, null);
+            ContentPage tagged = contentService.getContentByTag("tag1", null, 2, null);
+            contentService.getContentByTag("tag1", tagged.getNextCursor(), 2, null);
+            contentService.getContentById(article.getId());
+        });
+    }
+
+    @Test
+    void commentLookupsUseAnIndex() {
+        assertIndexed(() -> {
+            ContentItem commented = commentService.addComment(article.getId(), author.getId(), "Second", "client-1");
+            commentService.getComments(article.getId(), 0, 20);
+            commentService.addReplyToComment(article.getId(), commented.getComments().get(0).getId(),
+                    author.getId(), "Reply");
+        });
+    }
+
+    @Test
+    void syncChangesUseAnIndex() {
+        assertIndexed(() -> {
+            ChangeSet<Map<String, Object>> content = contentService.getChanges(null, 5, null);
+            contentService.getChanges(content.getNextToken(), 5, null);
+            ChangeSet<User> users = userService.getChanges(null, 5);
+            userService.getChanges(users.getNextToken(), 5);
+        });
+    }
+
+    // The first refresh is full and reads everything by design; the ones after it are incremental
+    @Test
+    void incrementalAnalyticsRefreshUsesAnIndex() {
+        analyticsService.refresh();
+        ContentItem changed = contentService.createContent("article",
+                Map.of("title", "Changed", "tags", List.of("tag1")), author.getId());
+        commentService.addComment(changed.getId(), author.getId(), "New", null);
+
+        assertIndexed(analyticsService::refresh);
+    }
+
+    @Test
+    void reconcileDropsUndeclaredAndRebuildsChangedIndexes() {
+        String collection = "index_reconcile_test";
+        mongoTemplate.dropCollection(collection);
+        mongoTemplate.indexOps(collection).ensureIndex(new Index().named("stray").on("stray", Sort.Direction.ASC));
+        mongoTemplate.indexOps(collection).ensureIndex(new Index().named("kept").on("kept", Sort.Direction.ASC));
+
+        indexConfig.reconcile(collection, List.of(
+                new Index().named("kept").on("kept", Sort.Direction.ASC).unique(),
+                new Index().named("added").on("added", Sort.Direction.DESC)));
+
+        List<Document> indexes = mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+        assertThat(indexes).extracting(index -> index.getString("name"))
+                .containsExactlyInAnyOrder("_id_", "kept", "added");
+        assertThat(indexes).filteredOn(index -> "kept".equals(index.getString("name")))
+                .allMatch(index -> index.getBoolean("unique", false));
+    }
+
+    private void assertIndexed(Runnable action) {
+        List<BsonDocument> commands = captured.during(action);
+        assertThat(commands).isNotEmpty();
+        for (BsonDocument command : commands) {
+            BsonDocument explained = command.clone();
+            CapturedCommands.SESSION_FIELDS.forEach(explained::remove);
+            Document explain = mongoTemplate.getDb().runCommand(
+                    new BsonDocument("explain", explained).append("verbosity", new BsonString("queryPlanner")));
+            assertThat(explain.toJson()).as("plan of %s", explained.toJson()).doesNotContain("COLLSCAN");
+        }
+    }
+
+    // Records the commands the driver sends for the test thread and for the pools it hands work to:
+    // partition queries and comment group writes. Other background work is left out.
+    static class CapturedCommands implements CommandListener {
+        private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct",
+                "findAndModify", "update", "delete");
+        private static final List<String> POOLS = List.of("content-partition-", "comment-writer-");
+        private static final List<String> SESSION_FIELDS = List.of("$db", "lsid", "$clusterTime",
+                "$readPreference", "txnNumber", "readConcern", "writeConcern");
+
+        private final List<BsonDocument> commands = Collections.synchronizedList(new ArrayList<>());
+        private volatile Thread recording;
+
+        List<BsonDocument> during(Runnable action) {
+            commands.clear();
+            recording = Thread.currentThread();
+            try {
+                action.run();
+            } finally {
+                recording = null;
+            }
+            return new ArrayList<>(commands);
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            Thread thread = Thread.currentThread();
+            Thread test = recording;
+            if (test != null && EXPLAINABLE.contains(event.getCommandName())
+                    && (thread == test || POOLS.stream().anyMatch(thread.getName()::startsWith))) {
+                commands.add(event.getCommand().clone());
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        CapturedCommands capturedCommands() {
+            return new CapturedCommands();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureCommands(CapturedCommands capturedCommands) {
+            return settings -> settings.addCommandListener(capturedCommands);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cms.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs an embedded Tomcat with the compression settings of application.properties and a servlet
+// that answers like the API: JSON above the threshold with an ETag
+class ResponseCompressionTest {
+    private static final String BODY = "{\"items\":[" + "{\"title\":\"Compressed\"},".repeat(400) + "{}]}";
+
+    private WebServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void jsonWithAWeakETagIsCompressed() throws Exception {
+        start("W/\"v1\"");
+
+        HttpResponse<byte[]> response = get();
+
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).hasValue("W/\"v1\"");
+        assertThat(new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(),
+                StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    // Why the API's ETags are weak (see controller.ETags)
+    @Test
+    void tomcatSkipsStrongETagResponses() throws Exception {
+        start("\"v1\"");
+
+        assertThat(get().headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+    }
+
+    @Test
+    void textIsNotCompressed() throws IOException {
+        assertThat(compression().getMimeTypes()).doesNotContain(MediaType.TEXT_PLAIN_VALUE);
+    }
+
+    private void start(String etag) throws IOException {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        factory.setCompression(compression());
+        server = factory.getWebServer(context -> context.addServlet("api", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setHeader(HttpHeaders.ETAG, etag);
+                response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        }).addMapping("/api/content"));
+        server.start();
+    }
+
+    private HttpResponse<byte[]> get() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/api/content"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static Compression compression() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        Compression compression = new Compression();
+        compression.setEnabled(Boolean.parseBoolean(properties.getProperty("server.compression.enabled")));
+        compression.setMimeTypes(properties.getProperty("server.compression.mime-types").split(","));
+        compression.setMinResponseSize(DataSize.parse(properties.getProperty("server.compression.min-response-size")));
+        return compression;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.cms.controller;
+
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.ContentPage;
+import com.example.cms.model.User;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.search.SearchService;
+import com.example.cms.service.AuthorPropagationService;
+import com.example.cms.service.CommentService;
+import com.example.cms.service.ContentCounterService;
+import com.example.cms.service.ContentService;
+import com.example.cms.service.ContentStreamService;
+import com.example.cms.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConditionalRequestTest {
+    private static final String ID = "64a000000000000000000101";
+    private static final Date UPDATED_AT = new Date(1_700_000_000_000L);
+
+    private ContentService contentService;
+    private ContentCounterService contentCounterService;
+    private UserService userService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        contentService = mock(ContentService.class);
+        contentCounterService = mock(ContentCounterService.class);
+        userService = mock(UserService.class);
+        ContentController contentController = new ContentController(contentService, mock(CommentService.class),
+                mock(SearchService.class), mock(ContentStreamService.class), contentCounterService,
+                mock(RevisionService.class));
+        UserController userController = new UserController(userService, mock(AuthorPropagationService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(contentController, userController).build();
+    }
+
+    @Test
+    void listRevalidationWithSameVersionIs304WithoutBody() throws Exception {
+        when(contentService.getAllContent(isNull(), anyInt(), isNull())).thenReturn(page("v1"));
+
+        String etag = mockMvc.perform(get("/api/content"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("W/\"v1\"");
+
+        mockMvc.perform(get("/api/content").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void listRevalidationAfterAChangeIs200() throws Exception {
+        when(contentService.getAllContent(isNull(), anyInt(), isNull())).thenReturn(page("v2"));
+
+        mockMvc.perform(get("/api/content").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v2\""));
+    }
+
+    @Test
+    void itemRevalidationIsAnsweredFromTheVersionAlone() throws Exception {
+        when(contentService.getContentVersion(ID)).thenReturn(UPDATED_AT);
+        when(contentCounterService.getCounters(ID)).thenReturn(Map.of("views", 7L, "likes", 2L));
+        String etag = ETags.of(ID, UPDATED_AT, Map.of("views", 7L, "likes", 2L).values());
+
+        mockMvc.perform(get("/api/content/" + ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(contentService, never()).getContentById(any());
+    }
+
+    @Test
+    void itemRevalidationAfterACounterChangeIs200() throws Exception {
+        when(contentService.getContentVersion(ID)).thenReturn(UPDATED_AT);
+        when(contentCounterService.getCounters(ID)).thenReturn(Map.of("views", 8L));
+        when(contentService.getContentById(ID)).thenReturn(item());
+        String before = ETags.of(ID, UPDATED_AT, List.of(7L));
+
+        MvcResult result = mockMvc.perform(get("/api/content/" + ID).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+        assertThat(result.getResponse().getContentAsString()).contains(ID);
+    }
+
+    // Counters change without updatedAt, so a date alone cannot prove the item is unchanged
+    @Test
+    void itemIgnoresIfModifiedSince() throws Exception {
+        when(contentService.getContentVersion(ID)).thenReturn(UPDATED_AT);
+        when(contentCounterService.getCounters(ID)).thenReturn(Map.of("views", 8L));
+        when(contentService.getContentById(ID)).thenReturn(item());
+
+        mockMvc.perform(get("/api/content/" + ID)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 Jan 2031 00:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void userRevalidationIsAnsweredFromTheVersionAlone() throws Exception {
+        when(userService.getUserVersion("u1")).thenReturn(UPDATED_AT);
+
+        mockMvc.perform(get("/api/users/u1").header(HttpHeaders.IF_NONE_MATCH, ETags.of("u1", UPDATED_AT)))
+                .andExpect(status().isNotModified());
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    void userListRevalidationWithSameUsersIs304() throws Exception {
+        List<User> users = List.of(new User("u1", "Ada", "ada@example.com", "EDITOR", UPDATED_AT));
+        when(userService.getAllUsers()).thenReturn(users);
+
+        mockMvc.perform(get("/api/users")
+                        .header(HttpHeaders.IF_NONE_MATCH, ETags.of(users, User::getId, User::getUpdatedAt)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    private static ContentPage page(String version) {
+        return new ContentPage(List.of(Map.of("id", ID, "type", "article")), null, version);
+    }
+
+    private static ContentItem item() {
+        ContentItem content = new ContentItem();
+        content.setId(ID);
+        content.setType("article");
+        content.setData(Map.of("title", "Conditional requests"));
+        content.setUpdatedAt(UPDATED_AT);
+        return content;
+    }
+}
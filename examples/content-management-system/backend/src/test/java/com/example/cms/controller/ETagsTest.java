@@ -0,0 +1,43 @@
+package com.example.cms.controller;
+
+import com.example.cms.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+    private static final Date UPDATED_AT = new Date(1_700_000_000_000L);
+
+    @Test
+    void itemTagIsIdAndUpdatedAt() {
+        assertThat(ETags.of("a1", UPDATED_AT)).isEqualTo("W/\"a1-1700000000000\"");
+        assertThat(ETags.of("a1", UPDATED_AT, List.of(3L, 4L))).isEqualTo("W/\"a1-1700000000000-3-4\"");
+    }
+
+    @Test
+    void documentsWithoutUpdatedAtShareVersionZero() {
+        assertThat(ETags.of("a1", null)).isEqualTo("W/\"a1-0\"");
+        assertThat(ETags.millis(null)).isZero();
+    }
+
+    @Test
+    void listTagIsStableAndChangesWithAnyMember() {
+        List<User> users = List.of(user("u1", UPDATED_AT), user("u2", UPDATED_AT));
+        String etag = ETags.of(users, User::getId, User::getUpdatedAt);
+
+        assertThat(ETags.of(List.of(user("u1", UPDATED_AT), user("u2", UPDATED_AT)), User::getId, User::getUpdatedAt))
+                .isEqualTo(etag);
+        assertThat(ETags.of(List.of(user("u1", UPDATED_AT), user("u2", new Date(UPDATED_AT.getTime() + 1))),
+                User::getId, User::getUpdatedAt)).isNotEqualTo(etag);
+        assertThat(ETags.of(List.of(user("u2", UPDATED_AT), user("u1", UPDATED_AT)), User::getId, User::getUpdatedAt))
+                .isNotEqualTo(etag);
+        assertThat(etag).startsWith("W/\"").endsWith("\"").hasSize(36);
+    }
+
+    private static User user(String id, Date updatedAt) {
+        return new User(id, "Name " + id, id + "@example.com", "EDITOR", updatedAt);
+    }
+}
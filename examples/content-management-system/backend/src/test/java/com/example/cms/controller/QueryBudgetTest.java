@@ -0,0 +1,92 @@
+package com.example.cms.controller;
+
+import com.example.cms.MongoIntegrationTest;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import com.example.cms.monitoring.QueryAccounting;
+import com.example.cms.partition.ContentPartitions;
+import com.example.cms.service.CommentService;
+import com.example.cms.service.ContentService;
+import com.example.cms.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Counts the commands the driver's listener sees for whole requests, filter to response. The
+// limits are the endpoints' @QueryBudget, which strict mode also enforces inside the request.
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "cms.query-accounting.strict=true")
+class QueryBudgetTest extends MongoIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private ContentPartitions partitions;
+
+    private ContentItem article;
+
+    @BeforeEach
+    void setUp() {
+        User author = userService.createUser(
+                new User(null, "Budget Author", UUID.randomUUID() + "@example.com", "EDITOR", null));
+        article = contentService.createContent("article",
+                Map.of("title", "Budgets", "tags", List.of("budget")), author.getId());
+        for (int i = 0; i < 3; i++) {
+            commentService.addComment(article.getId(), author.getId(), "comment " + i, null);
+        }
+    }
+
+    @Test
+    void contentListStaysWithinItsBudget() {
+        expectAtMost(1 + partitions.count(), get("/api/content"));
+    }
+
+    @Test
+    void contentByIdStaysWithinItsBudget() {
+        expectAtMost(3 + partitions.count(), get("/api/content/{id}", article.getId()));
+    }
+
+    @Test
+    void commentsStayWithinTheirBudget() {
+        expectAtMost(2 + partitions.count(), get("/api/content/{id}/comments", article.getId()));
+    }
+
+    @Test
+    void exceedingTheBudgetFailsTheTest() {
+        assertThatThrownBy(() -> expectAtMost(0, get("/api/content/{id}", article.getId())))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("Expected at most 0 queries");
+    }
+
+    private void expectAtMost(int maxQueries, RequestBuilder request) {
+        QueryAccounting.expectAtMost(maxQueries, () -> {
+            try {
+                mockMvc.perform(request).andExpect(status().isOk());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cms.monitoring;
+
+import com.example.cms.exception.QueryBudgetExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryAccountingTest {
+    private static final int TASKS = 8;
+    private static final int COMMANDS = 2000;
+
+    private final QueryAccounting queryAccounting = new QueryAccounting(100_000, 20, 5, false);
+    private final ExecutorService executor = Executors.newFixedThreadPool(TASKS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void partitionTasksCountTowardsTheRequest() throws Exception {
+        QueryStats stats = queryAccounting.begin("GET /api/content");
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            futures.add(executor.submit(QueryAccounting.inheritStats(() -> {
+                queryAccounting.record("find", 1);
+                return null;
+            })));
+        }
+        for (Future<Object> future : futures) {
+            future.get();
+        }
+        queryAccounting.finish(stats, null);
+
+        assertThat(stats.getCount()).isEqualTo(TASKS);
+        assertThat(stats.getExecutions("find")).isEqualTo(TASKS);
+    }
+
+    // Tasks the request stopped waiting for, e.g. cancelled after another partition failed, keep
+    // merging their stats while the request thread records its own commands
+    @Test
+    void lateTasksDoNotLoseCommands() throws Exception {
+        QueryStats stats = queryAccounting.begin("GET /api/content");
+        for (int i = 0; i < TASKS * COMMANDS; i++) {
+            executor.submit(QueryAccounting.inheritStats(() -> {
+                queryAccounting.record("find", 1);
+                return null;
+            }));
+        }
+        for (int i = 0; i < COMMANDS; i++) {
+            queryAccounting.record("count", 1);
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(stats.getCount()).isEqualTo(TASKS * COMMANDS + COMMANDS);
+        assertThat(stats.getExecutions("find")).isEqualTo(TASKS * COMMANDS);
+        assertThat(stats.getExecutions("count")).isEqualTo(COMMANDS);
+        queryAccounting.finish(stats, null);
+    }
+
+    // A request served inside measure, as MockMvc does on the test thread, counts towards it
+    @Test
+    void requestsInsideAMeasurementCount() {
+        QueryStats measured = QueryAccounting.measure(() -> {
+            QueryStats request = queryAccounting.begin("GET /api/content");
+            queryAccounting.record("find", 1);
+            queryAccounting.record("find", 1);
+            queryAccounting.finish(request, null);
+            queryAccounting.record("count", 1);
+        });
+
+        assertThat(measured.getCount()).isEqualTo(3);
+        assertThat(measured.getExecutions("find")).isEqualTo(2);
+    }
+
+    @Test
+    void exceedingABudgetFailsTheTest() {
+        assertThatThrownBy(() -> QueryAccounting.expectAtMost(1, () -> {
+            queryAccounting.record("find", 1);
+            queryAccounting.record("find", 1);
+        })).isInstanceOf(AssertionError.class).hasMessageContaining("at most 1 queries but 2");
+    }
+
+    @Test
+    void strictModeFailsAnOverBudgetRequest() {
+        QueryAccounting strict = new QueryAccounting(100_000, 20, 5, true);
+        QueryStats stats = strict.begin("GET /api/content/1");
+        try {
+            strict.setBudget(1);
+            strict.record("find", 1);
+            strict.checkBudget();
+            strict.record("find", 1);
+            assertThatThrownBy(strict::checkBudget).isInstanceOf(QueryBudgetExceededException.class);
+        } finally {
+            strict.finish(stats, null);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.cms.partition;
+
+import com.example.cms.MongoIntegrationTest;
+import com.example.cms.config.MongoIndexConfig;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentPartitionsMigrationTest extends MongoIntegrationTest {
+    private static final String LEGACY = "content";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig indexConfig;
+
+    private ContentPartitions migrating;
+
+    @AfterEach
+    void tearDown() {
+        if (migrating != null) {
+            migrating.shutdown();
+        }
+        mongoTemplate.dropCollection(LEGACY);
+    }
+
+    @Test
+    void legacyContentMovesIntoItsPartitionsKeepingIds() {
+        ObjectId article = new ObjectId();
+        ObjectId product = new ObjectId();
+        ObjectId invalid = new ObjectId();
+        mongoTemplate.getCollection(LEGACY).insertMany(List.of(
+                new Document("_id", article).append("type", "article").append("updatedAt", new Date())
+                        .append("data", new Document("title", "Moved")),
+                new Document("_id", product).append("type", "product").append("updatedAt", new Date())
+                        .append("data", new Document("name", "Moved too")),
+                new Document("_id", invalid).append("type", "not a type").append("updatedAt", new Date())));
+
+        migrating = new ContentPartitions(mongoTemplate, indexConfig, 100, 2, true, 1000);
+        migrating.start();
+
+        Document moved = mongoTemplate.getCollection("content.article").find(new Document("_id", article)).first();
+        assertThat(moved).isNotNull();
+        assertThat(moved.get("data", Document.class).getString("title")).isEqualTo("Moved");
+        assertThat(mongoTemplate.getCollection("content.product").find(new Document("_id", product)).first())
+                .isNotNull();
+        assertThat(migrating.locate(article.toHexString())).isEqualTo("content.article");
+        // Left behind and reported, so the legacy collection is kept
+        assertThat(mongoTemplate.getCollection(LEGACY).countDocuments()).isEqualTo(1);
+        assertThat(mongoTemplate.getCollection(LEGACY).find(new Document("_id", invalid)).first()).isNotNull();
+    }
+
+    // A restart after a partial run keeps what was already moved
+    @Test
+    void rerunKeepsDocumentsAlreadyMoved() {
+        ObjectId article = new ObjectId();
+        String partition = new ContentPartitions(mongoTemplate, indexConfig, 100, 2, false, 1000)
+                .partitionFor("article");
+        mongoTemplate.getCollection(partition).insertOne(new Document("_id", article).append("type", "article")
+                .append("data", new Document("title", "Edited after the move")));
+        mongoTemplate.getCollection(LEGACY).insertOne(new Document("_id", article).append("type", "article")
+                .append("data", new Document("title", "Original")));
+
+        migrating = new ContentPartitions(mongoTemplate, indexConfig, 100, 2, true, 1000);
+        migrating.start();
+
+        assertThat(mongoTemplate.getCollection(partition).find(new Document("_id", article)).first()
+                .get("data", Document.class).getString("title")).isEqualTo("Edited after the move");
+        assertThat(mongoTemplate.collectionExists(LEGACY)).isFalse();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.cms.partition;
+
+import com.example.cms.config.MongoIndexConfig;
+import com.example.cms.model.ContentItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContentPartitionsTest {
+    private static final String ID = "64a000000000000000000101";
+    private static final String ARTICLES = "content.article";
+    private static final String PRODUCTS = "content.product";
+    private static final String NEWS = "content.news";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<String> probed = Collections.synchronizedList(new ArrayList<>());
+    private ContentPartitions partitions;
+
+    @AfterEach
+    void tearDown() {
+        partitions.shutdown();
+    }
+
+    @Test
+    void unknownIdIsProbedEverywhereThenRouted() {
+        start(0, ARTICLES, PRODUCTS);
+
+        assertThat(partitions.lookup(ID, foundIn(PRODUCTS))).isEqualTo(PRODUCTS);
+        assertThat(probed).containsExactlyInAnyOrder(ARTICLES, PRODUCTS);
+
+        probed.clear();
+        assertThat(partitions.lookup(ID, foundIn(PRODUCTS))).isEqualTo(PRODUCTS);
+        assertThat(probed).containsExactly(PRODUCTS);
+    }
+
+    // After a delete the cached route finds nothing, and the next lookup probes again
+    @Test
+    void staleRouteIsForgotten() {
+        start(60_000, ARTICLES, PRODUCTS);
+        partitions.remember(ID, ARTICLES);
+
+        assertThat(partitions.lookup(ID, foundIn(PRODUCTS))).isNull();
+        probed.clear();
+        assertThat(partitions.lookup(ID, foundIn(PRODUCTS))).isEqualTo(PRODUCTS);
+        assertThat(probed).containsExactlyInAnyOrder(ARTICLES, PRODUCTS);
+    }
+
+    // Another instance created content.news after this one started
+    @Test
+    void missFindsPartitionsCreatedElsewhere() {
+        start(0, ARTICLES);
+        collections(ARTICLES, NEWS);
+
+        assertThat(partitions.lookup(ID, foundIn(NEWS))).isEqualTo(NEWS);
+        assertThat(partitions.all()).containsExactlyInAnyOrder(ARTICLES, NEWS);
+        assertThat(partitions.count()).isEqualTo(2);
+    }
+
+    @Test
+    void missingTypeFindsPartitionsCreatedElsewhere() {
+        start(0, ARTICLES);
+        collections(ARTICLES, NEWS);
+
+        assertThat(partitions.existingPartition("news")).hasValue(NEWS);
+    }
+
+    @Test
+    void missesRefreshAtMostOncePerInterval() {
+        start(60_000, ARTICLES);
+        collections(ARTICLES, NEWS);
+
+        assertThat(partitions.lookup(ID, foundIn(NEWS))).isNull();
+        assertThat(partitions.existingPartition("news")).isEmpty();
+
+        partitions.refresh();
+        assertThat(partitions.existingPartition("news")).hasValue(NEWS);
+    }
+
+    @Test
+    void scatterKeepsTheOrderOfTheCollections() {
+        start(0, ARTICLES, PRODUCTS, NEWS);
+
+        assertThat(partitions.scatter(List.of(NEWS, ARTICLES, PRODUCTS), collection -> collection))
+                .containsExactly(NEWS, ARTICLES, PRODUCTS);
+    }
+
+    // Each partition returns its own first page; the merged page is the first limit overall
+    @Test
+    void gatherMergesNewestFirstAndCutsToTheLimit() {
+        start(0, ARTICLES, PRODUCTS);
+        Map<String, List<ContentItem>> pages = Map.of(
+                ARTICLES, List.of(item("a4", 40), item("a2", 20), item("a1", 10)),
+                PRODUCTS, List.of(item("p5", 50), item("p3", 30), item("p2", 20)));
+
+        List<ContentItem> merged = partitions.gather(partitions.all(), pages::get, ContentPartitions.NEWEST_FIRST, 4);
+
+        assertThat(merged).extracting(ContentItem::getId).containsExactly("p5", "a4", "p3", "p2");
+    }
+
+    private void start(long refreshOnMissMillis, String... collections) {
+        when(mongoTemplate.getCollectionName(ContentItem.class)).thenReturn("content");
+        collections(collections);
+        partitions = new ContentPartitions(mongoTemplate, mock(MongoIndexConfig.class), 100, 2, false,
+                refreshOnMissMillis);
+        partitions.start();
+    }
+
+    private void collections(String... names) {
+        Set<String> collections = new LinkedHashSet<>(List.of(names));
+        collections.add("users");
+        when(mongoTemplate.getCollectionNames()).thenReturn(collections);
+    }
+
+    private Function<String, String> foundIn(String holder) {
+        return collection -> {
+            probed.add(collection);
+            return collection.equals(holder) ? collection : null;
+        };
+    }
+
+    private static ContentItem item(String id, long updatedAt) {
+        ContentItem content = new ContentItem();
+        content.setId(id);
+        content.setUpdatedAt(new Date(updatedAt));
+        return content;
+    }
+}
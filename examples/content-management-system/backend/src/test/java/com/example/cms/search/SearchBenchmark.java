@@ -0,0 +1,264 @@
+package com.example.cms.search;
+
+import com.example.cms.model.ContentItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Relevance and latency of the search index against the title regex it replaced, on a generated
+// corpus. The regex side is the scan MongoDB runs for an unanchored case-insensitive $regex, done
+// in memory over the titles: no BSON decoding, no I/O, so it is a lower bound for the real query.
+//
+// A document is relevant to a query when every query term occurs in its title, body or tags.
+// Recall is over all relevant documents; precision@10 is over the first 10 results, ranked by
+// BM25 for the index and in insertion order (natural order) for the regex.
+//
+// Not a test; run with
+//   mvn test-compile exec:java -Dexec.mainClass=com.example.cms.search.SearchBenchmark \
+//       -Dexec.classpathScope=test -Dexec.args="--documents=1000000"
+// The corpus, its ground truth and the index are all held in memory: 300k documents use about
+// 2.8 GB of heap, so 1M documents need about 10 GB (MAVEN_OPTS=-Xmx10g).
+public final class SearchBenchmark {
+    private static final int VOCABULARY = 20000;
+    private static final int TITLE_WORDS = 6;
+    private static final int BODY_WORDS = 40;
+    private static final int TAGS = 3;
+    private static final int TOP = 10;
+
+    private final Map<String, String> options;
+    private final Random random;
+    private final String[] words = new String[VOCABULARY];
+    private final double[] cumulative = new double[VOCABULARY];
+
+    private SearchBenchmark(Map<String, String> options) {
+        this.options = options;
+        this.random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+        double total = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(i);
+            // Zipf: a few words are everywhere, most are rare, as in real text
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < VOCABULARY; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        new SearchBenchmark(options).run();
+    }
+
+    private void run() {
+        int documents = Integer.parseInt(options.getOrDefault("documents", "1000000"));
+        int queryCount = Integer.parseInt(options.getOrDefault("queries", "200"));
+
+        List<Generated> corpus = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            corpus.add(generate(i));
+        }
+
+        long buildStart = System.nanoTime();
+        SearchIndex index = new SearchIndex();
+        List<IndexedDocument> batch = new ArrayList<>();
+        for (Generated document : corpus) {
+            batch.add(IndexedDocument.of(document.content));
+            if (batch.size() == 10000) {
+                index.putAll(batch);
+                batch.clear();
+            }
+        }
+        index.putAll(batch);
+        double buildSeconds = (System.nanoTime() - buildStart) / 1e9;
+        System.gc();
+        long heapBytes = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+
+        String[] titles = new String[documents];
+        for (int i = 0; i < documents; i++) {
+            titles[i] = (String) corpus.get(i).content.getData().get("title");
+        }
+
+        List<String> queries = queries(queryCount);
+        // Unmeasured warmup of both paths
+        for (int i = 0; i < Math.min(20, queries.size()); i++) {
+            index.search(queries.get(i), false, null, null, 0, TOP);
+            regex(titles, queries.get(i));
+        }
+
+        Measurement indexed = new Measurement();
+        Measurement scanned = new Measurement();
+        for (String query : queries) {
+            Set<String> relevant = relevant(corpus, query);
+
+            long start = System.nanoTime();
+            SearchResult result = index.search(query, false, null, null, 0, TOP);
+            indexed.latencies.add(System.nanoTime() - start);
+            List<String> ranked = new ArrayList<>();
+            result.getHits().forEach(hit -> ranked.add(hit.getId()));
+            // The index matches any term; every relevant document is among its matches
+            indexed.add(relevant, ranked, relevant.size());
+
+            start = System.nanoTime();
+            List<Integer> matches = regex(titles, query);
+            scanned.latencies.add(System.nanoTime() - start);
+            List<String> found = new ArrayList<>();
+            matches.forEach(position -> found.add(corpus.get(position).content.getId()));
+            int foundRelevant = 0;
+            for (String id : found) {
+                if (relevant.contains(id)) {
+                    foundRelevant++;
+                }
+            }
+            scanned.add(relevant, found.subList(0, Math.min(TOP, found.size())), foundRelevant);
+        }
+
+        System.out.printf(Locale.ROOT, "%n## Search: %,d documents, %d queries%n%n", documents, queries.size());
+        System.out.printf(Locale.ROOT, "Index built in %.1f s (%,d documents indexed); heap in use with corpus and index: %,d MB%n%n",
+                buildSeconds, index.size(), heapBytes >> 20);
+        System.out.println("| Search | p50 ms | p95 ms | p99 ms | Recall | Precision@10 |");
+        System.out.println("|---|---|---|---|---|---|");
+        indexed.print("Index (BM25)");
+        scanned.print("Title $regex scan");
+    }
+
+    private static List<Integer> regex(String[] titles, String query) {
+        Pattern pattern = Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < titles.length; i++) {
+            if (pattern.matcher(titles[i]).find()) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> relevant(List<Generated> corpus, String query) {
+        List<String> terms = Tokenizer.tokenize(query);
+        Set<String> relevant = new HashSet<>();
+        for (Generated document : corpus) {
+            if (document.terms.containsAll(terms)) {
+                relevant.add(document.content.getId());
+            }
+        }
+        return relevant;
+    }
+
+    // One and two word queries over mid-frequency words, which is where ranking matters
+    private List<String> queries(int count) {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String first = words[50 + random.nextInt(2000)];
+            queries.add(i % 2 == 0 ? first : first + " " + words[50 + random.nextInt(2000)]);
+        }
+        return queries;
+    }
+
+    private Generated generate(int i) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("title", capitalize(sentence(TITLE_WORDS)));
+        data.put("content", sentence(BODY_WORDS));
+        List<String> tags = new ArrayList<>();
+        for (int t = 0; t < TAGS; t++) {
+            tags.add(pick());
+        }
+        data.put("tags", tags);
+
+        ContentItem content = new ContentItem();
+        content.setId(String.format("%024x", i));
+        content.setType(i % 5 == 0 ? "product" : "article");
+        content.setData(data);
+
+        Set<String> terms = new HashSet<>(Tokenizer.tokenize((String) data.get("title")));
+        terms.addAll(Tokenizer.tokenize((String) data.get("content")));
+        terms.addAll(tags);
+        return new Generated(content, terms);
+    }
+
+    private String sentence(int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int w = 0; w < length; w++) {
+            sentence.append(w == 0 ? "" : " ").append(pick());
+        }
+        return sentence.toString();
+    }
+
+    private String pick() {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        return words[Math.min(VOCABULARY - 1, position >= 0 ? position : -position - 1)];
+    }
+
+    // Distinct, pronounceable words
+    private static String word(int i) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        StringBuilder word = new StringBuilder();
+        int n = i;
+        do {
+            word.append(consonants.charAt(n % consonants.length()));
+            n /= consonants.length();
+            word.append(vowels.charAt(n % vowels.length()));
+            n /= vowels.length();
+        } while (n > 0);
+        return word.append('x').toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private static final class Generated {
+        private final ContentItem content;
+        private final Set<String> terms;
+
+        private Generated(ContentItem content, Set<String> terms) {
+            this.content = content;
+            this.terms = terms;
+        }
+    }
+
+    private static final class Measurement {
+        private final List<Long> latencies = new ArrayList<>();
+        private double recall;
+        private double precision;
+        private int queries;
+
+        private void add(Set<String> relevant, List<String> top, int foundRelevant) {
+            queries++;
+            recall += relevant.isEmpty() ? 1 : (double) foundRelevant / relevant.size();
+            int relevantInTop = 0;
+            for (String id : top) {
+                if (relevant.contains(id)) {
+                    relevantInTop++;
+                }
+            }
+            precision += top.isEmpty() ? (relevant.isEmpty() ? 1 : 0) : (double) relevantInTop / top.size();
+        }
+
+        private void print(String name) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            System.out.printf(Locale.ROOT, "| %s | %.2f | %.2f | %.2f | %.3f | %.3f |%n", name,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    recall / queries, precision / queries);
+        }
+
+        private static double percentile(List<Long> sorted, double percentile) {
+            int position = (int) Math.ceil(percentile * sorted.size()) - 1;
+            return sorted.get(Math.max(0, position)) / 1e6;
+        }
+    }
+}
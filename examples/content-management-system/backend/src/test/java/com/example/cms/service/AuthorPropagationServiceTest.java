@@ -0,0 +1,89 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.model.AuthorPropagationJob;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorPropagationServiceTest {
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ContentPartitions partitions = mock(ContentPartitions.class);
+    // One document per batch at 10 documents per second pauses up to 100 ms between batches
+    private final AuthorPropagationService service =
+            new AuthorPropagationService(mongoTemplate, mock(ContentCache.class), partitions, 1, 10, 250);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    // Each throttled batch must carry its own updatedAt, not the time the job started
+    @Test
+    void everyBatchIsStampedWhenItIsWritten() {
+        User user = new User();
+        user.setId("u1");
+        user.setName("New Name");
+        user.setEmail("new@example.com");
+        user.setRole("AUTHOR");
+
+        AuthorPropagationJob pending = new AuthorPropagationJob();
+        pending.setUserId("u1");
+        pending.setName("New Name");
+        pending.setEmail("new@example.com");
+        pending.setRole("AUTHOR");
+        pending.setStatus(AuthorPropagationJob.PENDING);
+        pending.setRequestedAt(new Date());
+        AuthorPropagationJob completed = new AuthorPropagationJob();
+        completed.setStatus(AuthorPropagationJob.COMPLETED);
+
+        when(partitions.all()).thenReturn(List.of("content_article"));
+        when(mongoTemplate.findById("u1", AuthorPropagationJob.class)).thenReturn(pending, completed);
+        when(mongoTemplate.find(any(Query.class), eq(ContentItem.class), eq("content_article")))
+                .thenReturn(List.of(item("c1")), List.of(item("c2")), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(ContentItem.class), eq("content_article")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(AuthorPropagationJob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service.schedule(user);
+
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, timeout(5000).times(2))
+                .updateMulti(any(Query.class), updates.capture(), eq(ContentItem.class), eq("content_article"));
+        Date first = updatedAt(updates.getAllValues().get(0));
+        Date second = updatedAt(updates.getAllValues().get(1));
+        assertThat(second.getTime() - first.getTime()).isGreaterThanOrEqualTo(50);
+    }
+
+    private static Date updatedAt(UpdateDefinition update) {
+        return ((Update) update).getUpdateObject().get("$set", Document.class).getDate("updatedAt");
+    }
+
+    private static ContentItem item(String id) {
+        ContentItem item = new ContentItem();
+        item.setId(id);
+        return item;
+    }
+}
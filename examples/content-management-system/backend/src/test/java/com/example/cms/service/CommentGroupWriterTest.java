@@ -0,0 +1,225 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.exception.UserNotFoundException;
+import com.example.cms.model.Comment;
+import com.example.cms.model.CommentBucket;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentGroupWriterTest {
+    private static final String ID = "64a000000000000000000101";
+    private static final String ARTICLES = "content.article";
+    // Long enough that only a full group is written
+    private static final long MAX_DELAY_MILLIS = 60_000;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ContentCache contentCache = mock(ContentCache.class);
+    private final ExecutorService writers = Executors.newFixedThreadPool(2);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final ContentItem content = new ContentItem();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        content.setId(ID);
+        content.setType("article");
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(
+                new User("u1", "Ada", "ada@example.com", "EDITOR", new Date()),
+                new User("u2", "Grace", "grace@example.com", "EDITOR", new Date())));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentItem.class), eq(ARTICLES))).thenReturn(content);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    @Test
+    void aGroupIsOneReservationAndOneBucketWrite() throws Exception {
+        content.setCommentCount(10);
+
+        List<ContentItem> results = await(submit(writer(10), 10));
+
+        assertThat(results).containsOnly(content);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), argThat(update -> increment(update) == 10),
+                any(FindAndModifyOptions.class), eq(ContentItem.class), eq(ARTICLES));
+        List<UpdateDefinition> appends = bucketAppends(1);
+        assertThat(pushed(appends.get(0))).extracting(Comment::getPosition)
+                .containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        verify(contentCache).invalidate(content);
+    }
+
+    // Positions 98..101: two in the last slots of bucket 0, two in bucket 1
+    @Test
+    void aGroupSpanningBucketsWritesEachBucketOnce() throws Exception {
+        content.setCommentCount(102);
+
+        await(submit(writer(4), 4));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        List<UpdateDefinition> appends = bucketAppends(2, queries);
+        assertThat(queries.getAllValues()).extracting(query -> query.getQueryObject().get("bucket"))
+                .containsExactly(0, 1);
+        assertThat(pushed(appends.get(0))).extracting(Comment::getPosition).containsExactly(98, 99);
+        assertThat(pushed(appends.get(1))).extracting(Comment::getPosition).containsExactly(100, 101);
+    }
+
+    // The second bucket write fails: every comment of the group fails, the comments that reached
+    // bucket 0 are pulled again and the reserved positions are given back
+    @Test
+    void aFailedBucketWriteFailsTheGroupAndReleasesItsPositions() {
+        content.setCommentCount(102);
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("bucket 1");
+        when(mongoTemplate.upsert(argThat(query -> query != null && Integer.valueOf(1).equals(
+                query.getQueryObject().get("bucket"))), any(UpdateDefinition.class), eq(CommentBucket.class))).thenThrow(failure);
+
+        List<Future<ContentItem>> futures = submit(writer(4), 4);
+
+        for (Future<ContentItem> future : futures) {
+            assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+        }
+        verify(mongoTemplate).updateMulti(any(Query.class), argThat(update -> update != null
+                && update.getUpdateObject().containsKey("$pull")), eq(CommentBucket.class));
+        verify(mongoTemplate).findAndModify(argThat(query -> query != null
+                        && Integer.valueOf(102).equals(query.getQueryObject().get("commentCount"))),
+                argThat(update -> increment(update) == -4), any(FindAndModifyOptions.class),
+                eq(ContentItem.class), eq(ARTICLES));
+        verify(contentCache, times(2)).invalidate(content);
+    }
+
+    @Test
+    void anUnknownUserFailsOnlyItsOwnComment() throws Exception {
+        content.setCommentCount(1);
+        CommentGroupWriter writer = writer(2);
+
+        Future<ContentItem> known = callers.submit(() -> writer.add(ID, "u1", "Known", null));
+        Future<ContentItem> unknown = callers.submit(() -> writer.add(ID, "ghost", "Unknown", null));
+
+        assertThat(known.get()).isSameAs(content);
+        assertThatThrownBy(unknown::get).hasCauseInstanceOf(UserNotFoundException.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), argThat(update -> increment(update) == 1),
+                any(FindAndModifyOptions.class), eq(ContentItem.class), eq(ARTICLES));
+    }
+
+    // The first attempt was written but its response was lost
+    @Test
+    void aRetriedCommentIsNotWrittenAgain() {
+        Comment stored = new Comment();
+        stored.setId("retry-1");
+        when(mongoTemplate.find(any(Query.class), eq(CommentBucket.class)))
+                .thenReturn(List.of(new CommentBucket(null, ID, 0, 1, List.of(stored))));
+        when(mongoTemplate.findOne(any(Query.class), eq(ContentItem.class), eq(ARTICLES))).thenReturn(content);
+
+        assertThat(writer(1).add(ID, "u1", "Once", "retry-1")).isSameAs(content);
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(ContentItem.class), any(String.class));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(UpdateDefinition.class), eq(CommentBucket.class));
+    }
+
+    @Test
+    void aRetryInTheSameGroupIsWrittenOnce() throws Exception {
+        content.setCommentCount(1);
+        CommentGroupWriter writer = writer(2);
+
+        List<Future<ContentItem>> futures = List.of(
+                callers.submit(() -> writer.add(ID, "u1", "Once", "retry-2")),
+                callers.submit(() -> writer.add(ID, "u1", "Once", "retry-2")));
+
+        assertThat(await(futures)).containsOnly(content);
+        verify(mongoTemplate).findAndModify(any(Query.class), argThat(update -> increment(update) == 1),
+                any(FindAndModifyOptions.class), eq(ContentItem.class), eq(ARTICLES));
+        assertThat(pushed(bucketAppends(1).get(0))).extracting(Comment::getId).containsExactly("retry-2");
+    }
+
+    @SuppressWarnings("unchecked")
+    private CommentGroupWriter writer(int maxSize) {
+        ContentPartitions partitions = mock(ContentPartitions.class);
+        when(partitions.lookup(eq(ID), any())).thenAnswer(invocation ->
+                ((Function<String, Object>) invocation.getArgument(1)).apply(ARTICLES));
+        return new CommentGroupWriter(mongoTemplate, partitions, contentCache, MAX_DELAY_MILLIS, maxSize, writers);
+    }
+
+    private List<Future<ContentItem>> submit(CommentGroupWriter writer, int comments) {
+        List<Future<ContentItem>> futures = new ArrayList<>();
+        for (int i = 0; i < comments; i++) {
+            String userId = i % 2 == 0 ? "u1" : "u2";
+            String text = "Comment " + i;
+            futures.add(callers.submit(() -> writer.add(ID, userId, text, null)));
+        }
+        return futures;
+    }
+
+    private static List<ContentItem> await(List<Future<ContentItem>> futures) throws Exception {
+        List<ContentItem> results = new ArrayList<>();
+        for (Future<ContentItem> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private List<UpdateDefinition> bucketAppends(int expected) {
+        return bucketAppends(expected, ArgumentCaptor.forClass(Query.class));
+    }
+
+    private List<UpdateDefinition> bucketAppends(int expected, ArgumentCaptor<Query> queries) {
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(expected)).upsert(queries.capture(), updates.capture(), eq(CommentBucket.class));
+        return updates.getAllValues();
+    }
+
+    private static int increment(UpdateDefinition update) {
+        Document inc = update != null ? update.getUpdateObject().get("$inc", Document.class) : null;
+        return inc != null ? ((Number) inc.get("commentCount")).intValue() : 0;
+    }
+
+    private static List<Comment> pushed(UpdateDefinition update) {
+        Update.Modifiers modifiers = (Update.Modifiers) update.getUpdateObject().get("$push", Document.class)
+                .get("comments");
+        List<Comment> comments = new ArrayList<>();
+        for (Update.Modifier modifier : modifiers.getModifiers()) {
+            if (modifier.getKey().equals("$each")) {
+                for (Object value : (Object[]) modifier.getValue()) {
+                    comments.add((Comment) value);
+                }
+            }
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.model.Comment;
+import com.example.cms.model.CommentBucket;
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommentServiceTest {
+    private static final String ID = "64a000000000000000000101";
+
+    private MongoTemplate mongoTemplate;
+    private CommentService commentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        ContentPartitions partitions = mock(ContentPartitions.class);
+        when(partitions.lookup(eq(ID), any())).thenAnswer(invocation ->
+                ((Function<String, Object>) invocation.getArgument(1)).apply("content.article"));
+        commentService = new CommentService(mongoTemplate, mock(UserService.class), mock(ContentCache.class),
+                partitions, mock(CommentGroupWriter.class), false);
+    }
+
+    // Two groups reserved 98..101 and 102..103, and the second reached both buckets first
+    @Test
+    void pagesFollowPositionsNotAppendOrder() {
+        givenCommentCount(104);
+        givenBuckets(
+                bucket(0, comments(0, 98), comments(98, 100)),
+                bucket(1, comments(102, 104), comments(100, 102)));
+
+        Page<Comment> page = commentService.getComments(ID, 4, 25);
+
+        assertThat(page.getTotalElements()).isEqualTo(104);
+        assertThat(page.getContent()).extracting(Comment::getPosition).containsExactly(100, 101, 102, 103);
+    }
+
+    @Test
+    void commentsWithoutPositionsAreOrderedByIndex() {
+        givenCommentCount(3);
+        List<Comment> legacy = comments(0, 3);
+        legacy.forEach(comment -> comment.setPosition(null));
+        givenBuckets(bucket(0, legacy));
+
+        Page<Comment> page = commentService.getComments(ID, 0, 2);
+
+        assertThat(page.getContent()).extracting(Comment::getId).containsExactly("c0", "c1");
+        assertThat(page.getContent()).extracting(Comment::getPosition).containsExactly(0, 1);
+    }
+
+    private void givenCommentCount(int count) {
+        ContentItem content = new ContentItem();
+        content.setId(ID);
+        content.setCommentCount(count);
+        when(mongoTemplate.findOne(any(Query.class), eq(ContentItem.class), eq("content.article"))).thenReturn(content);
+    }
+
+    private void givenBuckets(CommentBucket... buckets) {
+        when(mongoTemplate.find(any(Query.class), eq(CommentBucket.class))).thenReturn(List.of(buckets));
+    }
+
+    @SafeVarargs
+    private static CommentBucket bucket(int number, List<Comment>... appends) {
+        List<Comment> comments = new ArrayList<>();
+        for (List<Comment> append : appends) {
+            comments.addAll(append);
+        }
+        return new CommentBucket(null, ID, number, comments.size(), comments);
+    }
+
+    private static List<Comment> comments(int from, int to) {
+        List<Comment> comments = new ArrayList<>();
+        for (int position = from; position < to; position++) {
+            Comment comment = new Comment();
+            comment.setId("c" + position);
+            comment.setText("Comment " + position);
+            comment.setPosition(position);
+            comments.add(comment);
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.cms.service;
+
+import com.example.cms.cache.ContentCache;
+import com.example.cms.config.MongoIndexConfig;
+import com.example.cms.exception.ContentNotFoundException;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Uses a real ContentPartitions over a mocked template, so every Mongo call is counted
+class ContentCounterServiceTest {
+    private static final String ARTICLES = "content.article";
+    private static final String PRODUCTS = "content.product";
+    private static final String KNOWN = "64a000000000000000000101";
+    private static final String OTHER = "64a000000000000000000102";
+    private static final String UNKNOWN = "64a0000000000000000009ff";
+
+    private MongoTemplate mongoTemplate;
+    private ContentPartitions partitions;
+    private ContentCounterService counters;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(ContentItem.class)).thenReturn("content");
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of(ARTICLES, PRODUCTS));
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ContentItem.class), anyString()))
+                .thenAnswer(invocation -> mock(BulkOperations.class));
+        partitions = new ContentPartitions(mongoTemplate, mock(MongoIndexConfig.class), 100, 2, false, 60_000);
+        partitions.start();
+        partitions.remember(KNOWN, ARTICLES);
+        partitions.remember(OTHER, ARTICLES);
+        counters = new ContentCounterService(mongoTemplate, mock(ContentCache.class), partitions, 3);
+        clearInvocations(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        counters.shutdown();
+        partitions.shutdown();
+    }
+
+    @Test
+    void countingDoesNotQuery() {
+        for (int i = 0; i < 100; i++) {
+            counters.increment(KNOWN, ContentCounterService.VIEWS);
+            counters.increment(UNKNOWN, ContentCounterService.VIEWS);
+        }
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    // One bulk write for the partition of the cached routes, and no lookup per id
+    @Test
+    void flushIsOneBulkWritePerPartition() {
+        counters.increment(KNOWN, ContentCounterService.VIEWS);
+        counters.increment(KNOWN, ContentCounterService.LIKES);
+        counters.increment(OTHER, ContentCounterService.VIEWS);
+
+        counters.flush();
+
+        verify(mongoTemplate, times(1)).bulkOps(any(BulkOperations.BulkMode.class), eq(ContentItem.class), eq(ARTICLES));
+        verify(mongoTemplate, never()).exists(any(Query.class), anyString());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+
+    // Ids without a cached route cost one query per partition together, not one per id
+    @Test
+    void uncachedIdsAreLocatedTogetherAtFlush() {
+        String found = new ObjectId().toHexString();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(PRODUCTS)))
+                .thenReturn(List.of(new Document("_id", new ObjectId(found))));
+        counters.increment(found, ContentCounterService.VIEWS);
+        counters.increment(UNKNOWN, ContentCounterService.VIEWS);
+
+        counters.flush();
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq(ARTICLES));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq(PRODUCTS));
+        verify(mongoTemplate, times(1)).bulkOps(any(BulkOperations.BulkMode.class), eq(ContentItem.class), eq(PRODUCTS));
+        assertThat(partitions.knownPartition(found)).isEqualTo(PRODUCTS);
+    }
+
+    @Test
+    void unknownContentIsDroppedAtFlush() {
+        counters.increment(UNKNOWN, ContentCounterService.VIEWS);
+
+        counters.flush();
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ContentItem.class), anyString());
+        assertThat(counters.withPending(item(UNKNOWN)).getData()).doesNotContainKey("metadata");
+    }
+
+    // With max-pending counters waiting, a new unknown id is checked before it is taken
+    @Test
+    void unknownIdsAreCheckedOncePendingIsFull() {
+        counters.increment(KNOWN, ContentCounterService.VIEWS);
+        counters.increment(KNOWN, ContentCounterService.LIKES);
+        counters.increment(OTHER, ContentCounterService.VIEWS);
+
+        assertThatThrownBy(() -> counters.increment(UNKNOWN, ContentCounterService.VIEWS))
+                .isInstanceOf(ContentNotFoundException.class);
+        counters.increment(OTHER, ContentCounterService.LIKES);
+    }
+
+    @Test
+    void unknownCounterIsRejected() {
+        assertThatThrownBy(() -> counters.increment(KNOWN, "shareCount"))
+                .isInstanceOf(InvalidQueryException.class);
+    }
+
+    @Test
+    void pendingIncrementsAreAddedToReads() {
+        counters.increment(KNOWN, ContentCounterService.VIEWS);
+        counters.increment(KNOWN, ContentCounterService.VIEWS);
+        counters.increment(KNOWN, ContentCounterService.LIKES);
+
+        assertThat(counters.withPending(item(KNOWN)).getData())
+                .containsEntry("metadata", Map.of("viewCount", 2L, "likeCount", 1L));
+    }
+
+    private static ContentItem item(String id) {
+        ContentItem content = new ContentItem();
+        content.setId(id);
+        content.setType("article");
+        content.setData(Map.of("title", "Counted"));
+        return content;
+    }
+}
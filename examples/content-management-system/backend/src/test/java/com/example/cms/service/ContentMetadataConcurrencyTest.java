@@ -0,0 +1,71 @@
+package com.example.cms.service;
+
+import com.example.cms.MongoIntegrationTest;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentMetadataConcurrencyTest extends MongoIntegrationTest {
+    private static final int WRITERS = 8;
+    private static final int KEYS_PER_WRITER = 25;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private UserService userService;
+
+    // Each write sets one field in place, so concurrent writers to the same item never lose each
+    // other's keys the way read-modify-save of the whole data map would
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentMetadataWritesAreAllKept() throws Exception {
+        User author = new User();
+        author.setName("Metadata Author");
+        author.setEmail("metadata-" + System.nanoTime() + "@example.com");
+        author.setRole("EDITOR");
+        author = userService.createUser(author);
+        String id = contentService.createContent("article", Map.of("title", "Concurrent metadata"),
+                author.getId()).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int w = writer;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    for (int k = 0; k < KEYS_PER_WRITER; k++) {
+                        contentService.addMetadata(id, "meta.w" + w + "_k" + k, k);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ContentItem content = contentService.getContentById(id);
+        Map<String, Object> meta = (Map<String, Object>) content.getData().get("meta");
+        assertThat(meta).hasSize(WRITERS * KEYS_PER_WRITER);
+        assertThat(content.getData()).containsEntry("title", "Concurrent metadata");
+        assertThat(content.getRevision()).isEqualTo(WRITERS * KEYS_PER_WRITER);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.cms.service;
+
+import com.example.cms.analytics.AnalyticsService;
+import com.example.cms.cache.ContentCache;
+import com.example.cms.codec.ContentDocumentReader;
+import com.example.cms.exception.InvalidQueryException;
+import com.example.cms.media.MediaStore;
+import com.example.cms.model.Comment;
+import com.example.cms.model.ContentItem;
+import com.example.cms.model.User;
+import com.example.cms.partition.ContentPartitions;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.search.SearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ContentServiceMetadataTest {
+    private static final String ID = "64a000000000000000000101";
+    private static final String COLLECTION = "content.article";
+
+    private MongoTemplate mongoTemplate;
+    private ContentPartitions partitions;
+    private ContentService contentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        partitions = mock(ContentPartitions.class);
+        when(partitions.lookup(eq(ID), any())).thenAnswer(invocation ->
+                ((Function<String, Object>) invocation.getArgument(1)).apply(COLLECTION));
+        contentService = new ContentService(mock(UserService.class), mock(CommentService.class),
+                mock(SearchService.class), mock(ContentCache.class), mongoTemplate, new ObjectMapper(),
+                mock(ContentDocumentReader.class), mock(ContentCounterService.class), mock(RevisionService.class),
+                mock(AnalyticsService.class), mock(MediaStore.class), mock(SyncService.class), partitions);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "$where", "seo.$set", "seo..title", ".seo", "seo.", "tags.0", "a b", "seo.$[]"})
+    void rejectsKeysThatAreNotFieldPaths(String key) {
+        assertThatThrownBy(() -> contentService.addMetadata(ID, key, "x"))
+                .isInstanceOf(InvalidQueryException.class);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void rejectsMissingKey() {
+        assertThatThrownBy(() -> contentService.addMetadata(ID, null, "x"))
+                .isInstanceOf(InvalidQueryException.class);
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), eq(ContentItem.class),
+                anyString());
+    }
+
+    @Test
+    void setsOnlyTheNestedField() {
+        ContentItem stored = article();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(ContentItem.class), eq(COLLECTION)))
+                .thenReturn(stored);
+
+        ContentItem updated = contentService.addMetadata(ID, "seo.title", "Indexing in practice");
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), eq(ContentItem.class), eq(COLLECTION));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set.keySet()).containsExactlyInAnyOrder("data.seo.title", "updatedAt");
+        assertThat(updated.getData()).containsEntry("seo", Map.of("title", "Indexing in practice"));
+        assertThat(updated.getRevision()).isEqualTo(4);
+    }
+
+    // What the write sends to the server: the field update against the whole document a
+    // read-modify-save would replace
+    @Test
+    void fieldUpdateWritesAFractionOfTheDocument() {
+        ContentItem stored = article();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(ContentItem.class), eq(COLLECTION)))
+                .thenReturn(stored);
+
+        contentService.addMetadata(ID, "seo.title", "Indexing in practice");
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), eq(ContentItem.class), eq(COLLECTION));
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Document fullDocument = new Document();
+        converter.write(stored, fullDocument);
+
+        int updateBytes = bsonSize(update.getValue().getUpdateObject());
+        int documentBytes = bsonSize(fullDocument);
+        assertThat(updateBytes).isLessThan(documentBytes / 20);
+    }
+
+    private static int bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry()))
+                .getByteBuffer().remaining();
+    }
+
+    private static ContentItem article() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("title", "Indexing in practice");
+        data.put("body", "Compound indexes serve equality, sort and range in that order. ".repeat(100));
+        data.put("tags", List.of("mongodb", "indexing", "performance"));
+
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            comments.add(new Comment("c" + i, "u" + i, "Reader " + i, "Useful, thanks. ".repeat(5), new Date(),
+                    new ArrayList<>(), null));
+        }
+
+        ContentItem content = new ContentItem();
+        content.setId(ID);
+        content.setType("article");
+        content.setData(data);
+        content.setAuthor(new User("u0", "Author", "author@example.com", "EDITOR", new Date()));
+        content.setCreatedAt(new Date());
+        content.setUpdatedAt(new Date());
+        content.setComments(comments);
+        content.setCommentCount(comments.size());
+        content.setRevision(3);
+        return content;
+    }
+}
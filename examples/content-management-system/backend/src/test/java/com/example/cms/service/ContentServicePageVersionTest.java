@@ -0,0 +1,85 @@
+package com.example.cms.service;
+
+import com.example.cms.analytics.AnalyticsService;
+import com.example.cms.cache.ContentCache;
+import com.example.cms.codec.ContentDocumentReader;
+import com.example.cms.media.MediaStore;
+import com.example.cms.model.ContentItem;
+import com.example.cms.partition.ContentPartitions;
+import com.example.cms.revision.RevisionService;
+import com.example.cms.search.SearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContentServicePageVersionTest {
+    private static final String ID = "64a000000000000000000101";
+    private static final Date UPDATED_AT = new Date(1_700_000_000_000L);
+
+    private MongoTemplate mongoTemplate;
+    private ContentService contentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        ContentPartitions partitions = mock(ContentPartitions.class);
+        when(partitions.all()).thenReturn(List.of("content.article"));
+        when(partitions.gather(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            List<Object> merged = new ArrayList<>();
+            for (String collection : (List<String>) invocation.getArgument(0)) {
+                merged.addAll(((Function<String, List<Object>>) invocation.getArgument(1)).apply(collection));
+            }
+            return merged;
+        });
+        contentService = new ContentService(mock(UserService.class), mock(CommentService.class),
+                mock(SearchService.class), mock(ContentCache.class), mongoTemplate, new ObjectMapper(),
+                mock(ContentDocumentReader.class), mock(ContentCounterService.class), mock(RevisionService.class),
+                mock(AnalyticsService.class), mock(MediaStore.class), mock(SyncService.class), partitions);
+    }
+
+    // Counter flushes do not move updatedAt, but pages with data show the counters
+    @Test
+    void pageVersionChangesWithFlushedCounters() {
+        givenItem(Map.of("title", "Counted", "metadata", Map.of("viewCount", 10, "likeCount", 1)));
+        String before = contentService.getAllContent(null, 20, List.of("data")).getVersion();
+
+        givenItem(Map.of("title", "Counted", "metadata", Map.of("viewCount", 11, "likeCount", 1)));
+        String after = contentService.getAllContent(null, 20, List.of("data")).getVersion();
+
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void pageVersionIsStableWithoutChanges() {
+        givenItem(Map.of("title", "Counted", "metadata", Map.of("viewCount", 10, "likeCount", 1)));
+
+        assertThat(contentService.getAllContent(null, 20, List.of("data")).getVersion())
+                .isEqualTo(contentService.getAllContent(null, 20, List.of("data")).getVersion());
+    }
+
+    private void givenItem(Map<String, Object> data) {
+        ContentItem content = new ContentItem();
+        content.setId(ID);
+        content.setType("article");
+        content.setData(data);
+        content.setUpdatedAt(UPDATED_AT);
+        when(mongoTemplate.find(any(Query.class), eq(ContentItem.class), eq("content.article")))
+                .thenReturn(List.of(content));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cms.service;
+
+import com.example.cms.exception.SyncExpiredException;
+import com.example.cms.model.ChangeSet;
+import com.example.cms.model.ContentItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SyncServiceTest {
+    private static final long SETTLE_MILLIS = 5000;
+
+    private SyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(ContentItem.class)).thenReturn("content");
+        syncService = new SyncService(mongoTemplate, SETTLE_MILLIS, 30);
+    }
+
+    // A quiet dataset whose last change is older than the retention keeps syncing
+    @Test
+    void tokenAfterAnOldLastChangeIsNotExpired() {
+        ContentItem old = item("64a000000000000000000101", daysAgo(40));
+
+        ChangeSet<String> first = changes(null, List.of(old));
+        assertThat(first.getItems()).containsExactly(old.getId());
+        assertThat(first.isHasMore()).isFalse();
+        assertThat(SyncToken.decode(first.getNextToken()).getTime())
+                .isAfter(new Date(System.currentTimeMillis() - SETTLE_MILLIS - 60_000));
+
+        ChangeSet<String> second = changes(first.getNextToken(), List.of());
+        assertThat(second.getItems()).isEmpty();
+        assertThat(second.getDeleted()).isEmpty();
+    }
+
+    // Recent changes are held back to the settle point for writes that become visible late
+    @Test
+    void tokenAfterARecentChangeIsHeldBackToTheSettlePoint() {
+        ContentItem recent = item("64a000000000000000000102", new Date());
+
+        ChangeSet<String> changes = changes(null, List.of(recent));
+
+        assertThat(SyncToken.decode(changes.getNextToken()).getTime()).isBefore(recent.getUpdatedAt());
+    }
+
+    @Test
+    void tokenIssuedBeforeTheRetentionIsExpired() {
+        String stale = new SyncToken(daysAgo(31), null, daysAgo(31).getTime()).encode();
+
+        assertThatThrownBy(() -> changes(stale, List.of())).isInstanceOf(SyncExpiredException.class);
+    }
+
+    private ChangeSet<String> changes(String since, List<ContentItem> found) {
+        return syncService.changes(ContentItem.class, new Query(), since, 100, ContentItem::getId,
+                ContentItem::getUpdatedAt, ContentItem::getId, query -> found);
+    }
+
+    private static ContentItem item(String id, Date updatedAt) {
+        ContentItem content = new ContentItem();
+        content.setId(id);
+        content.setType("article");
+        content.setUpdatedAt(updatedAt);
+        return content;
+    }
+
+    private static Date daysAgo(int days) {
+        return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+    }
+}
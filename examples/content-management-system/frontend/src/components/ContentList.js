@@ -35,9 +35,9 @@ function ContentList({
 
   const getContentTitle = (content) => {
     if (content.type === "article") {
-      return content.data.title || "Untitled Article";
+      return content.title || "Untitled Article";
     } else if (content.type === "product") {
-      return content.data.name || "Untitled Product";
+      return content.title || "Untitled Product";
     }
     return "Untitled Content";
   };
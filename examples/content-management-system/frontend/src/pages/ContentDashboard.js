@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import {
   Container,
   Typography,
@@ -20,17 +20,22 @@ function ContentDashboard() {
   const [isEditing, setIsEditing] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  // Local copy of all content summaries, kept current with delta sync
+  const localContent = useRef({ items: {}, token: null });
 
   const fetchContent = async () => {
     setLoading(true);
     try {
-      let data;
       if (contentType === "all") {
-        data = await ApiService.getAllContent();
+        localContent.current = await ApiService.syncContent(localContent.current);
+        const items = Object.values(localContent.current.items).sort(
+          (a, b) => new Date(b.updatedAt) - new Date(a.updatedAt)
+        );
+        setContents(items);
       } else {
-        data = await ApiService.getContentByType(contentType);
+        const page = await ApiService.getContentByType(contentType);
+        setContents(page.items);
       }
-      setContents(data);
       setSelectedContent(null);
       setError(null);
     } catch (err) {
@@ -45,9 +50,18 @@ function ContentDashboard() {
     fetchContent();
   }, [contentType]);
 
-  const handleContentSelect = (content) => {
-    setSelectedContent(content);
-    setIsEditing(false);
+  const handleContentSelect = async (summary) => {
+    // The list only carries summaries; load the full document on selection
+    try {
+      const content = await ApiService.getContentById(summary.id);
+      setSelectedContent(content);
+      ApiService.recordView(summary.id).catch((err) =>
+        console.error("Error recording view:", err)
+      );
+      setIsEditing(false);
+    } catch (err) {
+      console.error("Error loading content:", err);
+    }
   };
 
   const handleContentTypeChange = (event, newValue) => {
@@ -2,37 +2,88 @@ import axios from "axios";
 
 const API_URL = "http://localhost:8081/api";
 
+// Applies change sets to a local copy, { items: { [id]: item }, token }, until caught up.
+// A 410 means the token can no longer be served; the copy is rebuilt from scratch.
+const syncChanges = async (url, local) => {
+  let items = { ...local.items };
+  let token = local.token;
+  let hasMore = true;
+  while (hasMore) {
+    let changes;
+    try {
+      const response = await axios.get(url, { params: { since: token || undefined } });
+      changes = response.data;
+    } catch (err) {
+      if (err.response && err.response.status === 410 && token) {
+        items = {};
+        token = null;
+        continue;
+      }
+      throw err;
+    }
+    changes.items.forEach((item) => {
+      items[item.id] = item;
+    });
+    changes.deleted.forEach((id) => {
+      delete items[id];
+    });
+    token = changes.nextToken;
+    hasMore = changes.hasMore;
+  }
+  return { items, token };
+};
+
 const ApiService = {
   // Content endpoints
-  getAllContent: async () => {
-    const response = await axios.get(`${API_URL}/content`);
+  // List endpoints return a page of summaries: { items, nextCursor }
+  getAllContent: async (cursor) => {
+    const response = await axios.get(`${API_URL}/content`, {
+      params: { cursor },
+    });
     return response.data;
   },
 
+  // Brings a local copy of all content summaries up to date; start with { items: {}, token: null }
+  syncContent: (local) => syncChanges(`${API_URL}/content/changes`, local),
+
   getContentById: async (id) => {
     const response = await axios.get(`${API_URL}/content/${id}`);
     return response.data;
   },
 
-  getContentByType: async (type) => {
-    const response = await axios.get(`${API_URL}/content/type/${type}`);
+  getContentByType: async (type, cursor) => {
+    const response = await axios.get(`${API_URL}/content/type/${type}`, {
+      params: { cursor },
+    });
     return response.data;
   },
 
-  getPublishedContentByType: async (type) => {
-    const response = await axios.get(`${API_URL}/content/published/${type}`);
+  getPublishedContentByType: async (type, cursor) => {
+    const response = await axios.get(`${API_URL}/content/published/${type}`, {
+      params: { cursor },
+    });
     return response.data;
   },
 
-  getContentByTag: async (tag) => {
-    const response = await axios.get(`${API_URL}/content/tag/${tag}`);
+  getContentByTag: async (tag, cursor) => {
+    const response = await axios.get(`${API_URL}/content/tag/${tag}`, {
+      params: { cursor },
+    });
     return response.data;
   },
 
-  searchContent: async (title) => {
-    const response = await axios.get(
-      `${API_URL}/content/search?title=${title}`
-    );
+  // Ranked full-text search: { total, hits, facets }
+  searchContent: async (q, options = {}) => {
+    const response = await axios.get(`${API_URL}/content/search`, {
+      params: { q, ...options },
+    });
+    return response.data;
+  },
+
+  suggestSearchTerms: async (prefix) => {
+    const response = await axios.get(`${API_URL}/content/search/suggest`, {
+      params: { prefix },
+    });
     return response.data;
   },
 
@@ -61,6 +112,13 @@ const ApiService = {
     return response.data;
   },
 
+  getComments: async (id, page = 0, size = 20) => {
+    const response = await axios.get(
+      `${API_URL}/content/${id}/comments?page=${page}&size=${size}`
+    );
+    return response.data;
+  },
+
   addReply: async (contentId, commentId, replyData) => {
     const response = await axios.post(
       `${API_URL}/content/${contentId}/comments/${commentId}/replies`,
@@ -77,16 +135,79 @@ const ApiService = {
     return response.data;
   },
 
+  recordView: async (id) => {
+    await axios.post(`${API_URL}/content/${id}/views`);
+  },
+
+  recordLike: async (id) => {
+    await axios.post(`${API_URL}/content/${id}/likes`);
+  },
+
+  getCounters: async (id) => {
+    const response = await axios.get(`${API_URL}/content/${id}/counters`);
+    return response.data;
+  },
+
   deleteContent: async (id) => {
     await axios.delete(`${API_URL}/content/${id}`);
   },
 
+  // Media endpoints
+  uploadMedia: async (file) => {
+    // Sent as the raw body; the server keeps the Content-Type as the media type
+    const response = await axios.post(`${API_URL}/media`, file, {
+      params: { filename: file.name },
+      headers: { "Content-Type": file.type || "application/octet-stream" },
+    });
+    return response.data;
+  },
+
+  getMediaUrl: (mediaId) => `${API_URL}/media/${mediaId}`,
+
+  getContentMedia: async (id) => {
+    const response = await axios.get(`${API_URL}/content/${id}/media`);
+    return response.data;
+  },
+
+  attachMedia: async (id, mediaId) => {
+    const response = await axios.put(`${API_URL}/content/${id}/media/${mediaId}`);
+    return response.data;
+  },
+
+  detachMedia: async (id, mediaId) => {
+    const response = await axios.delete(`${API_URL}/content/${id}/media/${mediaId}`);
+    return response.data;
+  },
+
+  // Analytics endpoints
+  getTypeCounts: async () => {
+    const response = await axios.get(`${API_URL}/analytics/types`);
+    return response.data;
+  },
+
+  getTopTags: async (limit = 20) => {
+    const response = await axios.get(`${API_URL}/analytics/tags?limit=${limit}`);
+    return response.data;
+  },
+
+  getCommentsPerDay: async (from, to) => {
+    const params = new URLSearchParams();
+    if (from) params.append("from", from);
+    if (to) params.append("to", to);
+    const response = await axios.get(
+      `${API_URL}/analytics/comments-per-day?${params.toString()}`
+    );
+    return response.data;
+  },
+
   // User endpoints
   getAllUsers: async () => {
     const response = await axios.get(`${API_URL}/users`);
     return response.data;
   },
 
+  syncUsers: (local) => syncChanges(`${API_URL}/users/changes`, local),
+
   getUserById: async (id) => {
     const response = await axios.get(`${API_URL}/users/${id}`);
     return response.data;
@@ -7,10 +7,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import java.math.BigDecimal;
 
+// Seeds through the services on the main thread; fast-start loads a snapshot instead (SnapshotLoader)
 @Configuration
+@Profile("!fast-start")
 public class DataInitializer {
 
     @Bean
@@ -0,0 +1,64 @@
+package com.example.finance.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Seeds the fast-start profile from a prebuilt SQL snapshot. Runs as one script on a background
+// thread once the application is ready, so startup does not wait for it; requests for sample
+// data return 404 until it is loaded. Replaces DataInitializer, which is not active in fast-start.
+@Component
+@Profile("fast-start")
+public class SnapshotLoader {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotLoader.class);
+
+    private final DataSource dataSource;
+    private final ResourceLoader resourceLoader;
+    private final String location;
+
+    @Autowired
+    public SnapshotLoader(DataSource dataSource, ResourceLoader resourceLoader,
+                          @Value("${finance.snapshot.location:}") String location) {
+        this.dataSource = dataSource;
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (location.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(this::load, "snapshot-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        try {
+            // A database that already has accounts, e.g. a file database, is left alone
+            Integer accounts = new JdbcTemplate(dataSource).queryForObject("select count(*) from accounts", Integer.class);
+            if (accounts != null && accounts > 0) {
+                log.info("Sample data already present, skipping snapshot {}", location);
+                return;
+            }
+            Resource snapshot = resourceLoader.getResource(location);
+            new ResourceDatabasePopulator(snapshot).execute(dataSource);
+            log.info("Loaded snapshot {} in {} ms", location, System.currentTimeMillis() - started);
+        } catch (RuntimeException ex) {
+            log.error("Could not load snapshot {}", location, ex);
+        }
+    }
+}
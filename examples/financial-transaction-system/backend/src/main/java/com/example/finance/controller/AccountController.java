@@ -1,6 +1,7 @@
 package com.example.finance.controller;
 
 import com.example.finance.model.Account;
+import com.example.finance.monitoring.QueryBudget;
 import com.example.finance.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,24 +29,28 @@ public class AccountController {
 
     @GetMapping
     @Operation(summary = "Get all accounts", description = "Retrieves a list of all accounts")
+    @QueryBudget(1)
     public ResponseEntity<List<Account>> getAllAccounts() {
         return ResponseEntity.ok(accountService.getAllAccounts());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get account by ID", description = "Retrieves an account by its ID")
+    @QueryBudget(1)
     public ResponseEntity<Account> getAccountById(@PathVariable Long id) {
         return ResponseEntity.ok(accountService.getAccountById(id));
     }
 
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get accounts by customer ID", description = "Retrieves all accounts belonging to a customer")
+    @QueryBudget(1)
     public ResponseEntity<List<Account>> getAccountsByCustomerId(@PathVariable Long customerId) {
         return ResponseEntity.ok(accountService.getAccountsByCustomerId(customerId));
     }
 
     @PostMapping
     @Operation(summary = "Create a new account", description = "Creates a new account with the given details")
+    @QueryBudget(1)
     public ResponseEntity<Account> createAccount(@RequestBody Map<String, Object> request) {
         Long customerId = Long.parseLong(request.get("customerId").toString());
         String accountType = request.get("accountType").toString();
@@ -57,6 +62,7 @@ public class AccountController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Update an account", description = "Updates an existing account with the given details")
+    @QueryBudget(2)
     public ResponseEntity<Account> updateAccount(@PathVariable Long id, @RequestBody Account accountDetails) {
         return ResponseEntity.ok(accountService.updateAccount(id, accountDetails));
     }
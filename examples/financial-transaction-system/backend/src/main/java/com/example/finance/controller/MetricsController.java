@@ -0,0 +1,31 @@
+package com.example.finance.controller;
+
+import com.example.finance.monitoring.EndpointQueryStats;
+import com.example.finance.monitoring.QueryAccounting;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Metrics Controller", description = "APIs for operational metrics")
+public class MetricsController {
+
+    private final QueryAccounting queryAccounting;
+
+    @Autowired
+    public MetricsController(QueryAccounting queryAccounting) {
+        this.queryAccounting = queryAccounting;
+    }
+
+    @GetMapping("/queries")
+    @Operation(summary = "Get query statistics", description = "SQL statements per request for each endpoint since startup, most queries first")
+    public ResponseEntity<List<EndpointQueryStats>> getQueryStats() {
+        return ResponseEntity.ok(queryAccounting.getEndpointStats());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.finance.controller;
 
 import com.example.finance.model.Transaction;
+import com.example.finance.monitoring.QueryBudget;
 import com.example.finance.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,6 +28,7 @@ public class TransferController {
 
     @PostMapping
     @Operation(summary = "Transfer funds", description = "Transfers funds from one account to another")
+    @QueryBudget(5)
     public ResponseEntity<Transaction> transferFunds(@RequestBody Map<String, Object> request) {
         Long fromAccountId = Long.parseLong(request.get("fromAccountId").toString());
         Long toAccountId = Long.parseLong(request.get("toAccountId").toString());
@@ -38,6 +40,7 @@ public class TransferController {
 
     @GetMapping("/account/{accountId}")
     @Operation(summary = "Get transaction history", description = "Retrieves transaction history for a specific account")
+    @QueryBudget(2)
     public ResponseEntity<List<Transaction>> getTransactionHistory(@PathVariable Long accountId) {
         List<Transaction> transactions = transferService.getTransactionsByAccountId(accountId);
         return ResponseEntity.ok(transactions);
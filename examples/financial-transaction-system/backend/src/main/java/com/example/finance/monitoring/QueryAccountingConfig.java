@@ -0,0 +1,53 @@
+package com.example.finance.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryAccountingConfig implements WebMvcConfigurer {
+    private final QueryAccounting queryAccounting;
+
+    public QueryAccountingConfig(QueryAccounting queryAccounting) {
+        this.queryAccounting = queryAccounting;
+    }
+
+    // Static, so the post processor does not force this configuration to be created early
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(ObjectProvider<QueryAccounting> queryAccounting) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource
+                        ? QueryCountingDataSource.wrap((DataSource) bean, queryAccounting.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    // Hands the endpoint's budget to the request's QueryStats once the handler is known
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod) {
+                    QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+                    if (budget != null) {
+                        queryAccounting.setBudget(budget.value());
+                    }
+                }
+                return true;
+            }
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.finance.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Most SQL statements one request to the annotated endpoint may issue. Going over is logged as an
+// error, and with finance.query-accounting.strict=true the request fails before the body is written.
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+    int value();
+}
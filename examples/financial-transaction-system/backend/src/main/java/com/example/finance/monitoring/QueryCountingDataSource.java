@@ -0,0 +1,81 @@
+package com.example.finance.monitoring;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// JDK proxies around the data source, its connections and their statements. Every execute*
+// call on a statement is timed and reported to QueryAccounting; everything else, including
+// unwrap for pool-specific lookups, goes straight to the target.
+final class QueryCountingDataSource {
+
+    private QueryCountingDataSource() {
+    }
+
+    static DataSource wrap(DataSource dataSource, QueryAccounting accounting) {
+        // Keep close() reachable so the pool is still shut down with the context
+        Class<?>[] interfaces = dataSource instanceof Closeable
+                ? new Class<?>[]{DataSource.class, Closeable.class}
+                : new Class<?>[]{DataSource.class};
+        return (DataSource) proxy(dataSource, interfaces, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection ? connection((Connection) result, accounting) : result;
+        });
+    }
+
+    private static Connection connection(Connection connection, QueryAccounting accounting) {
+        return (Connection) proxy(connection, new Class<?>[]{Connection.class}, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement) {
+                return statement(result, CallableStatement.class, (String) args[0], accounting);
+            }
+            if (result instanceof PreparedStatement) {
+                return statement(result, PreparedStatement.class, (String) args[0], accounting);
+            }
+            if (result instanceof Statement) {
+                return statement(result, Statement.class, null, accounting);
+            }
+            return result;
+        });
+    }
+
+    // sql is known up front for prepared statements and passed to execute for plain ones
+    private static Object statement(Object statement, Class<?> type, String sql, QueryAccounting accounting) {
+        return proxy(statement, new Class<?>[]{type}, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            String executed = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : "batch";
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                accounting.record(executed, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static Object proxy(Object target, Class<?>[] interfaces, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), interfaces, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
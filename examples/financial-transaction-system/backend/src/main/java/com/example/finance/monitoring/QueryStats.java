@@ -0,0 +1,97 @@
+package com.example.finance.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Statements issued while handling one request, or one QueryAccounting.measure call. Only
+// touched by the thread that owns it.
+public class QueryStats {
+    private final String request;
+    private final QueryStats enclosing;
+    private final long started = System.nanoTime();
+    private int count;
+    private long queryNanos;
+    private int slowCount;
+    private int budget = -1;
+
+    private final Map<String, Integer> executions = new HashMap<>();
+    // Statements that reached the repeat threshold, with where the repeats come from
+    private final Map<String, String> repeated = new LinkedHashMap<>();
+
+    QueryStats(String request) {
+        this(request, null);
+    }
+
+    QueryStats(String request, QueryStats enclosing) {
+        this.request = request;
+        this.enclosing = enclosing;
+    }
+
+    // Returns how often this statement has now run
+    int add(String statement, long nanos) {
+        count++;
+        queryNanos += nanos;
+        return executions.merge(statement, 1, Integer::sum);
+    }
+
+    void addAll(QueryStats other) {
+        count += other.count;
+        queryNanos += other.queryNanos;
+        slowCount += other.slowCount;
+        other.executions.forEach((statement, executions) -> this.executions.merge(statement, executions, Integer::sum));
+        repeated.putAll(other.repeated);
+    }
+
+    void addRepeated(String statement, String origin) {
+        repeated.put(statement, origin);
+    }
+
+    void addSlow() {
+        slowCount++;
+    }
+
+    void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    QueryStats getEnclosing() {
+        return enclosing;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getQueryMillis() {
+        return queryNanos / 1_000_000;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    public int getSlowCount() {
+        return slowCount;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget >= 0 && count > budget;
+    }
+
+    public int getExecutions(String statement) {
+        return executions.getOrDefault(statement, 0);
+    }
+
+    public Map<String, String> getRepeated() {
+        return repeated;
+    }
+}
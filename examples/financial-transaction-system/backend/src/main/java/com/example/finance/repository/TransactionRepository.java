@@ -1,6 +1,7 @@
 package com.example.finance.repository;
 
 import com.example.finance.model.Transaction;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,6 +10,10 @@ import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    // Both accounts are fetched in the same query instead of one select per distinct account
+    @EntityGraph(attributePaths = {"fromAccount", "toAccount"})
     List<Transaction> findByFromAccountAccountIdOrToAccountAccountId(Long accountId, Long sameAccountId);
+
+    @EntityGraph(attributePaths = {"fromAccount", "toAccount"})
     List<Transaction> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 }
@@ -0,0 +1,31 @@
+-- Schema of the accounts and transactions entities, as Hibernate generates it for H2. Used by the
+-- fast-start profile instead of ddl-auto=update; Hibernate validates the entities against it.
+-- Runs on every new pooled connection (INIT in the JDBC URL), so every statement is idempotent.
+
+create table if not exists accounts (
+    account_id bigint generated by default as identity,
+    account_type varchar(255) not null,
+    balance numeric(19,2) not null,
+    created_at timestamp not null,
+    customer_id bigint not null,
+    status varchar(255) not null,
+    primary key (account_id)
+);
+
+create table if not exists transactions (
+    transaction_id bigint generated by default as identity,
+    amount numeric(19,2) not null,
+    created_at timestamp not null,
+    reference_number varchar(255) not null,
+    status varchar(255) not null,
+    type varchar(255) not null,
+    from_account_id bigint,
+    to_account_id bigint,
+    primary key (transaction_id)
+);
+
+alter table transactions add constraint if not exists fk_transactions_from_account
+    foreign key (from_account_id) references accounts;
+
+alter table transactions add constraint if not exists fk_transactions_to_account
+    foreign key (to_account_id) references accounts;
@@ -0,0 +1,18 @@
+-- The sample data DataInitializer creates through the service layer: four accounts and three
+-- transfers, with the balances after those transfers. Loaded in one script by the fast-start
+-- profile.
+
+insert into accounts (account_id, customer_id, account_type, balance, created_at, status) values
+    (1, 1001, 'SAVINGS', 4500.00, localtimestamp, 'ACTIVE'),
+    (2, 1001, 'CHECKING', 2750.00, localtimestamp, 'ACTIVE'),
+    (3, 1002, 'SAVINGS', 9250.00, localtimestamp, 'ACTIVE'),
+    (4, 1002, 'CHECKING', 4000.00, localtimestamp, 'ACTIVE');
+
+insert into transactions (transaction_id, from_account_id, to_account_id, amount, type, status, created_at, reference_number) values
+    (1, 1, 2, 500.00, 'TRANSFER', 'COMPLETED', localtimestamp, 'TXN0000000000001'),
+    (2, 3, 4, 1000.00, 'TRANSFER', 'COMPLETED', localtimestamp, 'TXN0000000000002'),
+    (3, 2, 3, 250.00, 'TRANSFER', 'COMPLETED', localtimestamp, 'TXN0000000000003');
+
+-- New rows continue after the snapshot's ids
+alter table accounts alter column account_id restart with 5;
+alter table transactions alter column transaction_id restart with 4;
@@ -0,0 +1,82 @@
+package com.example.finance.controller;
+
+import com.example.finance.model.Account;
+import com.example.finance.monitoring.QueryAccounting;
+import com.example.finance.service.AccountService;
+import com.example.finance.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Counts the statements the data source proxy sees for whole requests, filter to response. The
+// limits are the endpoints' @QueryBudget, which strict mode also enforces inside the request.
+@SpringBootTest(properties = "finance.query-accounting.strict=true")
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+    private static final int HISTORY_SIZE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    private Account source;
+    private Account target;
+
+    @BeforeEach
+    void setUp() {
+        source = accountService.createAccount(2001L, "CHECKING", new BigDecimal("1000.00"));
+        target = accountService.createAccount(2002L, "SAVINGS", new BigDecimal("1000.00"));
+        // Each transaction with its own counterparty, so loading them one by one would show
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            Account other = accountService.createAccount(3000L + i, "CHECKING", new BigDecimal("100.00"));
+            transferService.transferFunds(source.getAccountId(), other.getAccountId(), new BigDecimal("1.00"));
+        }
+    }
+
+    @Test
+    void transferStaysWithinItsBudget() {
+        expectAtMost(5, post("/api/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\": " + source.getAccountId() + ", \"toAccountId\": "
+                        + target.getAccountId() + ", \"amount\": \"10.00\"}"));
+    }
+
+    @Test
+    void accountHistoryStaysWithinItsBudget() {
+        expectAtMost(2, get("/api/transfers/account/{accountId}", source.getAccountId()));
+    }
+
+    @Test
+    void exceedingTheBudgetFailsTheTest() {
+        assertThatThrownBy(() -> expectAtMost(1, get("/api/transfers/account/{accountId}", source.getAccountId())))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("Expected at most 1 queries but 2");
+    }
+
+    private void expectAtMost(int maxQueries, RequestBuilder request) {
+        QueryAccounting.expectAtMost(maxQueries, () -> {
+            try {
+                mockMvc.perform(request).andExpect(status().isOk());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+}
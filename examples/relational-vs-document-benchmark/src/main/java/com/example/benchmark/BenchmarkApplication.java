@@ -0,0 +1,111 @@
+package com.example.benchmark;
+
+import com.example.benchmark.scenario.DocumentAccountScenario;
+import com.example.benchmark.scenario.DocumentContentScenario;
+import com.example.benchmark.scenario.RelationalAccountScenario;
+import com.example.benchmark.scenario.RelationalContentScenario;
+import com.example.benchmark.scenario.Scenario;
+import com.example.benchmark.serialization.SerializationBenchmark;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Loads the same generated data into H2 and MongoDB at each size and runs the same read, write
+// and mixed workloads against both, then compares the wire formats of content payloads. The
+// report goes to stdout and, with --output, to a file.
+public class BenchmarkApplication {
+
+    public static void main(String[] args) throws IOException {
+        BenchmarkOptions options = BenchmarkOptions.parse(args);
+        Path h2Directory = options.getH2Directory() != null
+                ? Files.createDirectories(Paths.get(options.getH2Directory()))
+                : Files.createTempDirectory("benchmark-h2");
+
+        MongoClient mongoClient = null;
+        List<Scenario> scenarios = new ArrayList<>();
+        try {
+            if (options.getStores().contains("mongodb")) {
+                mongoClient = MongoClients.create(MongoClientSettings.builder()
+                        .applyConnectionString(new ConnectionString(options.getMongoUri()))
+                        .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(5, TimeUnit.SECONDS))
+                        .build());
+            }
+            for (String model : options.getModels()) {
+                scenarios.addAll(scenarios(model, options, h2Directory, mongoClient));
+            }
+
+            BenchmarkRunner runner = new BenchmarkRunner(options.getWarmup(), options.getOperations(), options.getSeed());
+            BenchmarkReport report = new BenchmarkReport(options);
+            for (int size : options.getSizes()) {
+                for (Scenario scenario : scenarios) {
+                    System.err.printf("Loading %d %s records into %s%n", size, scenario.getModel(), scenario.getStore());
+                    scenario.load(size, new Random(options.getSeed() + size));
+                    long bytesStored = scenario.bytesStored();
+                    // Writes stay in place for the next workload; every store runs them in the same order
+                    for (Workload workload : options.getWorkloads()) {
+                        System.err.printf("Running %s on %d %s records in %s%n", workload, size, scenario.getModel(),
+                                scenario.getStore());
+                        report.add(runner.run(scenario, size, workload, bytesStored));
+                    }
+                }
+            }
+            if (options.getModels().contains("serialization")) {
+                report.addSerialization(new SerializationBenchmark(options.getWarmup(), options.getOperations(),
+                        options.getSeed()).run());
+            }
+
+            String markdown = report.toMarkdown();
+            System.out.println(markdown);
+            if (options.getOutput() != null) {
+                Files.write(Paths.get(options.getOutput()), markdown.getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            scenarios.forEach(Scenario::close);
+            if (mongoClient != null) {
+                mongoClient.close();
+            }
+        }
+    }
+
+    private static List<Scenario> scenarios(String model, BenchmarkOptions options, Path h2Directory,
+                                            MongoClient mongoClient) {
+        MongoDatabase database = mongoClient != null ? mongoClient.getDatabase(options.getMongoDatabase()) : null;
+        List<Scenario> scenarios = new ArrayList<>();
+        switch (model) {
+            case "content":
+                if (options.getStores().contains("h2")) {
+                    scenarios.add(new RelationalContentScenario(h2Directory));
+                }
+                if (database != null) {
+                    scenarios.add(new DocumentContentScenario(database));
+                }
+                break;
+            case "accounts":
+                if (options.getStores().contains("h2")) {
+                    scenarios.add(new RelationalAccountScenario(h2Directory));
+                }
+                if (database != null) {
+                    scenarios.add(new DocumentAccountScenario(mongoClient, database));
+                }
+                break;
+            case "serialization":
+                // Runs in process after the stores, see SerializationBenchmark
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown model: " + model);
+        }
+        return scenarios;
+    }
+}
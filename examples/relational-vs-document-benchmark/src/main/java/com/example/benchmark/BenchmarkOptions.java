@@ -0,0 +1,88 @@
+package com.example.benchmark;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Command line options in the --name=value form used by the Spring Boot apps
+@Data
+public class BenchmarkOptions {
+    private List<Integer> sizes = Arrays.asList(1_000, 10_000);
+    private List<String> models = Arrays.asList("content", "accounts", "serialization");
+    private List<String> stores = Arrays.asList("h2", "mongodb");
+    private List<Workload> workloads = Arrays.asList(Workload.values());
+    private int operations = 5_000;
+    private int warmup = 1_000;
+    private long seed = 42;
+    private String mongoUri = "mongodb://localhost:27017";
+    private String mongoDatabase = "benchmark";
+    private String h2Directory;
+    private String output;
+
+    public static BenchmarkOptions parse(String[] args) {
+        BenchmarkOptions options = new BenchmarkOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "sizes":
+                    options.sizes = list(value).stream().map(Integer::parseInt).collect(Collectors.toList());
+                    break;
+                case "models":
+                    options.models = list(value);
+                    break;
+                case "stores":
+                    options.stores = list(value);
+                    break;
+                case "workloads":
+                    options.workloads = list(value).stream().map(String::toUpperCase).map(Workload::valueOf)
+                            .collect(Collectors.toList());
+                    break;
+                case "operations":
+                    options.operations = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    options.warmup = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "mongo-uri":
+                    options.mongoUri = value;
+                    break;
+                case "mongo-database":
+                    options.mongoDatabase = value;
+                    break;
+                case "h2-dir":
+                    options.h2Directory = value;
+                    break;
+                case "output":
+                    options.output = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (options.operations < 1 || options.warmup < 0 || options.sizes.stream().anyMatch(size -> size < 1)) {
+            throw new IllegalArgumentException("Sizes and operations must be positive, warmup must not be negative");
+        }
+        return options;
+    }
+
+    private static List<String> list(String value) {
+        List<String> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                values.add(item.trim().toLowerCase());
+            }
+        }
+        return values;
+    }
+}
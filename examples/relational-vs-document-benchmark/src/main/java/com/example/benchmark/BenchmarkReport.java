@@ -0,0 +1,115 @@
+package com.example.benchmark;
+
+import com.example.benchmark.serialization.SerializationResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Markdown report: every result, then the document store relative to the relational one, then
+// the wire formats
+public class BenchmarkReport {
+    private final BenchmarkOptions options;
+    private final List<BenchmarkResult> results = new ArrayList<>();
+    private final List<SerializationResult> serialization = new ArrayList<>();
+
+    public BenchmarkReport(BenchmarkOptions options) {
+        this.options = options;
+    }
+
+    public void add(BenchmarkResult result) {
+        results.add(result);
+    }
+
+    public void addSerialization(List<SerializationResult> serializationResults) {
+        serialization.addAll(serializationResults);
+    }
+
+    public String toMarkdown() {
+        StringBuilder out = new StringBuilder();
+        out.append("# Relational vs document benchmark\n\n");
+        out.append(format("%d measured operations after %d warmup operations per run, seed %d, single thread.%n%n",
+                options.getOperations(), options.getWarmup(), options.getSeed()));
+
+        if (!results.isEmpty()) {
+            appendStores(out);
+        }
+        if (!serialization.isEmpty()) {
+            appendSerialization(out);
+        }
+        return out.toString();
+    }
+
+    private void appendStores(StringBuilder out) {
+        out.append("| Records | Model | Store | Workload | ops/s | p50 us | p95 us | p99 us | max us | Bytes stored | Bytes/read |\n");
+        out.append("|---:|---|---|---|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (BenchmarkResult result : results) {
+            out.append(format("| %d | %s | %s | %s | %.0f | %.1f | %.1f | %.1f | %.1f | %d | %.0f |%n",
+                    result.getSize(), result.getModel(), result.getStore(), result.getWorkload(),
+                    result.getOperationsPerSecond(), result.getP50Micros(), result.getP95Micros(),
+                    result.getP99Micros(), result.getMaxMicros(), result.getBytesStored(), result.getBytesPerRead()));
+        }
+
+        // Pairs up the H2 and MongoDB runs of the same size, model and workload
+        Map<String, BenchmarkResult[]> pairs = new LinkedHashMap<>();
+        for (BenchmarkResult result : results) {
+            String key = result.getSize() + "|" + result.getModel() + "|" + result.getWorkload();
+            pairs.computeIfAbsent(key, k -> new BenchmarkResult[2])[result.getStore().equals("H2") ? 0 : 1] = result;
+        }
+        boolean header = false;
+        for (BenchmarkResult[] pair : pairs.values()) {
+            if (pair[0] == null || pair[1] == null) {
+                continue;
+            }
+            if (!header) {
+                out.append("\n## Document relative to relational\n\n");
+                out.append("Values above 1 mean the document store has more of it.\n\n");
+                out.append("| Records | Model | Workload | ops/s | p99 | Bytes stored | Bytes/read |\n");
+                out.append("|---:|---|---|---:|---:|---:|---:|\n");
+                header = true;
+            }
+            BenchmarkResult relational = pair[0];
+            BenchmarkResult document = pair[1];
+            out.append(format("| %d | %s | %s | %s | %s | %s | %s |%n", relational.getSize(), relational.getModel(),
+                    relational.getWorkload(),
+                    ratio(document.getOperationsPerSecond(), relational.getOperationsPerSecond()),
+                    ratio(document.getP99Micros(), relational.getP99Micros()),
+                    ratio(document.getBytesStored(), relational.getBytesStored()),
+                    ratio(document.getBytesPerRead(), relational.getBytesPerRead())));
+        }
+    }
+
+    private void appendSerialization(StringBuilder out) {
+        out.append(results.isEmpty() ? "" : "\n").append("## Wire formats\n\n");
+        out.append("Content payloads encoded and decoded with Jackson, averaged per payload. ");
+        out.append("The ratios compare each format with JSON for the same payload.\n\n");
+        out.append("| Payload | Format | Bytes | Gzip bytes | Encode us | Decode us | Bytes vs JSON | Gzip vs JSON | Encode vs JSON | Decode vs JSON |\n");
+        out.append("|---|---|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+        Map<String, SerializationResult> json = new LinkedHashMap<>();
+        for (SerializationResult result : serialization) {
+            if (result.getFormat().equals("JSON")) {
+                json.put(result.getPayload(), result);
+            }
+        }
+        for (SerializationResult result : serialization) {
+            SerializationResult baseline = json.get(result.getPayload());
+            out.append(format("| %s | %s | %.0f | %.0f | %.1f | %.1f | %s | %s | %s | %s |%n", result.getPayload(),
+                    result.getFormat(), result.getBytes(), result.getGzipBytes(), result.getEncodeMicros(),
+                    result.getDecodeMicros(),
+                    baseline != null ? ratio(result.getBytes(), baseline.getBytes()) : "-",
+                    baseline != null ? ratio(result.getGzipBytes(), baseline.getGzipBytes()) : "-",
+                    baseline != null ? ratio(result.getEncodeMicros(), baseline.getEncodeMicros()) : "-",
+                    baseline != null ? ratio(result.getDecodeMicros(), baseline.getDecodeMicros()) : "-"));
+        }
+    }
+
+    private static String ratio(double value, double baseline) {
+        return baseline > 0 ? format("%.2fx", value / baseline) : "-";
+    }
+
+    private static String format(String pattern, Object... args) {
+        return String.format(Locale.ROOT, pattern, args);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BenchmarkResult {
+    private int size;
+    private String model;
+    private String store;
+    private Workload workload;
+    private int operations;
+    private double operationsPerSecond;
+    private double p50Micros;
+    private double p95Micros;
+    private double p99Micros;
+    private double maxMicros;
+    private long bytesStored;
+    // Averaged over the reads only; writes do not return data
+    private double bytesPerRead;
+}
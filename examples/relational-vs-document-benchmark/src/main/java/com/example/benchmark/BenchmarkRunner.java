@@ -0,0 +1,67 @@
+package com.example.benchmark;
+
+import com.example.benchmark.scenario.Scenario;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Runs one workload against one loaded scenario on a single thread, so the numbers show the cost
+// of the data model and the store rather than of contention
+public class BenchmarkRunner {
+    private final int warmup;
+    private final int operations;
+    private final long seed;
+
+    public BenchmarkRunner(int warmup, int operations, long seed) {
+        this.warmup = warmup;
+        this.operations = operations;
+        this.seed = seed;
+    }
+
+    public BenchmarkResult run(Scenario scenario, int size, Workload workload, long bytesStored) {
+        // Same seed per size and workload, so every store sees the same keys in the same order
+        Random random = new Random(seed * 31 + size * 7L + workload.ordinal());
+
+        for (int i = 0; i < warmup; i++) {
+            execute(scenario, size, workload, random);
+        }
+
+        long[] latencies = new long[operations];
+        long bytesRead = 0;
+        int reads = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            long start = System.nanoTime();
+            long bytes = execute(scenario, size, workload, random);
+            latencies[i] = System.nanoTime() - start;
+            if (bytes >= 0) {
+                bytesRead += bytes;
+                reads++;
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        return new BenchmarkResult(size, scenario.getModel(), scenario.getStore(), workload, operations,
+                operations / (elapsed / 1_000_000_000.0),
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1000.0, bytesStored,
+                reads > 0 ? (double) bytesRead / reads : 0);
+    }
+
+    // Returns the bytes read, or -1 for a write
+    private static long execute(Scenario scenario, int size, Workload workload, Random random) {
+        boolean read = random.nextDouble() < workload.getReadRatio();
+        int key = random.nextInt(size);
+        if (read) {
+            return scenario.read(key);
+        }
+        scenario.write(key, random);
+        return -1;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.benchmark;
+
+// The share of operations that are reads; the rest are writes
+public enum Workload {
+    READ(1.0),
+    MIXED(0.8),
+    WRITE(0.0);
+
+    private final double readRatio;
+
+    Workload(double readRatio) {
+        this.readRatio = readRatio;
+    }
+
+    public double getReadRatio() {
+        return readRatio;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.benchmark.scenario;
+
+public class BenchmarkException extends RuntimeException {
+
+    public BenchmarkException(String message) {
+        super(message);
+    }
+
+    public BenchmarkException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
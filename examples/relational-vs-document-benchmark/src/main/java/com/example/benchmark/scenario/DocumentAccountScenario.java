@@ -0,0 +1,137 @@
+package com.example.benchmark.scenario;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Decimal128;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Accounts and transfers in two collections. A transfer is a multi-document transaction, which
+// needs a replica set; against a standalone server the writes run without one and the store
+// is reported as such, since the numbers are then not comparable with H2.
+public class DocumentAccountScenario extends MongoScenario {
+    private static final String ACCOUNTS = "accounts";
+    private static final String TRANSFERS = "transfers";
+    private static final int BATCH_SIZE = 1000;
+    private static final int HISTORY = 10;
+
+    private final MongoClient client;
+    private final boolean transactional;
+    private final MongoCollection<Document> accounts;
+    private final MongoCollection<Document> transfers;
+    private final MongoCollection<RawBsonDocument> rawAccounts;
+    private final MongoCollection<RawBsonDocument> rawTransfers;
+
+    private int size;
+
+    public DocumentAccountScenario(MongoClient client, MongoDatabase database) {
+        super(database);
+        this.client = client;
+        this.transactional = client.getDatabase("admin").runCommand(new Document("isMaster", 1)).containsKey("setName");
+        this.accounts = database.getCollection(ACCOUNTS);
+        this.transfers = database.getCollection(TRANSFERS);
+        this.rawAccounts = database.getCollection(ACCOUNTS, RawBsonDocument.class);
+        this.rawTransfers = database.getCollection(TRANSFERS, RawBsonDocument.class);
+    }
+
+    @Override
+    public String getModel() {
+        return "accounts";
+    }
+
+    @Override
+    public String getStore() {
+        return transactional ? super.getStore() : super.getStore() + " (no txn)";
+    }
+
+    @Override
+    protected List<String> collections() {
+        return Arrays.asList(ACCOUNTS, TRANSFERS);
+    }
+
+    @Override
+    public void load(int size, Random random) {
+        this.size = size;
+        drop();
+        transfers.createIndex(Indexes.compoundIndex(Indexes.ascending("fromId"), Indexes.descending("createdAt")));
+        transfers.createIndex(Indexes.compoundIndex(Indexes.ascending("toId"), Indexes.descending("createdAt")));
+
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 0; id < size; id++) {
+            SampleData.Account account = SampleData.account(random, id);
+            batch.add(new Document("_id", id)
+                    .append("owner", account.getOwner())
+                    .append("balance", new Decimal128(account.getBalance())));
+            if (batch.size() == BATCH_SIZE || id == size - 1) {
+                accounts.insertMany(batch);
+                batch.clear();
+            }
+        }
+        int count = size * SampleData.TRANSFERS_PER_ACCOUNT;
+        for (int i = 0; i < count; i++) {
+            batch.add(transfer(SampleData.transfer(random, i % size, size)));
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                transfers.insertMany(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public long read(int key) {
+        RawBsonDocument account = rawAccounts.find(Filters.eq("_id", key)).first();
+        if (account == null) {
+            throw new BenchmarkException("Account " + key + " not found");
+        }
+        long bytes = account.getByteBuffer().remaining();
+        for (RawBsonDocument transfer : rawTransfers
+                .find(Filters.or(Filters.eq("fromId", key), Filters.eq("toId", key)))
+                .sort(Sorts.descending("createdAt"))
+                .limit(HISTORY)) {
+            bytes += transfer.getByteBuffer().remaining();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void write(int key, Random random) {
+        SampleData.Transfer transfer = SampleData.transfer(random, key, size);
+        Document document = transfer(transfer);
+        Decimal128 debit = new Decimal128(transfer.getAmount().negate());
+        Decimal128 credit = new Decimal128(transfer.getAmount());
+
+        if (!transactional) {
+            accounts.updateOne(Filters.eq("_id", transfer.getFromId()), Updates.inc("balance", debit));
+            accounts.updateOne(Filters.eq("_id", transfer.getToId()), Updates.inc("balance", credit));
+            transfers.insertOne(document);
+            return;
+        }
+        try (ClientSession session = client.startSession()) {
+            session.withTransaction(() -> {
+                accounts.updateOne(session, Filters.eq("_id", transfer.getFromId()), Updates.inc("balance", debit));
+                accounts.updateOne(session, Filters.eq("_id", transfer.getToId()), Updates.inc("balance", credit));
+                transfers.insertOne(session, document);
+                return null;
+            });
+        }
+    }
+
+    private static Document transfer(SampleData.Transfer transfer) {
+        return new Document("fromId", transfer.getFromId())
+                .append("toId", transfer.getToId())
+                .append("amount", new Decimal128(transfer.getAmount()))
+                .append("description", transfer.getDescription())
+                .append("createdAt", transfer.getCreatedAt());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.benchmark.scenario;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Content with its comments and replies embedded, as in the content management system
+public class DocumentContentScenario extends MongoScenario {
+    private static final String COLLECTION = "content";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoCollection<Document> content;
+    private final MongoCollection<RawBsonDocument> rawContent;
+
+    public DocumentContentScenario(MongoDatabase database) {
+        super(database);
+        this.content = database.getCollection(COLLECTION);
+        this.rawContent = database.getCollection(COLLECTION, RawBsonDocument.class);
+    }
+
+    @Override
+    public String getModel() {
+        return "content";
+    }
+
+    @Override
+    protected List<String> collections() {
+        return Collections.singletonList(COLLECTION);
+    }
+
+    @Override
+    public void load(int size, Random random) {
+        drop();
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 0; id < size; id++) {
+            SampleData.Content item = SampleData.content(random, id);
+            List<Document> comments = new ArrayList<>();
+            for (SampleData.Comment comment : item.getComments()) {
+                List<Document> replies = new ArrayList<>();
+                comment.getReplies().forEach(reply -> replies.add(comment(reply)));
+                comments.add(comment(comment).append("replies", replies));
+            }
+            batch.add(new Document("_id", id)
+                    .append("type", item.getType())
+                    .append("title", item.getTitle())
+                    .append("body", item.getBody())
+                    .append("author", item.getAuthor())
+                    .append("createdAt", item.getCreatedAt())
+                    .append("comments", comments));
+
+            if (batch.size() == BATCH_SIZE || id == size - 1) {
+                content.insertMany(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public long read(int key) {
+        // Raw documents are not decoded, so the size is exactly what came over the wire
+        RawBsonDocument document = rawContent.find(Filters.eq("_id", key)).first();
+        if (document == null) {
+            throw new BenchmarkException("Content " + key + " not found");
+        }
+        return document.getByteBuffer().remaining();
+    }
+
+    @Override
+    public void write(int key, Random random) {
+        Document comment = comment(SampleData.comment(random)).append("replies", new ArrayList<>());
+        content.updateOne(Filters.eq("_id", key), Updates.push("comments", comment));
+    }
+
+    private static Document comment(SampleData.Comment comment) {
+        return new Document("author", comment.getAuthor())
+                .append("text", comment.getText())
+                .append("createdAt", comment.getCreatedAt());
+    }
+}
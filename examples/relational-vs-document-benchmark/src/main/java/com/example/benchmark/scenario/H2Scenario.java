@@ -0,0 +1,97 @@
+package com.example.benchmark.scenario;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+// File-based H2 database per model, so bytes stored are the pages actually written
+abstract class H2Scenario implements Scenario {
+    protected final Connection connection;
+
+    protected H2Scenario(Path directory, String name) {
+        try {
+            connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve(name).toAbsolutePath(), "sa", "");
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not open H2 database " + name, ex);
+        }
+    }
+
+    @Override
+    public String getStore() {
+        return "H2";
+    }
+
+    protected abstract List<String> tables();
+
+    @Override
+    public long bytesStored() {
+        long bytes = 0;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT DISK_SPACE_USED(?)")) {
+            // Pages only count once they are written to the file
+            execute("CHECKPOINT SYNC");
+            for (String table : tables()) {
+                statement.setString(1, table);
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    bytes += result.getLong(1);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not read the H2 disk space", ex);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not close H2 database", ex);
+        }
+    }
+
+    protected void execute(String... statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    // Payload size of the current row: strings as UTF-8, numbers and timestamps at their binary width
+    protected static long rowBytes(ResultSet row) throws SQLException {
+        ResultSetMetaData metaData = row.getMetaData();
+        long bytes = 0;
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if (row.getObject(column) == null) {
+                continue;
+            }
+            switch (metaData.getColumnType(column)) {
+                case Types.VARCHAR:
+                case Types.CHAR:
+                case Types.CLOB:
+                    bytes += row.getString(column).getBytes(StandardCharsets.UTF_8).length;
+                    break;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    bytes += row.getBigDecimal(column).unscaledValue().toByteArray().length + 1;
+                    break;
+                case Types.INTEGER:
+                    bytes += Integer.BYTES;
+                    break;
+                default:
+                    bytes += Long.BYTES;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.benchmark.scenario;
+
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+
+import java.util.List;
+
+// Scenarios share the client, which the application closes; close only releases scenario state
+abstract class MongoScenario implements Scenario {
+    protected final MongoDatabase database;
+
+    protected MongoScenario(MongoDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public String getStore() {
+        return "MongoDB";
+    }
+
+    protected abstract List<String> collections();
+
+    protected void drop() {
+        collections().forEach(name -> database.getCollection(name).drop());
+    }
+
+    @Override
+    public long bytesStored() {
+        long bytes = 0;
+        for (String name : collections()) {
+            // size is the uncompressed BSON size; the on-disk storageSize depends on the block compressor
+            Document stats = database.runCommand(new Document("collStats", name));
+            bytes += ((Number) stats.get("size")).longValue() + ((Number) stats.get("totalIndexSize")).longValue();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+    }
+}
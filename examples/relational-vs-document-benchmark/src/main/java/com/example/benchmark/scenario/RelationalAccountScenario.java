@@ -0,0 +1,147 @@
+package com.example.benchmark.scenario;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Accounts and transfers as in the financial transaction system; a transfer is one JDBC transaction
+public class RelationalAccountScenario extends H2Scenario {
+    private static final int BATCH_SIZE = 1000;
+    private static final int HISTORY = 10;
+
+    // Two index range scans instead of an OR, which H2 would answer with a table scan
+    private static final String HISTORY_SQL = "SELECT * FROM ("
+            + "(SELECT * FROM transfer WHERE from_id = ? ORDER BY created_at DESC LIMIT " + HISTORY + ") "
+            + "UNION ALL "
+            + "(SELECT * FROM transfer WHERE to_id = ? ORDER BY created_at DESC LIMIT " + HISTORY + ")"
+            + ") ORDER BY created_at DESC LIMIT " + HISTORY;
+
+    private int size;
+    private long nextTransferId;
+
+    public RelationalAccountScenario(Path directory) {
+        super(directory, "accounts");
+    }
+
+    @Override
+    public String getModel() {
+        return "accounts";
+    }
+
+    @Override
+    protected List<String> tables() {
+        return Arrays.asList("ACCOUNT", "TRANSFER");
+    }
+
+    @Override
+    public void load(int size, Random random) {
+        this.size = size;
+        try {
+            execute("DROP ALL OBJECTS",
+                    "CREATE TABLE account (id INT PRIMARY KEY, owner VARCHAR(64) NOT NULL, balance DECIMAL(19, 2) NOT NULL)",
+                    "CREATE TABLE transfer (id BIGINT PRIMARY KEY, from_id INT NOT NULL REFERENCES account(id), "
+                            + "to_id INT NOT NULL REFERENCES account(id), amount DECIMAL(19, 2) NOT NULL, "
+                            + "description VARCHAR(255), created_at TIMESTAMP NOT NULL)",
+                    "CREATE INDEX idx_transfer_from ON transfer(from_id, created_at)",
+                    "CREATE INDEX idx_transfer_to ON transfer(to_id, created_at)");
+            nextTransferId = 0;
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement accounts = connection.prepareStatement("INSERT INTO account VALUES (?, ?, ?)")) {
+                for (int id = 0; id < size; id++) {
+                    SampleData.Account account = SampleData.account(random, id);
+                    accounts.setInt(1, id);
+                    accounts.setString(2, account.getOwner());
+                    accounts.setBigDecimal(3, account.getBalance());
+                    accounts.addBatch();
+                    if ((id + 1) % BATCH_SIZE == 0 || id == size - 1) {
+                        accounts.executeBatch();
+                    }
+                }
+            }
+            try (PreparedStatement transfers = connection.prepareStatement(
+                    "INSERT INTO transfer VALUES (?, ?, ?, ?, ?, ?)")) {
+                int count = size * SampleData.TRANSFERS_PER_ACCOUNT;
+                for (int i = 0; i < count; i++) {
+                    bindTransfer(transfers, SampleData.transfer(random, i % size, size));
+                    transfers.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0 || i == count - 1) {
+                        transfers.executeBatch();
+                    }
+                }
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not load accounts into H2", ex);
+        }
+    }
+
+    @Override
+    public long read(int key) {
+        long bytes = 0;
+        try (PreparedStatement account = connection.prepareStatement("SELECT * FROM account WHERE id = ?");
+             PreparedStatement history = connection.prepareStatement(HISTORY_SQL)) {
+            account.setInt(1, key);
+            try (ResultSet rows = account.executeQuery()) {
+                while (rows.next()) {
+                    bytes += rowBytes(rows);
+                }
+            }
+            history.setInt(1, key);
+            history.setInt(2, key);
+            try (ResultSet rows = history.executeQuery()) {
+                while (rows.next()) {
+                    bytes += rowBytes(rows);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not read account " + key, ex);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void write(int key, Random random) {
+        SampleData.Transfer transfer = SampleData.transfer(random, key, size);
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement balance = connection.prepareStatement(
+                    "UPDATE account SET balance = balance + ? WHERE id = ?");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO transfer VALUES (?, ?, ?, ?, ?, ?)")) {
+                balance.setBigDecimal(1, transfer.getAmount().negate());
+                balance.setInt(2, transfer.getFromId());
+                balance.addBatch();
+                balance.setBigDecimal(1, transfer.getAmount());
+                balance.setInt(2, transfer.getToId());
+                balance.addBatch();
+                balance.executeBatch();
+
+                bindTransfer(insert, transfer);
+                insert.executeUpdate();
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not transfer from account " + key, ex);
+        }
+    }
+
+    private void bindTransfer(PreparedStatement statement, SampleData.Transfer transfer) throws SQLException {
+        statement.setLong(1, nextTransferId++);
+        statement.setInt(2, transfer.getFromId());
+        statement.setInt(3, transfer.getToId());
+        statement.setBigDecimal(4, transfer.getAmount());
+        statement.setString(5, transfer.getDescription());
+        statement.setTimestamp(6, new Timestamp(transfer.getCreatedAt().getTime()));
+    }
+}
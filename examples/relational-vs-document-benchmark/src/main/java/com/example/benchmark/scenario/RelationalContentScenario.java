@@ -0,0 +1,130 @@
+package com.example.benchmark.scenario;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Content normalized into content, comment and reply tables; a read joins all three
+public class RelationalContentScenario extends H2Scenario {
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String READ_SQL = "SELECT c.id, c.type, c.title, c.body, c.author, c.created_at, "
+            + "m.id, m.author, m.text, m.created_at, r.id, r.author, r.text, r.created_at "
+            + "FROM content c "
+            + "LEFT JOIN comment m ON m.content_id = c.id "
+            + "LEFT JOIN reply r ON r.comment_id = m.id "
+            + "WHERE c.id = ?";
+
+    private long nextCommentId;
+    private long nextReplyId;
+
+    public RelationalContentScenario(Path directory) {
+        super(directory, "content");
+    }
+
+    @Override
+    public String getModel() {
+        return "content";
+    }
+
+    @Override
+    protected List<String> tables() {
+        return Arrays.asList("CONTENT", "COMMENT", "REPLY");
+    }
+
+    @Override
+    public void load(int size, Random random) {
+        try {
+            execute("DROP ALL OBJECTS",
+                    "CREATE TABLE content (id INT PRIMARY KEY, type VARCHAR(32) NOT NULL, title VARCHAR(255) NOT NULL, "
+                            + "body VARCHAR(4000) NOT NULL, author VARCHAR(64) NOT NULL, created_at TIMESTAMP NOT NULL)",
+                    "CREATE TABLE comment (id BIGINT PRIMARY KEY, content_id INT NOT NULL REFERENCES content(id), "
+                            + "author VARCHAR(64) NOT NULL, text VARCHAR(1000) NOT NULL, created_at TIMESTAMP NOT NULL)",
+                    "CREATE TABLE reply (id BIGINT PRIMARY KEY, comment_id BIGINT NOT NULL REFERENCES comment(id), "
+                            + "author VARCHAR(64) NOT NULL, text VARCHAR(1000) NOT NULL, created_at TIMESTAMP NOT NULL)",
+                    "CREATE INDEX idx_comment_content ON comment(content_id)",
+                    "CREATE INDEX idx_reply_comment ON reply(comment_id)");
+            nextCommentId = 0;
+            nextReplyId = 0;
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement contents = connection.prepareStatement("INSERT INTO content VALUES (?, ?, ?, ?, ?, ?)");
+                 PreparedStatement comments = connection.prepareStatement("INSERT INTO comment VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement replies = connection.prepareStatement("INSERT INTO reply VALUES (?, ?, ?, ?, ?)")) {
+                for (int id = 0; id < size; id++) {
+                    SampleData.Content content = SampleData.content(random, id);
+                    contents.setInt(1, id);
+                    contents.setString(2, content.getType());
+                    contents.setString(3, content.getTitle());
+                    contents.setString(4, content.getBody());
+                    contents.setString(5, content.getAuthor());
+                    contents.setTimestamp(6, new Timestamp(content.getCreatedAt().getTime()));
+                    contents.addBatch();
+
+                    for (SampleData.Comment comment : content.getComments()) {
+                        long commentId = nextCommentId++;
+                        bindComment(comments, commentId, id, comment);
+                        comments.addBatch();
+                        for (SampleData.Comment reply : comment.getReplies()) {
+                            bindComment(replies, nextReplyId++, commentId, reply);
+                            replies.addBatch();
+                        }
+                    }
+
+                    if ((id + 1) % BATCH_SIZE == 0 || id == size - 1) {
+                        // Parents first, for the foreign keys
+                        contents.executeBatch();
+                        comments.executeBatch();
+                        replies.executeBatch();
+                        connection.commit();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not load content into H2", ex);
+        }
+    }
+
+    @Override
+    public long read(int key) {
+        long bytes = 0;
+        try (PreparedStatement statement = connection.prepareStatement(READ_SQL)) {
+            statement.setInt(1, key);
+            try (ResultSet rows = statement.executeQuery()) {
+                // Every row repeats the content columns, and the comment columns for each reply
+                while (rows.next()) {
+                    bytes += rowBytes(rows);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not read content " + key, ex);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void write(int key, Random random) {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO comment VALUES (?, ?, ?, ?, ?)")) {
+            bindComment(statement, nextCommentId++, key, SampleData.comment(random));
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new BenchmarkException("Could not add a comment to content " + key, ex);
+        }
+    }
+
+    private static void bindComment(PreparedStatement statement, long id, long parentId, SampleData.Comment comment)
+            throws SQLException {
+        statement.setLong(1, id);
+        statement.setLong(2, parentId);
+        statement.setString(3, comment.getAuthor());
+        statement.setString(4, comment.getText());
+        statement.setTimestamp(5, new Timestamp(comment.getCreatedAt().getTime()));
+    }
+}
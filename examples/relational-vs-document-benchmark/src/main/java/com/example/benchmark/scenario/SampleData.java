@@ -0,0 +1,128 @@
+package com.example.benchmark.scenario;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+// Record generators shared by the scenarios. Each store turns the same generated records into
+// its own rows or documents, so both load exactly the same data from the same seed.
+final class SampleData {
+    private static final String[] WORDS = {
+            "data", "model", "schema", "document", "table", "index", "query", "join", "store", "record",
+            "field", "value", "replica", "shard", "commit", "read", "write", "latency", "cache", "page"
+    };
+    private static final String[] TYPES = {"article", "product", "page"};
+    private static final long EPOCH = 1_672_531_200_000L; // 2023-01-01T00:00:00Z
+    private static final long YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    // Initial transfers per account
+    static final int TRANSFERS_PER_ACCOUNT = 5;
+
+    private SampleData() {
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Content {
+        private int id;
+        private String type;
+        private String title;
+        private String body;
+        private String author;
+        private Date createdAt;
+        private List<Comment> comments;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Comment {
+        private String author;
+        private String text;
+        private Date createdAt;
+        private List<Comment> replies;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Account {
+        private int id;
+        private String owner;
+        private BigDecimal balance;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Transfer {
+        private int fromId;
+        private int toId;
+        private BigDecimal amount;
+        private String description;
+        private Date createdAt;
+    }
+
+    // Between 0 and 8 comments per item, each with up to 3 replies
+    static Content content(Random random, int id) {
+        String type = TYPES[random.nextInt(TYPES.length)];
+        String title = words(random, 3, 8);
+        String body = words(random, 150, 300);
+        String author = user(random);
+        Date createdAt = date(random);
+        int commentCount = random.nextInt(9);
+        List<Comment> comments = new ArrayList<>(commentCount);
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = comment(random);
+            int replyCount = random.nextInt(4);
+            for (int j = 0; j < replyCount; j++) {
+                comment.getReplies().add(new Comment(user(random), words(random, 3, 15), date(random), null));
+            }
+            comments.add(comment);
+        }
+        return new Content(id, type, title, body, author, createdAt, comments);
+    }
+
+    static Comment comment(Random random) {
+        return new Comment(user(random), words(random, 5, 30), date(random), new ArrayList<>());
+    }
+
+    static Account account(Random random, int id) {
+        return new Account(id, "owner" + id, BigDecimal.valueOf(100_000 + random.nextInt(900_000), 2));
+    }
+
+    // From the given account to a random other one, or to itself when there is only one
+    static Transfer transfer(Random random, int fromId, int accounts) {
+        int toId = fromId;
+        if (accounts > 1) {
+            toId = random.nextInt(accounts - 1);
+            if (toId >= fromId) {
+                toId++;
+            }
+        }
+        BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(10_000), 2);
+        return new Transfer(fromId, toId, amount, words(random, 2, 6), date(random));
+    }
+
+    private static String words(Random random, int min, int max) {
+        int count = min + random.nextInt(max - min + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String user(Random random) {
+        return "user" + random.nextInt(500);
+    }
+
+    private static Date date(Random random) {
+        return new Date(EPOCH + (long) (random.nextDouble() * YEAR_MILLIS));
+    }
+}
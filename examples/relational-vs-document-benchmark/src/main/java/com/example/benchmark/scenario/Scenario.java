@@ -0,0 +1,27 @@
+package com.example.benchmark.scenario;
+
+import java.util.Random;
+
+// One data model on one store. The relational and document implementations of a model get the
+// same seeded Random, so they load the same data and run the same sequence of operations.
+public interface Scenario extends AutoCloseable {
+
+    // The model, e.g. "content"; scenarios with the same model are compared with each other
+    String getModel();
+
+    String getStore();
+
+    // Drops whatever a previous run left behind and loads size records
+    void load(int size, Random random);
+
+    // Reads record key and returns the number of payload bytes received
+    long read(int key);
+
+    void write(int key, Random random);
+
+    // Data plus index bytes, as reported by the store
+    long bytesStored();
+
+    @Override
+    void close();
+}
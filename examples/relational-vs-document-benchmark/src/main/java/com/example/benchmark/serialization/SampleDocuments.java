@@ -0,0 +1,155 @@
+package com.example.benchmark.serialization;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Content documents shaped like the content management system's API responses: the item with its
+// typed data, the embedded author and the comment tree. Built as maps, the way the backend hands
+// data to Jackson, so every format serializes exactly the same tree.
+final class SampleDocuments {
+    private static final String[] WORDS = {
+            "data", "model", "schema", "document", "table", "index", "query", "join", "store", "record",
+            "field", "value", "replica", "shard", "commit", "read", "write", "latency", "cache", "page"
+    };
+    private static final String[] COLORS = {"black", "white", "red", "blue", "green", "silver"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL"};
+    private static final long EPOCH = 1_672_531_200_000L; // 2023-01-01T00:00:00Z
+    private static final long YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    private SampleDocuments() {
+    }
+
+    // Body of a few hundred words, tags, SEO metadata and up to 12 comments with replies
+    static Map<String, Object> article(Random random, int id) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("seoTitle", words(random, 4, 8));
+        metadata.put("seoDescription", words(random, 15, 25));
+        metadata.put("readingMinutes", 2 + random.nextInt(12));
+        metadata.put("featured", random.nextBoolean());
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("title", words(random, 4, 10));
+        data.put("summary", words(random, 20, 40));
+        data.put("body", words(random, 200, 600));
+        data.put("tags", tags(random));
+        data.put("metadata", metadata);
+        return item(random, id, "article", data, random.nextInt(13));
+    }
+
+    // Variants and a specification map, the largest documents in the system
+    static Map<String, Object> product(Random random, int id) {
+        int variantCount = 3 + random.nextInt(18);
+        List<Map<String, Object>> variants = new ArrayList<>(variantCount);
+        for (int i = 0; i < variantCount; i++) {
+            Map<String, Object> variant = new LinkedHashMap<>();
+            variant.put("sku", "SKU-" + id + "-" + i);
+            variant.put("color", COLORS[random.nextInt(COLORS.length)]);
+            variant.put("size", SIZES[random.nextInt(SIZES.length)]);
+            variant.put("price", (999 + random.nextInt(50_000)) / 100.0);
+            variant.put("stock", random.nextInt(500));
+            variant.put("weightGrams", 100 + random.nextInt(5_000));
+            variants.add(variant);
+        }
+
+        Map<String, Object> specifications = new LinkedHashMap<>();
+        int specificationCount = 8 + random.nextInt(17);
+        for (int i = 0; i < specificationCount; i++) {
+            specifications.put(WORDS[random.nextInt(WORDS.length)] + i, words(random, 1, 6));
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", words(random, 2, 5));
+        data.put("description", words(random, 60, 150));
+        data.put("price", (999 + random.nextInt(50_000)) / 100.0);
+        data.put("currency", "EUR");
+        data.put("tags", tags(random));
+        data.put("variants", variants);
+        data.put("specifications", specifications);
+        return item(random, id, "product", data, random.nextInt(6));
+    }
+
+    private static Map<String, Object> item(Random random, int id, String type, Map<String, Object> data,
+                                            int commentCount) {
+        List<Map<String, Object>> comments = new ArrayList<>(commentCount);
+        for (int i = 0; i < commentCount; i++) {
+            Map<String, Object> comment = comment(random, id, i);
+            int replyCount = random.nextInt(4);
+            List<Map<String, Object>> replies = new ArrayList<>(replyCount);
+            for (int j = 0; j < replyCount; j++) {
+                replies.add(comment(random, id, i * 10 + j));
+            }
+            comment.put("replies", replies);
+            comments.add(comment);
+        }
+
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", objectId(id));
+        item.put("type", type);
+        item.put("data", data);
+        item.put("author", author(random));
+        item.put("published", random.nextBoolean());
+        item.put("createdAt", date(random));
+        item.put("updatedAt", date(random));
+        item.put("comments", comments);
+        item.put("commentCount", commentCount);
+        item.put("revision", 1 + random.nextInt(40));
+        item.put("mediaIds", new ArrayList<>());
+        return item;
+    }
+
+    private static Map<String, Object> author(Random random) {
+        int user = random.nextInt(500);
+        Map<String, Object> author = new LinkedHashMap<>();
+        author.put("id", objectId(1_000_000 + user));
+        author.put("name", "User " + user);
+        author.put("email", "user" + user + "@example.com");
+        author.put("role", random.nextInt(10) == 0 ? "EDITOR" : "AUTHOR");
+        author.put("updatedAt", date(random));
+        return author;
+    }
+
+    private static Map<String, Object> comment(Random random, int id, int index) {
+        int user = random.nextInt(500);
+        Map<String, Object> comment = new LinkedHashMap<>();
+        comment.put("id", objectId(id * 1_000 + index));
+        comment.put("userId", objectId(1_000_000 + user));
+        comment.put("userName", "User " + user);
+        comment.put("text", words(random, 5, 40));
+        comment.put("timestamp", date(random));
+        return comment;
+    }
+
+    private static List<String> tags(Random random) {
+        int count = 1 + random.nextInt(5);
+        List<String> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return tags;
+    }
+
+    // 24 hex digits, like the ObjectIds the backend returns
+    private static String objectId(int id) {
+        return String.format("64a0%020x", id);
+    }
+
+    private static String words(Random random, int min, int max) {
+        int count = min + random.nextInt(max - min + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static Date date(Random random) {
+        return new Date(EPOCH + (long) (random.nextDouble() * YEAR_MILLIS));
+    }
+}
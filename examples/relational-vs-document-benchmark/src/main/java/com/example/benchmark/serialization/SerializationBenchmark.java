@@ -0,0 +1,144 @@
+package com.example.benchmark.serialization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+// Encodes and decodes the same content payloads as JSON, Smile and CBOR, the formats the backends
+// negotiate, and measures payload size with and without gzip and the CPU time per payload. Runs
+// on a single thread in process, so no store is needed.
+public class SerializationBenchmark {
+    private static final int POOL_SIZE = 200;
+    private static final int PAGE_SIZE = 20;
+
+    private final int warmup;
+    private final int operations;
+    private final long seed;
+
+    public SerializationBenchmark(int warmup, int operations, long seed) {
+        this.warmup = warmup;
+        this.operations = operations;
+        this.seed = seed;
+    }
+
+    public List<SerializationResult> run() {
+        Map<String, List<Object>> payloads = payloads(new Random(seed));
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("JSON", mapper(new JsonFactory()));
+        formats.put("Smile", mapper(new SmileFactory()));
+        formats.put("CBOR", mapper(new CBORFactory()));
+
+        List<SerializationResult> results = new ArrayList<>();
+        for (Map.Entry<String, List<Object>> payload : payloads.entrySet()) {
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                System.err.printf("Serializing %s as %s%n", payload.getKey(), format.getKey());
+                results.add(measure(payload.getKey(), format.getKey(), format.getValue(), payload.getValue()));
+            }
+        }
+        return results;
+    }
+
+    private SerializationResult measure(String name, String format, ObjectMapper mapper, List<Object> pool) {
+        List<byte[]> encoded = new ArrayList<>(pool.size());
+        long bytes = 0;
+        long gzipBytes = 0;
+        for (Object payload : pool) {
+            byte[] data = encode(mapper, payload);
+            encoded.add(data);
+            bytes += data.length;
+            gzipBytes += gzip(data).length;
+        }
+        Class<?> type = pool.get(0).getClass();
+
+        // The checksum keeps the JIT from dropping work whose result is unused
+        long checksum = 0;
+        for (int i = 0; i < warmup; i++) {
+            checksum += encode(mapper, pool.get(i % pool.size())).length;
+            checksum += decode(mapper, encoded.get(i % pool.size()), type).hashCode();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            checksum += encode(mapper, pool.get(i % pool.size())).length;
+        }
+        long encodeNanos = System.nanoTime() - started;
+        started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            checksum += decode(mapper, encoded.get(i % pool.size()), type).hashCode();
+        }
+        long decodeNanos = System.nanoTime() - started;
+        if (checksum == 42) {
+            System.err.println("Unlikely checksum " + checksum);
+        }
+
+        return new SerializationResult(name, format, (double) bytes / pool.size(), (double) gzipBytes / pool.size(),
+                encodeNanos / 1000.0 / operations, decodeNanos / 1000.0 / operations);
+    }
+
+    // Single articles and products as returned by GET /api/content/{id}, and pages of mixed items
+    private static Map<String, List<Object>> payloads(Random random) {
+        List<Object> articles = new ArrayList<>();
+        List<Object> products = new ArrayList<>();
+        List<Object> pages = new ArrayList<>();
+        int id = 0;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            articles.add(SampleDocuments.article(random, id++));
+            products.add(SampleDocuments.product(random, id++));
+        }
+        for (int i = 0; i < POOL_SIZE / 10; i++) {
+            List<Object> page = new ArrayList<>(PAGE_SIZE);
+            for (int j = 0; j < PAGE_SIZE; j++) {
+                page.add(random.nextBoolean() ? SampleDocuments.article(random, id++) : SampleDocuments.product(random, id++));
+            }
+            pages.add(page);
+        }
+
+        Map<String, List<Object>> payloads = new LinkedHashMap<>();
+        payloads.put("article", articles);
+        payloads.put("product", products);
+        payloads.put("page of " + PAGE_SIZE, pages);
+        return payloads;
+    }
+
+    // Dates as ISO strings, as the Spring Boot backends write them
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return new ObjectMapper(factory).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static byte[] encode(ObjectMapper mapper, Object payload) {
+        try {
+            return mapper.writeValueAsBytes(payload);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Object decode(ObjectMapper mapper, byte[] data, Class<?> type) {
+        try {
+            return mapper.readValue(data, type);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
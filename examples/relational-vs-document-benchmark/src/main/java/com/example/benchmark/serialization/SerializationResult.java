@@ -0,0 +1,16 @@
+package com.example.benchmark.serialization;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SerializationResult {
+    private String payload;
+    private String format;
+    // Averages per payload
+    private double bytes;
+    private double gzipBytes;
+    private double encodeMicros;
+    private double decodeMicros;
+}
@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+# Measures time to first successful request: from launching the backend's jar until a request
+# that needs the sample data succeeds. Each run starts a fresh JVM and is reported on its own,
+# followed by min, median and max.
+#
+#   scripts/measure-startup.sh finance|cms [profile] [runs]
+#
+#   scripts/measure-startup.sh finance                  # default startup, 5 runs
+#   scripts/measure-startup.sh finance fast-start 10    # fast-start profile, 10 runs
+#
+# The CMS needs MongoDB on localhost:27017 and drops its database before every run, so each
+# run seeds from scratch. JAVA_OPTS is passed to the JVM; SKIP_BUILD=1 reuses the built jar.
+set -euo pipefail
+
+app=${1:?usage: $0 finance|cms [profile] [runs]}
+profile=${2:-default}
+runs=${3:-5}
+root=$(cd "$(dirname "$0")/.." && pwd)
+
+case "$app" in
+  finance)
+    dir=$root/examples/financial-transaction-system/backend
+    port=18080
+    # Account 1 exists only once the sample data is loaded
+    url=http://localhost:$port/api/accounts/1
+    expect='"accountId":1'
+    reset() { :; }
+    ;;
+  cms)
+    dir=$root/examples/content-management-system/backend
+    port=18081
+    url=http://localhost:$port/api/users
+    expect='jane@example.com'
+    reset() { mongosh --quiet cmsdb --eval 'db.dropDatabase()' > /dev/null; }
+    ;;
+  *)
+    echo "unknown app: $app" >&2
+    exit 2
+    ;;
+esac
+
+if [ "${SKIP_BUILD:-0}" != 1 ]; then
+  (cd "$dir" && mvn -B -q -DskipTests package)
+fi
+jar=$(ls "$dir"/target/*-SNAPSHOT.jar | head -n 1)
+
+args=(--server.port=$port)
+if [ "$profile" != default ]; then
+  args+=(--spring.profiles.active=$profile)
+fi
+
+log=$(mktemp)
+trap 'rm -f "$log"' EXIT
+results=()
+for run in $(seq 1 "$runs"); do
+  reset
+  started=$(date +%s%N)
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -jar "$jar" "${args[@]}" > "$log" 2>&1 &
+  pid=$!
+
+  elapsed=
+  while kill -0 "$pid" 2> /dev/null; do
+    if curl -sf "$url" 2> /dev/null | grep -q "$expect"; then
+      elapsed=$(( ($(date +%s%N) - started) / 1000000 ))
+      break
+    fi
+    if [ $(( ($(date +%s%N) - started) / 1000000000 )) -ge 180 ]; then
+      break
+    fi
+    sleep 0.02
+  done
+
+  kill "$pid" 2> /dev/null || true
+  wait "$pid" 2> /dev/null || true
+  if [ -z "$elapsed" ]; then
+    echo "run $run: no successful request, log follows" >&2
+    tail -n 40 "$log" >&2
+    exit 1
+  fi
+  echo "run $run: $elapsed ms"
+  results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "$app ($profile), $runs runs: min ${sorted[0]} ms, median ${sorted[$(( runs / 2 ))]} ms, max ${sorted[$(( runs - 1 ))]} ms"